@@ -0,0 +1,93 @@
+package ru.astondevs;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import ru.astondevs.dao.BulkheadUserDao;
+import ru.astondevs.dao.UserDao;
+import ru.astondevs.dao.UserDaoFactory;
+import ru.astondevs.loadtest.LoadTestConfig;
+import ru.astondevs.loadtest.LoadTestReport;
+import ru.astondevs.loadtest.LoadTestRunner;
+import ru.astondevs.service.warmup.StartupWarmup;
+import ru.astondevs.util.HibernateUtil;
+import ru.astondevs.util.TransactionRunner;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Multi-threaded load generator for the user DAO.
+ * <pre>
+ * --threads 8 --duration 30 --warmup 5 --keys 10000 --distribution uniform|zipfian
+ * --zipf 0.99 --mix findById=80,findByEmail=10,save=5,update=5 --rate 2000
+ * --bulkhead --no-cleanup --json report.json --startup-warmup 10
+ * </pre>
+ * Durations are in seconds; {@code --rate} switches to fixed-rate open-loop mode.
+ * {@code --startup-warmup} runs {@link StartupWarmup} first; compare runs with {@code --warmup 0}
+ * with and without it to see first-minute latency.
+ */
+public class LoadTestApplication {
+    private static final Logger logger = LogManager.getLogger(LoadTestApplication.class);
+
+    public static void main(String[] args) {
+        try {
+            LoadTestConfig config = parseArgs(args);
+            UserDao userDao = UserDaoFactory.create();
+            if (!config.getStartupWarmup().isZero()) {
+                StartupWarmup.builder().userDao(userDao).duration(config.getStartupWarmup()).build().run();
+            }
+            TransactionRunner transactionRunner = TransactionRunner.hibernate();
+            if (config.isBulkhead()) {
+                BulkheadUserDao bulkheadUserDao = BulkheadUserDao.withDefaults(userDao,
+                        HibernateUtil.getIntProperty("hibernate.connection.pool_size", 10));
+                userDao = bulkheadUserDao;
+                transactionRunner = bulkheadUserDao.bound(transactionRunner);
+            }
+            LoadTestReport report = new LoadTestRunner(userDao, transactionRunner, config).run();
+
+            System.out.print(report.toText());
+            if (config.getJsonOutput() != null) {
+                Files.writeString(config.getJsonOutput(), report.toJson());
+                System.out.println("JSON report written to " + config.getJsonOutput());
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+        } catch (Exception e) {
+            logger.error("Load test failed", e);
+            System.out.println("Load test failed: " + e.getMessage());
+        } finally {
+            HibernateUtil.shutdown();
+        }
+    }
+
+    static LoadTestConfig parseArgs(String[] args) {
+        LoadTestConfig.LoadTestConfigBuilder builder = LoadTestConfig.builder();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads" -> builder.threads(Integer.parseInt(value(args, ++i)));
+                case "--duration" -> builder.duration(Duration.ofSeconds(Long.parseLong(value(args, ++i))));
+                case "--warmup" -> builder.warmup(Duration.ofSeconds(Long.parseLong(value(args, ++i))));
+                case "--keys" -> builder.keySpace(Integer.parseInt(value(args, ++i)));
+                case "--distribution" -> builder.distribution(value(args, ++i));
+                case "--zipf" -> builder.zipfExponent(Double.parseDouble(value(args, ++i)));
+                case "--mix" -> builder.mix(LoadTestConfig.parseMix(value(args, ++i)));
+                case "--rate" -> builder.targetRate(Double.parseDouble(value(args, ++i)));
+                case "--startup-warmup" ->
+                        builder.startupWarmup(Duration.ofSeconds(Long.parseLong(value(args, ++i))));
+                case "--bulkhead" -> builder.bulkhead(true);
+                case "--no-cleanup" -> builder.cleanup(false);
+                case "--json" -> builder.jsonOutput(Path.of(value(args, ++i)));
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        return builder.build();
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+        }
+        return args[index];
+    }
+}
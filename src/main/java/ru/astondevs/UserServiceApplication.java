@@ -2,8 +2,25 @@ package ru.astondevs;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import ru.astondevs.dao.UserDaoFactory;
 import ru.astondevs.service.UserService;
+import ru.astondevs.service.batch.BatchCommandProcessor;
+import ru.astondevs.service.batch.BatchSummary;
+import ru.astondevs.service.warmup.StartupWarmup;
+import ru.astondevs.util.HibernateUtil;
+import ru.astondevs.util.TransactionRunner;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Scanner;
 
 public class UserServiceApplication {
@@ -12,7 +29,16 @@ public class UserServiceApplication {
     public static void main(String[] args) {
         logger.info("Starting User Service application");
 
+        if (args.length > 0 && "--batch".equals(args[0])) {
+            runBatch(args);
+            return;
+        }
+
         UserService userService = new UserService();
+        if (Boolean.parseBoolean(HibernateUtil.getStringProperty("user.warmup.enabled", "false"))) {
+            StartupWarmup.fromConfiguration(userService.getUserDao()).run();
+        }
+        logger.info("User Service ready");
 
         try (Scanner scanner = new Scanner(System.in)) {
             displayMenu();
@@ -29,7 +55,7 @@ public class UserServiceApplication {
                         userService.getUserById();
                         break;
                     case "3":
-                        userService.getAllUsers();
+                        userService.listUsers();
                         break;
                     case "4":
                         userService.updateUser();
@@ -55,11 +81,47 @@ public class UserServiceApplication {
         }
     }
 
+    /**
+     * {@code --batch <file|-> [--out <file>] [--chunk <size>]}: executes commands from a file or stdin
+     * and writes one tab-separated result line per command (see {@link BatchCommandProcessor}).
+     */
+    private static void runBatch(String[] args) {
+        String source = args.length > 1 ? args[1] : "-";
+        Path out = null;
+        int chunkSize = 1000;
+        for (int i = 2; i < args.length - 1; i += 2) {
+            switch (args[i]) {
+                case "--out" -> out = Path.of(args[i + 1]);
+                case "--chunk" -> chunkSize = Integer.parseInt(args[i + 1]);
+                default -> System.err.println("Ignoring unknown option: " + args[i]);
+            }
+        }
+
+        BatchCommandProcessor processor = new BatchCommandProcessor(UserDaoFactory.create(),
+                TransactionRunner.hibernate(), chunkSize);
+        try (Reader reader = "-".equals(source)
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), 1 << 16)
+                : Files.newBufferedReader(Path.of(source), StandardCharsets.UTF_8);
+             Writer writer = out != null
+                     ? Files.newBufferedWriter(out, StandardCharsets.UTF_8)
+                     // Bypass System.out: it is synchronized and flushes on every line
+                     : new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out),
+                     StandardCharsets.UTF_8), 1 << 16)) {
+            BatchSummary summary = processor.process(reader, writer);
+            System.err.println("Batch completed: " + summary);
+        } catch (Exception e) {
+            logger.error("Batch processing failed", e);
+            System.err.println("Batch processing failed: " + e.getMessage());
+        } finally {
+            HibernateUtil.shutdown();
+        }
+    }
+
     private static void displayMenu() {
         System.out.println("\n=== User Service ===");
         System.out.println("1. Create User");
         System.out.println("2. Get User by ID");
-        System.out.println("3. Get All Users");
+        System.out.println("3. List Users");
         System.out.println("4. Update User");
         System.out.println("5. Delete User");
         System.out.println("6. Exit");
@@ -0,0 +1,95 @@
+package ru.astondevs.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Groups single-key loads that arrive within a short window into one multi-key load.
+ * <p>
+ * Callers enqueue their key on a lock-free queue; the caller that finds no collector running becomes
+ * the collector, waits for the window, drains the queue and runs the bulk loader (in chunks of
+ * {@code maxBatchSize}), completing every waiter. Keys missing from the loader's result map get
+ * {@code null}. The collector resets its flag before draining, so a key is either drained by the
+ * running collector or its caller becomes the next one.
+ */
+public class BatchWindow<K, V> {
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Function<Collection<K>, Map<K, V>> bulkLoader;
+
+    private final ConcurrentLinkedQueue<Pending<K, V>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean collecting = new AtomicBoolean();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedKeys = new LongAdder();
+
+    public BatchWindow(Duration window, int maxBatchSize, Function<Collection<K>, Map<K, V>> bulkLoader) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be positive");
+        }
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.bulkLoader = bulkLoader;
+    }
+
+    public V load(K key) {
+        Pending<K, V> pending = new Pending<>(key, new CompletableFuture<>());
+        queue.add(pending);
+        if (collecting.compareAndSet(false, true)) {
+            LockSupport.parkNanos(windowNanos);
+            collecting.set(false);
+            flush();
+        }
+        return SingleFlight.await(pending.result());
+    }
+
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    public long getBatchedKeyCount() {
+        return batchedKeys.sum();
+    }
+
+    private void flush() {
+        List<Pending<K, V>> chunk = new ArrayList<>();
+        Pending<K, V> next;
+        while ((next = queue.poll()) != null) {
+            chunk.add(next);
+            if (chunk.size() == maxBatchSize) {
+                runBatch(chunk);
+                chunk = new ArrayList<>();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            runBatch(chunk);
+        }
+    }
+
+    private void runBatch(List<Pending<K, V>> chunk) {
+        Map<K, List<CompletableFuture<V>>> waiters = new LinkedHashMap<>();
+        for (Pending<K, V> pending : chunk) {
+            waiters.computeIfAbsent(pending.key(), k -> new ArrayList<>()).add(pending.result());
+        }
+        batches.increment();
+        batchedKeys.add(waiters.size());
+        try {
+            Map<K, V> loaded = bulkLoader.apply(waiters.keySet());
+            waiters.forEach((key, futures) -> futures.forEach(f -> f.complete(loaded.get(key))));
+        } catch (RuntimeException | Error e) {
+            waiters.values().forEach(futures -> futures.forEach(f -> f.completeExceptionally(e)));
+        }
+    }
+
+    private record Pending<K, V>(K key, CompletableFuture<V> result) {
+    }
+}
@@ -0,0 +1,165 @@
+package ru.astondevs.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * In-process read-through cache kept coherent by external invalidations.
+ * <p>
+ * A load that overlaps an invalidation of its key must not put the value it read: it may predate
+ * the change. Every invalidation bumps a version stripe chosen by the key's hash and {@link #clear()}
+ * bumps a global epoch; {@link #get} snapshots both before loading and only stores the result if
+ * neither moved. Stripes keep unrelated keys from discarding each other's loads.
+ * <p>
+ * Entries expire after {@code ttl} as a safety net. When {@code maxEntries} is reached expired
+ * entries are dropped first, then an arbitrary tenth of the cache.
+ */
+public class NearCache<K, V> {
+    private static final int STRIPES = 1024;
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLongArray versions = new AtomicLongArray(STRIPES);
+    private final AtomicLong epoch = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public NearCache(Duration ttl, int maxEntries) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns the cached value for {@code key}, loading it on a miss. {@code null} results are not cached.
+     */
+    public V get(K key, Supplier<V> loader) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && System.nanoTime() - entry.expiresAt() < 0) {
+            hits.increment();
+            return entry.value();
+        }
+        misses.increment();
+        int stripe = stripe(key);
+        long epochBefore = epoch.get();
+        long versionBefore = versions.get(stripe);
+        V value = loader.get();
+        if (value != null) {
+            put(key, value, stripe, epochBefore, versionBefore);
+        }
+        return value;
+    }
+
+    /**
+     * Returns the cached value without loading or counting a hit, or {@code null}.
+     */
+    public V peek(K key) {
+        Entry<V> entry = entries.get(key);
+        return entry != null ? entry.value() : null;
+    }
+
+    /**
+     * Stores values obtained outside {@link #get}, e.g. restored from disk, without replacing cached
+     * ones. Stops at {@code maxEntries}, and stores nothing more once {@link #clear()} runs
+     * concurrently. Returns the number of values stored.
+     */
+    public int preload(Map<K, V> values) {
+        long epochBefore = epoch.get();
+        long expiresAt = System.nanoTime() + ttlNanos;
+        int stored = 0;
+        for (Map.Entry<K, V> value : values.entrySet()) {
+            if (entries.size() >= maxEntries || epoch.get() != epochBefore) {
+                break;
+            }
+            if (entries.putIfAbsent(value.getKey(), new Entry<>(value.getValue(), expiresAt)) == null) {
+                stored++;
+            }
+        }
+        if (epoch.get() != epochBefore) {
+            entries.clear();
+            return 0;
+        }
+        return stored;
+    }
+
+    /**
+     * Calls {@code action} for every unexpired entry; weakly consistent with concurrent updates.
+     */
+    public void forEach(BiConsumer<K, V> action) {
+        long now = System.nanoTime();
+        entries.forEach((key, entry) -> {
+            if (now - entry.expiresAt() < 0) {
+                action.accept(key, entry.value());
+            }
+        });
+    }
+
+    public void invalidate(K key) {
+        if (key == null) {
+            return;
+        }
+        versions.incrementAndGet(stripe(key));
+        entries.remove(key);
+        invalidations.increment();
+    }
+
+    public void clear() {
+        epoch.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getInvalidationCount() {
+        return invalidations.sum();
+    }
+
+    private void put(K key, V value, int stripe, long epochBefore, long versionBefore) {
+        if (entries.size() >= maxEntries) {
+            evict();
+        }
+        entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+        // An invalidation or flush that raced with the load may have run before the put; undo it
+        if (epoch.get() != epochBefore || versions.get(stripe) != versionBefore) {
+            entries.remove(key);
+        }
+    }
+
+    private void evict() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> now - entry.expiresAt() >= 0);
+        int toRemove = entries.size() - maxEntries + Math.max(1, maxEntries / 10);
+        Iterator<K> keys = entries.keySet().iterator();
+        while (toRemove-- > 0 && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static int stripe(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
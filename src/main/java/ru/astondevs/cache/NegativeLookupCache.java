@@ -0,0 +1,98 @@
+package ru.astondevs.cache;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Remembers keys recently found to be absent for a short TTL. Bounded: once {@code maxEntries} is
+ * exceeded expired entries are purged, and if that is not enough the cache is cleared.
+ * <p>
+ * A miss read before a concurrent insert must not be remembered after the insert invalidated the
+ * key. As in {@link NearCache}, {@link #invalidate} bumps a version stripe and {@link #clear()} a
+ * global epoch; {@link #load} only marks the key absent if neither moved during the lookup.
+ */
+public class NegativeLookupCache<K> {
+    private static final int STRIPES = 1024;
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final ConcurrentHashMap<K, Long> expiries = new ConcurrentHashMap<>();
+    private final AtomicLongArray versions = new AtomicLongArray(STRIPES);
+    private final AtomicLong epoch = new AtomicLong();
+
+    public NegativeLookupCache(Duration ttl, int maxEntries) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+    }
+
+    public boolean isKnownAbsent(K key) {
+        Long expiry = expiries.get(key);
+        if (expiry == null) {
+            return false;
+        }
+        if (System.nanoTime() - expiry < 0) {
+            return true;
+        }
+        expiries.remove(key, expiry);
+        return false;
+    }
+
+    /**
+     * Runs the lookup for {@code key} and remembers an empty result, unless {@code key} was
+     * invalidated or the cache cleared while it ran.
+     */
+    public <V> Optional<V> load(K key, Supplier<Optional<V>> loader) {
+        int stripe = stripe(key);
+        long epochBefore = epoch.get();
+        long versionBefore = versions.get(stripe);
+        Optional<V> value = loader.get();
+        if (value.isEmpty() && epoch.get() == epochBefore && versions.get(stripe) == versionBefore) {
+            markAbsent(key);
+            // An invalidation that raced with the mark may have run before it; undo it
+            if (epoch.get() != epochBefore || versions.get(stripe) != versionBefore) {
+                expiries.remove(key);
+            }
+        }
+        return value;
+    }
+
+    public void markAbsent(K key) {
+        if (ttlNanos <= 0) {
+            return;
+        }
+        if (expiries.size() >= maxEntries) {
+            long now = System.nanoTime();
+            expiries.values().removeIf(expiry -> now - expiry >= 0);
+            if (expiries.size() >= maxEntries) {
+                expiries.clear();
+            }
+        }
+        expiries.put(key, System.nanoTime() + ttlNanos);
+    }
+
+    public void invalidate(K key) {
+        if (key == null) {
+            return;
+        }
+        versions.incrementAndGet(stripe(key));
+        expiries.remove(key);
+    }
+
+    public void clear() {
+        epoch.incrementAndGet();
+        expiries.clear();
+    }
+
+    public int size() {
+        return expiries.size();
+    }
+
+    private static int stripe(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+}
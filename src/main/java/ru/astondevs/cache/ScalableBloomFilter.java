@@ -0,0 +1,164 @@
+package ru.astondevs.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Scalable Bloom filter (Almeida et al., 2007) for string keys. When the current slice reaches its
+ * capacity a new slice twice as large is added with a tighter error rate, so the compound false
+ * positive rate stays below the configured target however many keys are added. Adds and lookups are
+ * lock-free; entries cannot be removed.
+ */
+public class ScalableBloomFilter {
+    private static final double TIGHTENING_RATIO = 0.5;
+    private static final int GROWTH_FACTOR = 2;
+
+    private final double falsePositiveRate;
+    private final List<Slice> slices = new CopyOnWriteArrayList<>();
+    private final LongAdder size = new LongAdder();
+
+    public ScalableBloomFilter(long initialCapacity, double falsePositiveRate) {
+        if (initialCapacity <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid Bloom filter parameters");
+        }
+        this.falsePositiveRate = falsePositiveRate;
+        // The slice error rates form a geometric series summing to the target rate
+        slices.add(new Slice(initialCapacity, falsePositiveRate * (1 - TIGHTENING_RATIO)));
+    }
+
+    public void add(String key) {
+        long hash = hash64(key);
+        for (Slice slice : slices) {
+            if (slice.mightContain(hash)) {
+                return;
+            }
+        }
+        currentSlice().add(hash);
+        size.increment();
+    }
+
+    /**
+     * @return {@code false} only if the key was definitely never added
+     */
+    public boolean mightContain(String key) {
+        long hash = hash64(key);
+        for (Slice slice : slices) {
+            if (slice.mightContain(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Slice currentSlice() {
+        Slice last = slices.get(slices.size() - 1);
+        if (last.count.sum() < last.capacity) {
+            return last;
+        }
+        synchronized (this) {
+            last = slices.get(slices.size() - 1);
+            if (last.count.sum() >= last.capacity) {
+                last = new Slice(last.capacity * GROWTH_FACTOR, last.falsePositiveRate * TIGHTENING_RATIO);
+                slices.add(last);
+            }
+            return last;
+        }
+    }
+
+    public long size() {
+        return size.sum();
+    }
+
+    public int sliceCount() {
+        return slices.size();
+    }
+
+    public long memoryBytes() {
+        return slices.stream().mapToLong(slice -> slice.bits.length() * 8L).sum();
+    }
+
+    /**
+     * Compound false positive rate predicted from the current fill of every slice.
+     */
+    public double expectedFalsePositiveRate() {
+        double allMiss = 1;
+        for (Slice slice : slices) {
+            double fill = 1 - Math.exp(-(double) slice.hashes * slice.count.sum() / slice.bitCount);
+            allMiss *= 1 - Math.pow(fill, slice.hashes);
+        }
+        return 1 - allMiss;
+    }
+
+    public double getTargetFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 mixer.
+     */
+    static long hash64(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static final class Slice {
+        private final long capacity;
+        private final double falsePositiveRate;
+        private final long bitCount;
+        private final int hashes;
+        private final AtomicLongArray bits;
+        private final LongAdder count = new LongAdder();
+
+        private Slice(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bits = new AtomicLongArray((int) Math.min(Integer.MAX_VALUE, (optimalBits + 63) / 64));
+            this.bitCount = bits.length() * 64L;
+            this.hashes = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+        }
+
+        // Kirsch-Mitzenmacher: derive all probe positions from two halves of one 64-bit hash
+        private void add(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashes; i++) {
+                long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = bits.get(word);
+                    if ((current & mask) != 0) {
+                        break;
+                    }
+                } while (!bits.compareAndSet(word, current, current | mask));
+            }
+            count.increment();
+        }
+
+        private boolean mightContain(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashes; i++) {
+                long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
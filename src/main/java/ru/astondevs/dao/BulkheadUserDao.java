@@ -0,0 +1,177 @@
+package ru.astondevs.dao;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import ru.astondevs.entity.User;
+import ru.astondevs.util.Bulkhead;
+import ru.astondevs.util.TransactionRunner;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Sheds load in front of the database: reads and writes get separate {@link Bulkhead}s so a
+ * burst of slow writes cannot starve lookups, and callers fail fast with
+ * {@link ru.astondevs.exception.DaoOverloadedException} instead of piling up on connections.
+ * <p>
+ * A unit of work holds its connection from the first DAO call to the commit, so a permit taken
+ * per call would not bound it. Units of work run through {@link #bound} take one write permit for
+ * their whole duration instead, and the DAO calls made inside reuse it. Calls made inside a unit
+ * of work that was not bound still take a permit each.
+ */
+@Getter
+public class BulkheadUserDao extends ForwardingUserDao {
+    private final Bulkhead readBulkhead;
+    private final Bulkhead writeBulkhead;
+    @Getter(AccessLevel.NONE)
+    private final ThreadLocal<Boolean> holdsUnitOfWorkPermit = ThreadLocal.withInitial(() -> false);
+
+    public BulkheadUserDao(UserDao delegate, Bulkhead readBulkhead, Bulkhead writeBulkhead) {
+        super(delegate);
+        this.readBulkhead = readBulkhead;
+        this.writeBulkhead = writeBulkhead;
+    }
+
+    /**
+     * Splits the connection pool ({@code hibernate.connection.pool_size}) between reads and writes.
+     */
+    public static BulkheadUserDao withDefaults(UserDao delegate, int poolSize) {
+        int writeLimit = Math.max(1, poolSize / 3);
+        int readLimit = Math.max(1, poolSize - writeLimit);
+        Bulkhead reads = Bulkhead.builder()
+                .name("user-reads")
+                .maxConcurrent(readLimit)
+                .maxQueueDepth(readLimit * 4)
+                .maxWait(Duration.ofMillis(500))
+                .latencyThreshold(Duration.ofMillis(250))
+                .build();
+        Bulkhead writes = Bulkhead.builder()
+                .name("user-writes")
+                .maxConcurrent(writeLimit)
+                .maxQueueDepth(writeLimit * 4)
+                .maxWait(Duration.ofSeconds(1))
+                .build();
+        return new BulkheadUserDao(delegate, reads, writes);
+    }
+
+    /**
+     * Runs each unit of work of {@code transactionRunner} under one permit of the write bulkhead.
+     */
+    public TransactionRunner bound(TransactionRunner transactionRunner) {
+        return new TransactionRunner() {
+            @Override
+            public <T> T inTransaction(Supplier<T> work) {
+                if (holdsUnitOfWorkPermit.get()) {
+                    return transactionRunner.inTransaction(work);
+                }
+                return writeBulkhead.execute(() -> {
+                    holdsUnitOfWorkPermit.set(true);
+                    try {
+                        return transactionRunner.inTransaction(work);
+                    } finally {
+                        holdsUnitOfWorkPermit.remove();
+                    }
+                });
+            }
+        };
+    }
+
+    private <T> T read(Supplier<T> call) {
+        return holdsUnitOfWorkPermit.get() ? call.get() : readBulkhead.execute(call);
+    }
+
+    private <T> T write(Supplier<T> call) {
+        return holdsUnitOfWorkPermit.get() ? call.get() : writeBulkhead.execute(call);
+    }
+
+    private void write(Runnable call) {
+        write(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    @Override
+    public Long save(User user) {
+        return write(() -> delegate.save(user));
+    }
+
+    @Override
+    public Optional<Long> saveIfEmailAbsent(User user) {
+        return write(() -> delegate.saveIfEmailAbsent(user));
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return read(() -> delegate.findById(id));
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return read(() -> delegate.findByEmail(email));
+    }
+
+    @Override
+    public List<User> findAll() {
+        return read(delegate::findAll);
+    }
+
+    @Override
+    public List<User> findPage(Long afterId, int limit) {
+        return read(() -> delegate.findPage(afterId, limit));
+    }
+
+    @Override
+    public List<User> findPageBefore(Long beforeId, int limit) {
+        return read(() -> delegate.findPageBefore(beforeId, limit));
+    }
+
+    @Override
+    public void update(User user) {
+        write(() -> delegate.update(user));
+    }
+
+    @Override
+    public void delete(Long id) {
+        write(() -> delegate.delete(id));
+    }
+
+    @Override
+    public List<Long> saveAll(List<User> users) {
+        return write(() -> delegate.saveAll(users));
+    }
+
+    @Override
+    public List<User> findAllByIds(Collection<Long> ids) {
+        return read(() -> delegate.findAllByIds(ids));
+    }
+
+    @Override
+    public List<User> findAllByEmails(Collection<String> emails) {
+        return read(() -> delegate.findAllByEmails(emails));
+    }
+
+    @Override
+    public void updateAll(List<User> users) {
+        write(() -> delegate.updateAll(users));
+    }
+
+    @Override
+    public List<User> findCreatedBetween(LocalDateTime from, LocalDateTime to, CreatedAtCursor afterKey, int limit) {
+        return read(() -> delegate.findCreatedBetween(from, to, afterKey, limit));
+    }
+
+    @Override
+    public List<Long> findIdsCreatedBetween(LocalDateTime from, LocalDateTime to, Long afterId, int limit) {
+        return read(() -> delegate.findIdsCreatedBetween(from, to, afterId, limit));
+    }
+
+    @Override
+    public int deleteByIds(Collection<Long> ids) {
+        return write(() -> delegate.deleteByIds(ids));
+    }
+}
@@ -0,0 +1,150 @@
+package ru.astondevs.dao;
+
+import ru.astondevs.cache.BatchWindow;
+import ru.astondevs.cache.SingleFlight;
+import ru.astondevs.entity.User;
+import ru.astondevs.util.HibernateUtil;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Coalesces concurrent {@code findById}/{@code findByEmail} calls for the same key into one database
+ * query (see {@link SingleFlight}). With a non-zero batch window, distinct keys that arrive within
+ * the window are additionally loaded with a single {@code findAllByIds}/{@code findAllByEmails}.
+ * <p>
+ * Every caller gets its own copy of the user, so callers can modify the result independently.
+ * Calls made inside a unit of work bypass coalescing: they must see the transaction's own writes.
+ * Writes through this DAO detach in-flight reads of the keys they touch.
+ */
+public class CoalescingUserDao extends ForwardingUserDao {
+    private static final int MAX_BATCH_SIZE = 500;
+
+    private final SingleFlight<Long, Optional<User>> byId = new SingleFlight<>();
+    private final SingleFlight<String, Optional<User>> byEmail = new SingleFlight<>();
+    private final BatchWindow<Long, User> idBatches;
+    private final BatchWindow<String, User> emailBatches;
+
+    public CoalescingUserDao(UserDao delegate) {
+        this(delegate, Duration.ZERO);
+    }
+
+    public CoalescingUserDao(UserDao delegate, Duration batchWindow) {
+        super(delegate);
+        if (batchWindow.isZero() || batchWindow.isNegative()) {
+            this.idBatches = null;
+            this.emailBatches = null;
+        } else {
+            this.idBatches = new BatchWindow<>(batchWindow, MAX_BATCH_SIZE,
+                    ids -> index(delegate.findAllByIds(ids), User::getId));
+            this.emailBatches = new BatchWindow<>(batchWindow, MAX_BATCH_SIZE,
+                    emails -> index(delegate.findAllByEmails(emails), User::getEmail));
+        }
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        if (id == null || HibernateUtil.isTransactionActive()) {
+            return delegate.findById(id);
+        }
+        Optional<User> user = byId.execute(id, idBatches == null
+                ? () -> delegate.findById(id)
+                : () -> Optional.ofNullable(idBatches.load(id)));
+        return user.map(User::copy);
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        if (email == null || HibernateUtil.isTransactionActive()) {
+            return delegate.findByEmail(email);
+        }
+        // Keyed by the normalized form, which batched results are indexed by
+        String key = User.normalizeEmail(email);
+        Optional<User> user = byEmail.execute(key, emailBatches == null
+                ? () -> delegate.findByEmail(key)
+                : () -> Optional.ofNullable(emailBatches.load(key)));
+        return user.map(User::copy);
+    }
+
+    @Override
+    public Long save(User user) {
+        Long id = delegate.save(user);
+        byEmail.forget(user.getEmail());
+        return id;
+    }
+
+    @Override
+    public Optional<Long> saveIfEmailAbsent(User user) {
+        Optional<Long> id = delegate.saveIfEmailAbsent(user);
+        byEmail.forget(user.getEmail());
+        return id;
+    }
+
+    @Override
+    public List<Long> saveAll(List<User> users) {
+        List<Long> ids = delegate.saveAll(users);
+        users.forEach(user -> byEmail.forget(user.getEmail()));
+        return ids;
+    }
+
+    @Override
+    public void update(User user) {
+        delegate.update(user);
+        forget(user);
+    }
+
+    @Override
+    public void updateAll(List<User> users) {
+        delegate.updateAll(users);
+        users.forEach(this::forget);
+    }
+
+    @Override
+    public void delete(Long id) {
+        delegate.delete(id);
+        byId.forget(id);
+        // The deleted email is not known here; email lookups in flight are few and short-lived
+        byEmail.forgetAll();
+    }
+
+    @Override
+    public int deleteByIds(Collection<Long> ids) {
+        int deleted = delegate.deleteByIds(ids);
+        ids.forEach(byId::forget);
+        byEmail.forgetAll();
+        return deleted;
+    }
+
+    /**
+     * Number of lookups answered by another caller's in-flight query.
+     */
+    public long getCoalescedCount() {
+        return byId.getFollowerCount() + byEmail.getFollowerCount();
+    }
+
+    /**
+     * Number of lookups that issued their own query (or joined a batch).
+     */
+    public long getLeaderCount() {
+        return byId.getLeaderCount() + byEmail.getLeaderCount();
+    }
+
+    public long getBatchCount() {
+        return (idBatches == null ? 0 : idBatches.getBatchCount())
+                + (emailBatches == null ? 0 : emailBatches.getBatchCount());
+    }
+
+    private void forget(User user) {
+        byId.forget(user.getId());
+        byEmail.forget(user.getEmail());
+    }
+
+    private static <K> Map<K, User> index(List<User> users, Function<User, K> key) {
+        return users.stream().collect(Collectors.toMap(key, Function.identity(), (first, second) -> first));
+    }
+}
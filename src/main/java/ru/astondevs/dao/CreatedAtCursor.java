@@ -0,0 +1,15 @@
+package ru.astondevs.dao;
+
+import ru.astondevs.entity.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Keyset position in {@code (created_at, id)} order: the last row of the previous page.
+ */
+public record CreatedAtCursor(LocalDateTime createdAt, Long id) {
+
+    public static CreatedAtCursor of(User user) {
+        return new CreatedAtCursor(user.getCreatedAt(), user.getId());
+    }
+}
@@ -0,0 +1,356 @@
+package ru.astondevs.dao;
+
+import lombok.Getter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import ru.astondevs.cache.NegativeLookupCache;
+import ru.astondevs.cache.ScalableBloomFilter;
+import ru.astondevs.entity.User;
+import ru.astondevs.util.HibernateUtil;
+import ru.astondevs.util.PgNotificationListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Answers "definitely absent" lookups without a database round trip. A {@link ScalableBloomFilter}
+ * of every stored email is built from the {@code users} table and kept current from the
+ * {@link UserChangeTrigger} feed, which publishes the emails inserted or changed by every node; a
+ * short-TTL {@link NegativeLookupCache} remembers recent misses on {@code findById}/{@code findByEmail}
+ * and is invalidated from the same feed.
+ * <p>
+ * Inside a unit of work every lookup goes to the delegate: the transaction may see its own
+ * uncommitted rows, or a snapshot older than the caches.
+ * <p>
+ * The filter only short-circuits while it is known to be complete: the listener is subscribed and
+ * the filter was rebuilt after the last gap in the feed (a (re)subscription or a
+ * {@link UserChangeTrigger#FLUSH}). Every gap schedules a rebuild; until it finishes, lookups go to
+ * the database. Deleted or changed emails stay in the filter (they only cost a database lookup)
+ * until the next rebuild, which also runs periodically.
+ */
+public class EmailFilteringUserDao extends ForwardingUserDao implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(EmailFilteringUserDao.class);
+    private static final int LOAD_PAGE_SIZE = 5_000;
+    private static final Duration SUBSCRIBE_TIMEOUT = Duration.ofSeconds(5);
+
+    private final long initialCapacity;
+    private final double falsePositiveRate;
+    @Getter
+    private volatile ScalableBloomFilter emailFilter;
+    /**
+     * Filter being built by {@link #rebuild()}; emails seen during the scan go into it as well.
+     */
+    private volatile ScalableBloomFilter pendingFilter;
+    private final NegativeLookupCache<Long> missingIds;
+    private final NegativeLookupCache<String> missingEmails;
+
+    @Getter
+    private PgNotificationListener listener;
+    private volatile BooleanSupplier feedConnected = () -> false;
+    private final AtomicLong gaps = new AtomicLong();
+    private volatile long builtAfterGap = -1;
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    private ScheduledExecutorService rebuilder;
+
+    private final LongAdder filterSkips = new LongAdder();
+    private final LongAdder filterPasses = new LongAdder();
+    private final LongAdder filterFalsePositives = new LongAdder();
+    private final LongAdder negativeCacheHits = new LongAdder();
+
+    public EmailFilteringUserDao(UserDao delegate, long initialCapacity, double falsePositiveRate,
+                                 Duration negativeTtl, int negativeCacheSize) {
+        super(delegate);
+        this.initialCapacity = initialCapacity;
+        this.falsePositiveRate = falsePositiveRate;
+        this.emailFilter = new ScalableBloomFilter(initialCapacity, falsePositiveRate);
+        this.missingIds = new NegativeLookupCache<>(negativeTtl, negativeCacheSize);
+        this.missingEmails = new NegativeLookupCache<>(negativeTtl, negativeCacheSize);
+    }
+
+    /**
+     * Wraps {@code delegate}, subscribes to the change feed using the connection settings of the
+     * Hibernate configuration, fills the email filter from the {@code users} table and closes the
+     * DAO on {@link HibernateUtil#shutdown()}. The filter is rebuilt every
+     * {@code user.cache.email_filter.rebuild_interval_seconds} (0 = only after gaps).
+     */
+    public static EmailFilteringUserDao load(UserDao delegate) {
+        EmailFilteringUserDao dao = new EmailFilteringUserDao(delegate, 100_000, 0.01, Duration.ofSeconds(5), 100_000);
+        dao.connect(HibernateUtil.getStringProperty("hibernate.connection.url", null),
+                HibernateUtil.getStringProperty("hibernate.connection.username", null),
+                HibernateUtil.getStringProperty("hibernate.connection.password", null),
+                Duration.ofSeconds(HibernateUtil.getIntProperty("user.cache.email_filter.rebuild_interval_seconds", 3600)));
+        try {
+            // The first subscription is a gap itself; building after it spares a second scan
+            dao.listener.awaitConnected(SUBSCRIBE_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dao.rebuildIfStale();
+        HibernateUtil.onShutdown(dao::close);
+        return dao;
+    }
+
+    /**
+     * Starts following the change feed and rebuilding the filter after gaps and every
+     * {@code rebuildInterval} (zero or negative = only after gaps). Until the first rebuild after
+     * the listener subscribes, lookups go to the database.
+     */
+    public EmailFilteringUserDao connect(String jdbcUrl, String username, String password, Duration rebuildInterval) {
+        rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "email-filter-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (rebuildInterval.toMillis() > 0) {
+            rebuilder.scheduleWithFixedDelay(this::rebuildQuietly, rebuildInterval.toMillis(),
+                    rebuildInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        listener = PgNotificationListener.builder()
+                .jdbcUrl(jdbcUrl)
+                .username(username)
+                .password(password)
+                .channel(UserChangeTrigger.CHANNEL)
+                .onNotification(this::onNotification)
+                .onGap(this::onGap)
+                .build();
+        feedConnected = listener::isConnected;
+        listener.start();
+        return this;
+    }
+
+    /**
+     * Test hook: follows a feed whose subscription state {@code connected} reports, with
+     * notifications and gaps delivered through {@link #onNotification} and {@link #onGap}.
+     */
+    void followFeed(BooleanSupplier connected) {
+        feedConnected = connected;
+    }
+
+    /**
+     * Whether a miss in the filter proves the email absent.
+     */
+    public boolean isFilterComplete() {
+        return feedConnected.getAsBoolean() && builtAfterGap == gaps.get();
+    }
+
+    /**
+     * Rebuilds the email filter from the database, dropping emails that no longer exist. Emails
+     * published by the feed or written through this DAO while the table is scanned are kept.
+     */
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        long gap = gaps.get();
+        ScalableBloomFilter filter = new ScalableBloomFilter(initialCapacity, falsePositiveRate);
+        pendingFilter = filter;
+        try {
+            Long afterId = null;
+            List<User> page;
+            do {
+                page = delegate.findPage(afterId, LOAD_PAGE_SIZE);
+                for (User user : page) {
+                    filter.add(user.getEmail());
+                }
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1).getId();
+                }
+            } while (page.size() == LOAD_PAGE_SIZE);
+            emailFilter = filter;
+        } finally {
+            pendingFilter = null;
+        }
+        builtAfterGap = gap;
+        missingEmails.clear();
+        logger.info("Email filter built: {} emails, {} KB, expected false positive rate {} in {} ms",
+                filter.size(), filter.memoryBytes() / 1024, String.format("%.4f", filter.expectedFalsePositiveRate()),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private synchronized void rebuildIfStale() {
+        if (builtAfterGap != gaps.get()) {
+            rebuild();
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            logger.error("Failed to rebuild email filter, lookups keep going to the database", e);
+        }
+    }
+
+    void onNotification(String payload) {
+        List<UserChangeTrigger.Change> changes = UserChangeTrigger.parse(payload);
+        if (changes == null) {
+            onGap();
+            return;
+        }
+        for (UserChangeTrigger.Change change : changes) {
+            // Old emails of updates are added too; they only cost a database lookup
+            addEmail(change.email());
+            missingEmails.invalidate(change.email());
+            missingIds.invalidate(change.id());
+        }
+    }
+
+    /**
+     * Changes may have been missed: the filter is incomplete until the next rebuild.
+     */
+    void onGap() {
+        gaps.incrementAndGet();
+        missingIds.clear();
+        missingEmails.clear();
+        if (rebuilder != null && rebuildQueued.compareAndSet(false, true)) {
+            rebuilder.execute(() -> {
+                rebuildQueued.set(false);
+                try {
+                    rebuildIfStale();
+                } catch (RuntimeException e) {
+                    logger.error("Failed to rebuild email filter after a feed gap, retrying on the next one", e);
+                }
+            });
+        }
+    }
+
+    private void addEmail(String email) {
+        // Read the pending filter first: if it is already gone, emailFilter is the rebuilt one
+        ScalableBloomFilter pending = pendingFilter;
+        emailFilter.add(email);
+        if (pending != null) {
+            pending.add(email);
+        }
+    }
+
+    @Override
+    public Long save(User user) {
+        addEmail(user.getEmail());
+        Long id = delegate.save(user);
+        missingEmails.invalidate(user.getEmail());
+        missingIds.invalidate(id);
+        return id;
+    }
+
+    @Override
+    public Optional<Long> saveIfEmailAbsent(User user) {
+        // Whether inserted or taken, the email now exists
+        addEmail(user.getEmail());
+        Optional<Long> id = delegate.saveIfEmailAbsent(user);
+        missingEmails.invalidate(user.getEmail());
+        id.ifPresent(missingIds::invalidate);
+        return id;
+    }
+
+    @Override
+    public List<Long> saveAll(List<User> users) {
+        users.forEach(user -> addEmail(user.getEmail()));
+        List<Long> ids = delegate.saveAll(users);
+        users.forEach(user -> missingEmails.invalidate(user.getEmail()));
+        ids.forEach(missingIds::invalidate);
+        return ids;
+    }
+
+    @Override
+    public void update(User user) {
+        addEmail(user.getEmail());
+        delegate.update(user);
+        missingEmails.invalidate(user.getEmail());
+        missingIds.invalidate(user.getId());
+    }
+
+    @Override
+    public void updateAll(List<User> users) {
+        users.forEach(user -> addEmail(user.getEmail()));
+        delegate.updateAll(users);
+        users.forEach(user -> {
+            missingEmails.invalidate(user.getEmail());
+            missingIds.invalidate(user.getId());
+        });
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        if (HibernateUtil.isTransactionActive()) {
+            return delegate.findById(id);
+        }
+        if (missingIds.isKnownAbsent(id)) {
+            negativeCacheHits.increment();
+            return Optional.empty();
+        }
+        return missingIds.load(id, () -> delegate.findById(id));
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        String key = User.normalizeEmail(email);
+        if (HibernateUtil.isTransactionActive()) {
+            return delegate.findByEmail(key);
+        }
+        if (isFilterComplete() && !emailFilter.mightContain(key)) {
+            filterSkips.increment();
+            return Optional.empty();
+        }
+        if (missingEmails.isKnownAbsent(key)) {
+            negativeCacheHits.increment();
+            return Optional.empty();
+        }
+        filterPasses.increment();
+        Optional<User> user = missingEmails.load(key, () -> delegate.findByEmail(key));
+        if (user.isEmpty()) {
+            filterFalsePositives.increment();
+        }
+        return user;
+    }
+
+    @Override
+    public List<User> findAllByEmails(Collection<String> emails) {
+        if (!isFilterComplete() || HibernateUtil.isTransactionActive()) {
+            return delegate.findAllByEmails(emails);
+        }
+        List<String> candidates = emails.stream()
+                .map(User::normalizeEmail)
+                .filter(emailFilter::mightContain)
+                .toList();
+        filterSkips.add(emails.size() - candidates.size());
+        return candidates.isEmpty() ? List.of() : delegate.findAllByEmails(candidates);
+    }
+
+    public long getFilterSkipCount() {
+        return filterSkips.sum();
+    }
+
+    public long getFilterPassCount() {
+        return filterPasses.sum();
+    }
+
+    public long getNegativeCacheHitCount() {
+        return negativeCacheHits.sum();
+    }
+
+    /**
+     * Share of database lookups let through by the filter that found nothing. Includes emails
+     * deleted since the last {@link #rebuild()}, so it is an upper bound on the filter's own rate.
+     */
+    public double getObservedFalsePositiveRate() {
+        long passes = filterPasses.sum();
+        return passes == 0 ? 0 : (double) filterFalsePositives.sum() / passes;
+    }
+
+    @Override
+    public void close() {
+        if (listener != null) {
+            listener.close();
+        }
+        if (rebuilder != null) {
+            rebuilder.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package ru.astondevs.dao;
+
+import ru.astondevs.entity.User;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Base class for {@link UserDao} decorators; forwards every call to the wrapped DAO.
+ */
+public abstract class ForwardingUserDao implements UserDao {
+    protected final UserDao delegate;
+
+    protected ForwardingUserDao(UserDao delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Long save(User user) {
+        return delegate.save(user);
+    }
+
+    @Override
+    public Optional<Long> saveIfEmailAbsent(User user) {
+        return delegate.saveIfEmailAbsent(user);
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return delegate.findByEmail(email);
+    }
+
+    @Override
+    public List<User> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<User> findPage(Long afterId, int limit) {
+        return delegate.findPage(afterId, limit);
+    }
+
+    @Override
+    public List<User> findPageBefore(Long beforeId, int limit) {
+        return delegate.findPageBefore(beforeId, limit);
+    }
+
+    @Override
+    public void update(User user) {
+        delegate.update(user);
+    }
+
+    @Override
+    public void delete(Long id) {
+        delegate.delete(id);
+    }
+
+    @Override
+    public List<Long> saveAll(List<User> users) {
+        return delegate.saveAll(users);
+    }
+
+    @Override
+    public List<User> findAllByIds(Collection<Long> ids) {
+        return delegate.findAllByIds(ids);
+    }
+
+    @Override
+    public List<User> findAllByEmails(Collection<String> emails) {
+        return delegate.findAllByEmails(emails);
+    }
+
+    @Override
+    public void updateAll(List<User> users) {
+        delegate.updateAll(users);
+    }
+
+    @Override
+    public List<User> findCreatedBetween(LocalDateTime from, LocalDateTime to, CreatedAtCursor afterKey, int limit) {
+        return delegate.findCreatedBetween(from, to, afterKey, limit);
+    }
+
+    @Override
+    public List<Long> findIdsCreatedBetween(LocalDateTime from, LocalDateTime to, Long afterId, int limit) {
+        return delegate.findIdsCreatedBetween(from, to, afterId, limit);
+    }
+
+    @Override
+    public int deleteByIds(Collection<Long> ids) {
+        return delegate.deleteByIds(ids);
+    }
+
+    @Override
+    public void warmUp() {
+        delegate.warmUp();
+    }
+}
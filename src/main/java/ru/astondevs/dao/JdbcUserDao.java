@@ -0,0 +1,581 @@
+package ru.astondevs.dao;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import ru.astondevs.entity.User;
+import ru.astondevs.exception.DaoTimeoutException;
+import ru.astondevs.jfr.TransactionEvent;
+import ru.astondevs.util.HibernateUtil;
+import ru.astondevs.util.QueryTimeouts;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link UserDao} written directly on JDBC for the hot point-lookup and single-row write paths.
+ * Connections come from the pool configured in {@code hibernate.cfg.xml}; inside a
+ * {@link HibernateUtil#inTransaction unit of work} the current session's connection and transaction
+ * are used instead. Every statement uses constant SQL text, so pgjdbc's per-connection statement
+ * cache turns repeated calls into server-side prepared statements. Rows are mapped by column index.
+ */
+public class JdbcUserDao implements UserDao {
+    private static final Logger logger = LogManager.getLogger(JdbcUserDao.class);
+
+    private static final String COLUMNS = "id, name, email, age, created_at";
+    private static final String INSERT = "INSERT INTO users (name, email, age, created_at) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_IF_EMAIL_ABSENT = INSERT + " ON CONFLICT (email) DO NOTHING RETURNING id";
+    private static final String SELECT_BY_ID = "SELECT " + COLUMNS + " FROM users WHERE id = ?";
+    private static final String SELECT_BY_EMAIL = "SELECT " + COLUMNS + " FROM users WHERE email = ?";
+    private static final String SELECT_ALL = "SELECT " + COLUMNS + " FROM users";
+    private static final String SELECT_PAGE = "SELECT " + COLUMNS + " FROM users WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String SELECT_PAGE_BEFORE = "SELECT " + COLUMNS + " FROM users WHERE id < ? ORDER BY id DESC LIMIT ?";
+    private static final String SELECT_BY_IDS = "SELECT " + COLUMNS + " FROM users WHERE id = ANY (?)";
+    private static final String SELECT_BY_EMAILS = "SELECT " + COLUMNS + " FROM users WHERE email = ANY (?)";
+    private static final String UPDATE = "UPDATE users SET name = ?, email = ?, age = ?, created_at = ? WHERE id = ?";
+    private static final String DELETE = "DELETE FROM users WHERE id = ?";
+    private static final String DELETE_BY_IDS = "DELETE FROM users WHERE id = ANY (?)";
+    private static final String SELECT_CREATED_BETWEEN = "SELECT " + COLUMNS + " FROM users"
+            + " WHERE created_at >= ? AND created_at < ? ORDER BY created_at, id LIMIT ?";
+    private static final String SELECT_CREATED_BETWEEN_AFTER = "SELECT " + COLUMNS + " FROM users"
+            + " WHERE created_at >= ? AND created_at < ? AND (created_at, id) > (?, ?) ORDER BY created_at, id LIMIT ?";
+    private static final String SELECT_IDS_CREATED_BETWEEN = "SELECT id FROM users"
+            + " WHERE created_at >= ? AND created_at < ? AND id > ? ORDER BY id LIMIT ?";
+
+    @FunctionalInterface
+    private interface JdbcWork<T> {
+        T execute(Connection connection) throws SQLException;
+    }
+
+    @Override
+    public Long save(User user) {
+        try {
+            return inTransaction("save", connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(INSERT, new String[] {"id"})) {
+                    bindInsert(statement, user);
+                    statement.executeUpdate();
+                    try (ResultSet keys = statement.getGeneratedKeys()) {
+                        keys.next();
+                        user.setId(keys.getLong(1));
+                    }
+                }
+                return user.getId();
+            });
+        } catch (DaoTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error saving user", e);
+            throw new RuntimeException("Failed to save user", e);
+        }
+    }
+
+    @Override
+    public Optional<Long> saveIfEmailAbsent(User user) {
+        try {
+            Optional<Long> id = inTransaction("saveIfEmailAbsent", connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(INSERT_IF_EMAIL_ABSENT)) {
+                    bindInsert(statement, user);
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        return resultSet.next() ? Optional.of(resultSet.getLong(1)) : Optional.<Long>empty();
+                    }
+                }
+            });
+            id.ifPresent(user::setId);
+            logger.info("User with email {} saved: {}", user.getEmail(), id.isPresent());
+            return id;
+        } catch (DaoTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error saving user", e);
+            throw new RuntimeException("Failed to save user", e);
+        }
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        try {
+            User user = inSession("findById", connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(SELECT_BY_ID)) {
+                    statement.setLong(1, id);
+                    return single(statement);
+                }
+            });
+            logger.info("User found by ID {}: {}", id, user != null);
+            return Optional.ofNullable(user);
+        } catch (DaoTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error finding user by ID: {}", id, e);
+            throw new RuntimeException("Failed to find user by ID", e);
+        }
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        try {
+            User user = inSession("findByEmail", connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(SELECT_BY_EMAIL)) {
+                    statement.setString(1, User.normalizeEmail(email));
+                    return single(statement);
+                }
+            });
+            logger.info("User found by email {}: {}", email, user != null);
+            return Optional.ofNullable(user);
+        } catch (DaoTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error finding user by email: {}", email, e);
+            throw new RuntimeException("Failed to find user by email", e);
+        }
+    }
+
+    @Override
+    public List<User> findAll() {
+        try {
+            List<User> users = inSession("findAll", connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(SELECT_ALL)) {
+                    return list(statement);
+                }
+            });
+            logger.info("Found {} users", users.size());
+            return users;
+        } catch (DaoTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error finding all users", e);
+            throw new RuntimeException("Failed to find all users", e);
+        }
+    }
+
+    @Override
+    public List<User> findPage(Long afterId, int limit) {
+        try {
+            List<User> users = inSession("findPage", connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(SELECT_PAGE)) {
+                    statement.setLong(1, afterId != null ? afterId : Long.MIN_VALUE);
+                    statement.setInt(2, limit);
+                    return list(statement);
+                }
+            });
+            logger.info("Found {} users after ID {}", users.size(), afterId);
+            return users;
+        } catch (DaoTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error finding users after ID: {}", afterId, e);
+            throw new RuntimeException("Failed to find users page", e);
+        }
+    }
+
+    @Override
+    public List<User> findPageBefore(Long beforeId, int limit) {
+        try {
+            List<User> users = inSession("findPageBefore", connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(SELECT_PAGE_BEFORE)) {
+                    statement.setLong(1, beforeId != null ? beforeId : Long.MAX_VALUE);
+                    statement.setInt(2, limit);
+                    return list(statement);
+                }
+            });
+            Collections.reverse(users);
+            logger.info("Found {} users before ID {}", users.size(), beforeId);
+            return users;
+        } catch (DaoTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error finding users before ID: {}", beforeId, e);
+            throw new RuntimeException("Failed to find users page", e);
+        }
+    }
+
+    @Override
+    public void update(User user) {
+        try {
+            inTransaction("update", connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(UPDATE)) {
+                    bindUpdate(statement, user);
+                    return statement.executeUpdate();
+                }
+            });
+            logger.info("User updated successfully: {}", user.getId());
+        } catch (DaoTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error updating user: {}", user.getId(), e);
+            throw new RuntimeException("Failed to update user", e);
+        }
+    }
+
+    @Override
+    public void delete(Long id) {
+        try {
+            int deleted = inTransaction("delete", connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(DELETE)) {
+                    statement.setLong(1, id);
+                    return statement.executeUpdate();
+                }
+            });
+            if (deleted > 0) {
+                logger.info("User deleted successfully: {}", id);
+            } else {
+                logger.warn("User not found for deletion: {}", id);
+            }
+        } catch (DaoTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error deleting user: {}", id, e);
+            throw new RuntimeException("Failed to delete user", e);
+        }
+    }
+
+    @Override
+    public List<Long> saveAll(List<User> users) {
+        if (users.isEmpty()) {
+            return List.of();
+        }
+        try {
+            List<Long> ids = inTransaction("saveAll", connection -> {
+                List<Long> generated = new ArrayList<>(users.size());
+                try (PreparedStatement statement = connection.prepareStatement(INSERT, new String[] {"id"})) {
+                    for (User user : users) {
+                        bindInsert(statement, user);
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    try (ResultSet keys = statement.getGeneratedKeys()) {
+                        for (User user : users) {
+                            keys.next();
+                            user.setId(keys.getLong(1));
+                            generated.add(user.getId());
+                        }
+                    }
+                }
+                return generated;
+            });
+            logger.info("Saved {} users", ids.size());
+            return ids;
+        } catch (DaoTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error saving {} users", users.size(), e);
+            throw new RuntimeException("Failed to save users", e);
+        }
+    }
+
+    @Override
+    public List<User> findAllByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        try {
+            List<User> users = inSession("findAllByIds", connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(SELECT_BY_IDS)) {
+                    statement.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+                    return list(statement);
+                }
+            });
+            logger.info("Found {} of {} users by ID", users.size(), ids.size());
+            return users;
+        } catch (DaoTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error finding {} users by ID", ids.size(), e);
+            throw new RuntimeException("Failed to find users by ID", e);
+        }
+    }
+
+    @Override
+    public List<User> findAllByEmails(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return List.of();
+        }
+        try {
+            List<User> users = inSession("findAllByEmails", connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(SELECT_BY_EMAILS)) {
+                    statement.setArray(1, connection.createArrayOf("varchar",
+                            emails.stream().map(User::normalizeEmail).distinct().toArray()));
+                    return list(statement);
+                }
+            });
+            logger.info("Found {} of {} users by email", users.size(), emails.size());
+            return users;
+        } catch (DaoTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error finding {} users by email", emails.size(), e);
+            throw new RuntimeException("Failed to find users by email", e);
+        }
+    }
+
+    @Override
+    public void updateAll(List<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        try {
+            inTransaction("updateAll", connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(UPDATE)) {
+                    for (User user : users) {
+                        bindUpdate(statement, user);
+                        statement.addBatch();
+                    }
+                    return statement.executeBatch();
+                }
+            });
+            logger.info("Updated {} users", users.size());
+        } catch (DaoTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error updating {} users", users.size(), e);
+            throw new RuntimeException("Failed to update users", e);
+        }
+    }
+
+    @Override
+    public List<User> findCreatedBetween(LocalDateTime from, LocalDateTime to, CreatedAtCursor afterKey, int limit) {
+        try {
+            List<User> users = inSession("findCreatedBetween", connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(
+                        afterKey == null ? SELECT_CREATED_BETWEEN : SELECT_CREATED_BETWEEN_AFTER)) {
+                    int index = 1;
+                    statement.setObject(index++, from);
+                    statement.setObject(index++, to);
+                    if (afterKey != null) {
+                        statement.setObject(index++, afterKey.createdAt());
+                        statement.setLong(index++, afterKey.id());
+                    }
+                    statement.setInt(index, limit);
+                    return list(statement);
+                }
+            });
+            logger.info("Found {} users created between {} and {}", users.size(), from, to);
+            return users;
+        } catch (DaoTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error finding users created between {} and {}", from, to, e);
+            throw new RuntimeException("Failed to find users by creation time", e);
+        }
+    }
+
+    @Override
+    public List<Long> findIdsCreatedBetween(LocalDateTime from, LocalDateTime to, Long afterId, int limit) {
+        try {
+            return inSession("findIdsCreatedBetween", connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(SELECT_IDS_CREATED_BETWEEN)) {
+                    statement.setObject(1, from);
+                    statement.setObject(2, to);
+                    statement.setLong(3, afterId != null ? afterId : Long.MIN_VALUE);
+                    statement.setInt(4, limit);
+                    List<Long> ids = new ArrayList<>();
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            ids.add(resultSet.getLong(1));
+                        }
+                    }
+                    return ids;
+                }
+            });
+        } catch (DaoTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error finding user IDs created between {} and {}", from, to, e);
+            throw new RuntimeException("Failed to find user IDs by creation time", e);
+        }
+    }
+
+    @Override
+    public int deleteByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        try {
+            int deleted = inTransaction("deleteByIds", connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(DELETE_BY_IDS)) {
+                    statement.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+                    return statement.executeUpdate();
+                }
+            });
+            logger.info("Deleted {} of {} requested users", deleted, ids.size());
+            return deleted;
+        } catch (DaoTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error deleting {} users by ID", ids.size(), e);
+            throw new RuntimeException("Failed to delete users", e);
+        }
+    }
+
+    /**
+     * Sends every statement to the server for parsing and type resolution (a Parse/Describe round
+     * trip per statement), which also validates the SQL against the current schema.
+     */
+    @Override
+    public void warmUp() {
+        try {
+            inSession("warmUp", connection -> {
+                for (String sql : List.of(INSERT, INSERT_IF_EMAIL_ABSENT, SELECT_BY_ID, SELECT_BY_EMAIL, SELECT_ALL,
+                        SELECT_PAGE, SELECT_PAGE_BEFORE, SELECT_BY_IDS, SELECT_BY_EMAILS, UPDATE, DELETE, DELETE_BY_IDS,
+                        SELECT_CREATED_BETWEEN, SELECT_CREATED_BETWEEN_AFTER, SELECT_IDS_CREATED_BETWEEN)) {
+                    try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                        statement.getParameterMetaData();
+                    }
+                }
+                return null;
+            });
+            logger.info("DAO statements prepared");
+        } catch (DaoTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error preparing DAO statements", e);
+            throw new RuntimeException("Failed to prepare DAO statements", e);
+        }
+    }
+
+    private static void bindInsert(PreparedStatement statement, User user) throws SQLException {
+        statement.setString(1, user.getName());
+        statement.setString(2, user.getEmail());
+        setAge(statement, 3, user.getAge());
+        statement.setObject(4, user.getCreatedAt());
+    }
+
+    private static void bindUpdate(PreparedStatement statement, User user) throws SQLException {
+        statement.setString(1, user.getName());
+        statement.setString(2, user.getEmail());
+        setAge(statement, 3, user.getAge());
+        statement.setObject(4, user.getCreatedAt());
+        statement.setLong(5, user.getId());
+    }
+
+    private static void setAge(PreparedStatement statement, int index, Integer age) throws SQLException {
+        if (age == null) {
+            statement.setNull(index, Types.INTEGER);
+        } else {
+            statement.setInt(index, age);
+        }
+    }
+
+    private static User single(PreparedStatement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() ? map(resultSet) : null;
+        }
+    }
+
+    private static List<User> list(PreparedStatement statement) throws SQLException {
+        List<User> users = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                users.add(map(resultSet));
+            }
+        }
+        return users;
+    }
+
+    private static User map(ResultSet resultSet) throws SQLException {
+        User user = new User();
+        user.setId(resultSet.getLong(1));
+        user.setName(resultSet.getString(2));
+        user.setEmail(resultSet.getString(3));
+        int age = resultSet.getInt(4);
+        user.setAge(resultSet.wasNull() ? null : age);
+        user.setCreatedAt(resultSet.getObject(5, LocalDateTime.class));
+        return user;
+    }
+
+    private static ConnectionProvider connectionProvider() {
+        return HibernateUtil.getSessionFactory().unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(ConnectionProvider.class);
+    }
+
+    /**
+     * Runs a read on a pooled connection in auto-commit mode (no BEGIN/COMMIT round trips),
+     * or on the connection of the current unit of work.
+     */
+    private <T> T inSession(String operation, JdbcWork<T> work) throws SQLException {
+        if (HibernateUtil.isTransactionActive()) {
+            return HibernateUtil.getCurrentSession().doReturningWork(connection -> guarded(operation, connection, work));
+        }
+        ConnectionProvider provider = connectionProvider();
+        Connection connection = provider.getConnection();
+        boolean autoCommit = connection.getAutoCommit();
+        try {
+            if (!autoCommit) {
+                connection.setAutoCommit(true);
+            }
+            return guarded(operation, connection, work);
+        } finally {
+            try {
+                if (!autoCommit) {
+                    connection.setAutoCommit(false);
+                }
+            } finally {
+                provider.closeConnection(connection);
+            }
+        }
+    }
+
+    /**
+     * Runs a write in a transaction of its own, or in the current unit of work.
+     */
+    private <T> T inTransaction(String operation, JdbcWork<T> work) throws SQLException {
+        if (HibernateUtil.isTransactionActive()) {
+            return HibernateUtil.getCurrentSession().doReturningWork(connection -> guarded(operation, connection, work));
+        }
+        ConnectionProvider provider = connectionProvider();
+        Connection connection = provider.getConnection();
+        boolean autoCommit = connection.getAutoCommit();
+        TransactionEvent event = TransactionEvent.begin("jdbc");
+        boolean committed = false;
+        try {
+            if (autoCommit) {
+                connection.setAutoCommit(false);
+            }
+            T result = guarded(operation, connection, c -> {
+                T value = work.execute(c);
+                c.commit();
+                return value;
+            });
+            committed = true;
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            event.end(committed);
+            try {
+                if (autoCommit) {
+                    connection.setAutoCommit(true);
+                }
+            } finally {
+                provider.closeConnection(connection);
+            }
+        }
+    }
+
+    /**
+     * Executes {@code work} within the operation's deadline (see {@link QueryTimeouts}).
+     */
+    private static <T> T guarded(String operation, Connection connection, JdbcWork<T> work) throws SQLException {
+        try (QueryTimeouts.Guard guard = QueryTimeouts.start(operation, () -> connection)) {
+            try {
+                return work.execute(connection);
+            } catch (SQLException | RuntimeException e) {
+                DaoTimeoutException timeout = QueryTimeouts.translate(operation, guard, e);
+                if (timeout != null) {
+                    throw timeout;
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package ru.astondevs.dao;
+
+import ru.astondevs.entity.User;
+import ru.astondevs.jfr.DaoOperationEvent;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Emits a {@link DaoOperationEvent} for every call. While the event is disabled in the running
+ * recording (the default) a call costs one {@code isEnabled()} check on top of the delegate.
+ */
+public class JfrUserDao extends ForwardingUserDao {
+    private static final ToIntFunction<Object> NO_ROWS = result -> 0;
+    private static final ToIntFunction<Optional<?>> OPTIONAL_ROWS = result -> result.isPresent() ? 1 : 0;
+    private static final ToIntFunction<List<?>> LIST_ROWS = List::size;
+
+    public JfrUserDao(UserDao delegate) {
+        super(delegate);
+    }
+
+    @Override
+    public Long save(User user) {
+        return record("save", "entity", 1, () -> delegate.save(user), id -> 1);
+    }
+
+    @Override
+    public Optional<Long> saveIfEmailAbsent(User user) {
+        return record("saveIfEmailAbsent", "entity", 1, () -> delegate.saveIfEmailAbsent(user), OPTIONAL_ROWS);
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return record("findById", "id", 1, () -> delegate.findById(id), OPTIONAL_ROWS);
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return record("findByEmail", "email", 1, () -> delegate.findByEmail(email), OPTIONAL_ROWS);
+    }
+
+    @Override
+    public List<User> findAll() {
+        return record("findAll", "none", 0, delegate::findAll, LIST_ROWS);
+    }
+
+    @Override
+    public List<User> findPage(Long afterId, int limit) {
+        return record("findPage", "page", 1, () -> delegate.findPage(afterId, limit), LIST_ROWS);
+    }
+
+    @Override
+    public List<User> findPageBefore(Long beforeId, int limit) {
+        return record("findPageBefore", "page", 1, () -> delegate.findPageBefore(beforeId, limit), LIST_ROWS);
+    }
+
+    @Override
+    public void update(User user) {
+        record("update", "entity", 1, () -> {
+            delegate.update(user);
+            return null;
+        }, result -> 1);
+    }
+
+    @Override
+    public void delete(Long id) {
+        record("delete", "id", 1, () -> {
+            delegate.delete(id);
+            return null;
+        }, NO_ROWS);
+    }
+
+    @Override
+    public List<Long> saveAll(List<User> users) {
+        return record("saveAll", "entities", users.size(), () -> delegate.saveAll(users), LIST_ROWS);
+    }
+
+    @Override
+    public List<User> findAllByIds(Collection<Long> ids) {
+        return record("findAllByIds", "ids", ids.size(), () -> delegate.findAllByIds(ids), LIST_ROWS);
+    }
+
+    @Override
+    public List<User> findAllByEmails(Collection<String> emails) {
+        return record("findAllByEmails", "emails", emails.size(), () -> delegate.findAllByEmails(emails), LIST_ROWS);
+    }
+
+    @Override
+    public void updateAll(List<User> users) {
+        record("updateAll", "entities", users.size(), () -> {
+            delegate.updateAll(users);
+            return null;
+        }, result -> users.size());
+    }
+
+    @Override
+    public List<User> findCreatedBetween(LocalDateTime from, LocalDateTime to, CreatedAtCursor afterKey, int limit) {
+        return record("findCreatedBetween", "range", 1,
+                () -> delegate.findCreatedBetween(from, to, afterKey, limit), LIST_ROWS);
+    }
+
+    @Override
+    public List<Long> findIdsCreatedBetween(LocalDateTime from, LocalDateTime to, Long afterId, int limit) {
+        return record("findIdsCreatedBetween", "range", 1,
+                () -> delegate.findIdsCreatedBetween(from, to, afterId, limit), LIST_ROWS);
+    }
+
+    @Override
+    public int deleteByIds(Collection<Long> ids) {
+        return record("deleteByIds", "ids", ids.size(), () -> delegate.deleteByIds(ids), Integer::intValue);
+    }
+
+    private static <T> T record(String operation, String keyKind, int keys, Supplier<T> call,
+                                ToIntFunction<? super T> rows) {
+        DaoOperationEvent event = new DaoOperationEvent();
+        if (!event.isEnabled()) {
+            return call.get();
+        }
+        event.begin();
+        T result = null;
+        boolean failed = true;
+        try {
+            result = call.get();
+            failed = false;
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = operation;
+                event.keyKind = keyKind;
+                event.keys = keys;
+                event.rows = failed ? 0 : rows.applyAsInt(result);
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package ru.astondevs.dao;
+
+import lombok.Getter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import ru.astondevs.cache.NearCache;
+import ru.astondevs.entity.User;
+import ru.astondevs.snapshot.WarmCacheFile;
+import ru.astondevs.util.HibernateUtil;
+import ru.astondevs.util.PgNotificationListener;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches {@code findById}/{@code findByEmail} results in process and keeps them coherent across
+ * nodes: {@link UserChangeTrigger} publishes every committed change on {@code users}, and a
+ * {@link PgNotificationListener} evicts the affected ids and emails as notifications arrive.
+ * <p>
+ * The cache is only used while the listener is subscribed; it is flushed on every (re)subscription
+ * and on {@link UserChangeTrigger#FLUSH}, because notifications sent in between are lost. Lookups
+ * inside a unit of work always go to the database. Writes through this DAO also evict locally so
+ * the writing node does not wait for its own notification. Absent users are not cached.
+ * <p>
+ * With a {@link #snapshotTo snapshot file} the cached users are written to disk on {@link #close()}
+ * and {@link #restoreSnapshot preloaded} on the next start. Changes made while the node was down
+ * were never notified, so restored users are served only until a background pass re-reads them by
+ * id in batches and evicts every one that changed or is gone; files older than the TTL are ignored.
+ */
+public class NearCachingUserDao extends ForwardingUserDao implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(NearCachingUserDao.class);
+    private static final Duration SUBSCRIBE_TIMEOUT = Duration.ofSeconds(5);
+
+    private final Duration ttl;
+    private final NearCache<Long, User> byId;
+    private final NearCache<String, User> byEmail;
+    @Getter
+    private PgNotificationListener listener;
+
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder invalidatedRows = new LongAdder();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private Path snapshotFile;
+    private int revalidationBatchSize = 1000;
+    private ExecutorService revalidator;
+    /**
+     * Completes with the number of restored users evicted as stale once revalidation finishes.
+     */
+    @Getter
+    private volatile CompletableFuture<Integer> revalidation = CompletableFuture.completedFuture(0);
+
+    public NearCachingUserDao(UserDao delegate, Duration ttl, int maxEntries) {
+        super(delegate);
+        this.ttl = ttl;
+        this.byId = new NearCache<>(ttl, maxEntries);
+        this.byEmail = new NearCache<>(ttl, maxEntries);
+    }
+
+    /**
+     * Wraps {@code delegate} using the connection settings and {@code user.cache.near.*} properties
+     * of the Hibernate configuration, restores the snapshot file if one is configured and closes
+     * the cache on {@link HibernateUtil#shutdown()}.
+     */
+    public static NearCachingUserDao create(UserDao delegate) {
+        NearCachingUserDao dao = new NearCachingUserDao(delegate,
+                Duration.ofSeconds(HibernateUtil.getIntProperty("user.cache.near.ttl_seconds", 600)),
+                HibernateUtil.getIntProperty("user.cache.near.max_entries", 100_000));
+        dao.connect(HibernateUtil.getStringProperty("hibernate.connection.url", null),
+                HibernateUtil.getStringProperty("hibernate.connection.username", null),
+                HibernateUtil.getStringProperty("hibernate.connection.password", null));
+        String snapshotFile = HibernateUtil.getStringProperty("user.cache.near.snapshot_file", null);
+        if (snapshotFile != null) {
+            dao.snapshotTo(Path.of(snapshotFile),
+                    HibernateUtil.getIntProperty("user.cache.near.snapshot_revalidation_batch_size", 1000));
+            dao.restoreSnapshot(dao.snapshotFile);
+        }
+        HibernateUtil.onShutdown(dao::close);
+        return dao;
+    }
+
+    /**
+     * Saves the cached users to {@code file} on {@link #close()}; restored users are revalidated
+     * {@code revalidationBatchSize} ids per query.
+     */
+    public NearCachingUserDao snapshotTo(Path file, int revalidationBatchSize) {
+        this.snapshotFile = file;
+        this.revalidationBatchSize = Math.max(1, revalidationBatchSize);
+        return this;
+    }
+
+    /**
+     * Starts listening for invalidations published by the change triggers (migration V9). Until the
+     * listener is subscribed every lookup goes to the database.
+     */
+    public NearCachingUserDao connect(String jdbcUrl, String username, String password) {
+        listener = PgNotificationListener.builder()
+                .jdbcUrl(jdbcUrl)
+                .username(username)
+                .password(password)
+                .channel(UserChangeTrigger.CHANNEL)
+                .onNotification(this::onNotification)
+                .onGap(this::flush)
+                .build()
+                .start();
+        return this;
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        if (id == null || !cacheUsable()) {
+            return delegate.findById(id);
+        }
+        User user = byId.get(id, () -> delegate.findById(id).orElse(null));
+        return Optional.ofNullable(user).map(User::copy);
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        if (email == null || !cacheUsable()) {
+            return delegate.findByEmail(email);
+        }
+        String key = User.normalizeEmail(email);
+        User user = byEmail.get(key, () -> delegate.findByEmail(key).orElse(null));
+        return Optional.ofNullable(user).map(User::copy);
+    }
+
+    @Override
+    public void update(User user) {
+        delegate.update(user);
+        evict(user.getId(), user.getEmail());
+    }
+
+    @Override
+    public void updateAll(List<User> users) {
+        delegate.updateAll(users);
+        users.forEach(user -> evict(user.getId(), user.getEmail()));
+    }
+
+    @Override
+    public void delete(Long id) {
+        delegate.delete(id);
+        evict(id, null);
+    }
+
+    @Override
+    public int deleteByIds(Collection<Long> ids) {
+        int deleted = delegate.deleteByIds(ids);
+        ids.forEach(id -> evict(id, null));
+        return deleted;
+    }
+
+    /**
+     * Writes the cached users to {@code file} (see {@link WarmCacheFile}) and returns how many.
+     */
+    public int saveSnapshot(Path file) {
+        List<User> users = new ArrayList<>(byId.size());
+        byId.forEach((id, user) -> users.add(user));
+        try {
+            long bytes = WarmCacheFile.write(file, users);
+            logger.info("Saved {} cached users to {} ({} bytes)", users.size(), file, bytes);
+            return users.size();
+        } catch (Exception e) {
+            logger.error("Error saving near cache snapshot to {}", file, e);
+            throw new RuntimeException("Failed to save near cache snapshot", e);
+        }
+    }
+
+    /**
+     * Preloads the users saved by {@link #saveSnapshot} and starts revalidating them in the
+     * background (see {@link #getRevalidation()}). A missing, unreadable or expired file only
+     * means a cold start. Returns the number of users preloaded.
+     */
+    public int restoreSnapshot(Path file) {
+        if (!Files.exists(file)) {
+            logger.info("No near cache snapshot at {}", file);
+            return 0;
+        }
+        long readStart = System.nanoTime();
+        WarmCacheFile.Contents contents;
+        try {
+            contents = WarmCacheFile.read(file);
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable near cache snapshot {}: {}", file, e.getMessage());
+            return 0;
+        }
+        long readNanos = System.nanoTime() - readStart;
+        if (contents.writtenAt().plus(ttl).isBefore(Instant.now())) {
+            logger.info("Ignoring near cache snapshot {} written at {}, older than the TTL", file, contents.writtenAt());
+            return 0;
+        }
+        // Subscribing flushes the cache, so preloading before it would be wasted
+        if (!awaitSubscribed()) {
+            logger.warn("Not restoring near cache snapshot {}: change listener not subscribed", file);
+            return 0;
+        }
+
+        long preloadStart = System.nanoTime();
+        List<User> users = contents.users();
+        Map<Long, User> usersById = new HashMap<>(users.size() * 2);
+        Map<String, User> usersByEmail = new HashMap<>(users.size() * 2);
+        for (User user : users) {
+            usersById.put(user.getId(), user);
+            usersByEmail.put(user.getEmail(), user);
+        }
+        int preloaded = byId.preload(usersById);
+        byEmail.preload(usersByEmail);
+        long nanos = readNanos + System.nanoTime() - preloadStart;
+        logger.info("Preloaded {} users from {} in {} ms ({} ms per million entries)", preloaded, file,
+                nanos / 1_000_000, users.isEmpty() ? 0 : nanos / users.size());
+
+        if (revalidator == null) {
+            revalidator = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "near-cache-revalidation");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        revalidation = CompletableFuture.supplyAsync(() -> revalidate(users), revalidator);
+        return preloaded;
+    }
+
+    /**
+     * Drops every cached entry.
+     */
+    public void flush() {
+        byId.clear();
+        byEmail.clear();
+        flushes.increment();
+        logger.info("Near cache flushed");
+    }
+
+    public int size() {
+        return byId.size() + byEmail.size();
+    }
+
+    public long getHitCount() {
+        return byId.getHitCount() + byEmail.getHitCount();
+    }
+
+    public long getMissCount() {
+        return byId.getMissCount() + byEmail.getMissCount();
+    }
+
+    public long getFlushCount() {
+        return flushes.sum();
+    }
+
+    /**
+     * Number of rows reported changed by notifications.
+     */
+    public long getInvalidatedRowCount() {
+        return invalidatedRows.sum();
+    }
+
+    /**
+     * Stops revalidation, saves the snapshot file if one is set, and stops listening. Idempotent.
+     */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        if (revalidator != null) {
+            revalidator.shutdownNow();
+        }
+        try {
+            if (snapshotFile != null) {
+                saveSnapshot(snapshotFile);
+            }
+        } finally {
+            if (listener != null) {
+                listener.close();
+            }
+            flush();
+        }
+    }
+
+    /**
+     * Re-reads {@code users} (sorted by id) in batches and evicts those that changed or were deleted.
+     */
+    private int revalidate(List<User> users) {
+        long start = System.nanoTime();
+        int stale = 0;
+        try {
+            for (int from = 0; from < users.size() && !closed.get(); from += revalidationBatchSize) {
+                List<User> batch = users.subList(from, Math.min(users.size(), from + revalidationBatchSize));
+                Map<Long, User> current = new HashMap<>(batch.size() * 2);
+                for (User row : delegate.findAllByIds(batch.stream().map(User::getId).toList())) {
+                    current.put(row.getId(), row);
+                }
+                for (User restored : batch) {
+                    if (!sameRow(restored, current.get(restored.getId()))) {
+                        evict(restored.getId(), restored.getEmail());
+                        stale++;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error revalidating restored near cache entries, flushing", e);
+            flush();
+            return stale;
+        }
+        logger.info("Revalidated {} restored users in {} ms, evicted {} stale", users.size(),
+                (System.nanoTime() - start) / 1_000_000, stale);
+        return stale;
+    }
+
+    private static boolean sameRow(User restored, User current) {
+        return current != null
+                && Objects.equals(restored.getName(), current.getName())
+                && Objects.equals(restored.getEmail(), current.getEmail())
+                && Objects.equals(restored.getAge(), current.getAge())
+                && Objects.equals(restored.getCreatedAt(), current.getCreatedAt());
+    }
+
+    private boolean awaitSubscribed() {
+        try {
+            return listener != null && listener.awaitConnected(SUBSCRIBE_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean cacheUsable() {
+        return listener != null && listener.isConnected() && !HibernateUtil.isTransactionActive();
+    }
+
+    private void onNotification(String payload) {
+        if (UserChangeTrigger.isInsert(payload)) {
+            // Absent users are not cached, so new rows have nothing to evict
+            return;
+        }
+        List<UserChangeTrigger.Change> changes = UserChangeTrigger.parse(payload);
+        if (changes == null) {
+            flush();
+            return;
+        }
+        for (UserChangeTrigger.Change change : changes) {
+            evict(change.id(), change.email());
+        }
+        invalidatedRows.add(changes.size());
+    }
+
+    private void evict(Long id, String email) {
+        User cached = id != null ? byId.peek(id) : null;
+        if (cached != null) {
+            byEmail.invalidate(cached.getEmail());
+        }
+        byId.invalidate(id);
+        byEmail.invalidate(email);
+    }
+}
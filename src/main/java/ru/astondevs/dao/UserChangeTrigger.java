@@ -0,0 +1,53 @@
+package ru.astondevs.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Payload format of the statement-level triggers on {@code users} (created by migration V9) that
+ * publish changed rows on the {@value #CHANNEL} channel. PostgreSQL delivers notifications only when
+ * the transaction commits, and one statement (e.g. a bulk {@code UPDATE} or {@code deleteByIds}) produces one notification for all its rows.
+ * <p>
+ * Payload: one {@code "<id> <email>"} line per changed row, with both the old and new email for
+ * updates. {@value #FLUSH} means "everything may have changed": it is sent for {@code TRUNCATE} and
+ * when the row list of an update or delete would exceed PostgreSQL's 8000-byte payload limit.
+ * Inserted rows (migration V10) are published after an {@value #INSERTED} line and split over as
+ * many notifications as needed instead.
+ */
+public final class UserChangeTrigger {
+    public static final String CHANNEL = "users_changed";
+    public static final String FLUSH = "*";
+    public static final String INSERTED = "+";
+
+    private UserChangeTrigger() {
+    }
+
+    /**
+     * Whether the payload lists inserted rows only.
+     */
+    public static boolean isInsert(String payload) {
+        return payload != null && payload.startsWith(INSERTED + "\n");
+    }
+
+    /**
+     * Parses a notification payload; returns {@code null} for a {@link #FLUSH} request.
+     */
+    public static List<Change> parse(String payload) {
+        if (payload == null || FLUSH.equals(payload)) {
+            return null;
+        }
+        List<Change> changes = new ArrayList<>();
+        String rows = isInsert(payload) ? payload.substring(INSERTED.length() + 1) : payload;
+        for (String line : rows.split("\n")) {
+            int separator = line.indexOf(' ');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Malformed change notification: " + line);
+            }
+            changes.add(new Change(Long.parseLong(line.substring(0, separator)), line.substring(separator + 1)));
+        }
+        return changes;
+    }
+
+    public record Change(Long id, String email) {
+    }
+}
@@ -2,19 +2,97 @@ package ru.astondevs.dao;
 
 import ru.astondevs.entity.User;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface UserDao {
     Long save(User user);
 
+    /**
+     * Inserts {@code user} unless another user already has its email, as one atomic step.
+     *
+     * @return the generated ID, or empty if the email is taken
+     */
+    default Optional<Long> saveIfEmailAbsent(User user) {
+        if (findByEmail(user.getEmail()).isPresent()) {
+            return Optional.empty();
+        }
+        return Optional.of(save(user));
+    }
+
     Optional<User> findById(Long id);
 
+    /**
+     * Finds a user by email, ignoring case and surrounding whitespace ({@link User#normalizeEmail}).
+     */
     Optional<User> findByEmail(String email);
 
     List<User> findAll();
 
+    /**
+     * Returns up to {@code limit} users with ID greater than {@code afterId} (or from the first user
+     * when {@code null}), in ascending ID order; used to walk the whole table page by page.
+     */
+    List<User> findPage(Long afterId, int limit);
+
+    /**
+     * Returns up to {@code limit} users with ID less than {@code beforeId} (or the last users when
+     * {@code null}), in ascending ID order; the page preceding one that starts at {@code beforeId}.
+     */
+    List<User> findPageBefore(Long beforeId, int limit);
+
     void update(User user);
 
     void delete(Long id);
+
+    /**
+     * Persists all users in one session and transaction.
+     *
+     * @return generated IDs in input order
+     */
+    List<Long> saveAll(List<User> users);
+
+    /**
+     * Loads the given users with a single query; missing IDs are skipped.
+     */
+    List<User> findAllByIds(Collection<Long> ids);
+
+    /**
+     * Loads the users owning any of the given emails with a single query; emails are matched like
+     * {@link #findByEmail}.
+     */
+    List<User> findAllByEmails(Collection<String> emails);
+
+    /**
+     * Writes all users in one session and transaction; updates are sent as JDBC batches.
+     */
+    void updateAll(List<User> users);
+
+    /**
+     * Returns up to {@code limit} users created in {@code [from, to)} ordered by {@code (createdAt, id)},
+     * starting after {@code afterKey} (or from the start of the range when {@code null}).
+     */
+    List<User> findCreatedBetween(LocalDateTime from, LocalDateTime to, CreatedAtCursor afterKey, int limit);
+
+    /**
+     * Returns up to {@code limit} IDs of users created in {@code [from, to)} with ID greater than
+     * {@code afterId} (or from the start when {@code null}), in ascending ID order.
+     */
+    List<Long> findIdsCreatedBetween(LocalDateTime from, LocalDateTime to, Long afterId, int limit);
+
+    /**
+     * Deletes the given users with a single bulk statement, without loading them.
+     *
+     * @return the number of deleted rows
+     */
+    int deleteByIds(Collection<Long> ids);
+
+    /**
+     * Prepares the DAO's statements ahead of first use (query parsing, SQL validation), so the first
+     * real calls do not pay for it. Does nothing by default.
+     */
+    default void warmUp() {
+    }
 }
@@ -0,0 +1,32 @@
+package ru.astondevs.dao;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import ru.astondevs.util.HibernateUtil;
+
+import java.util.Locale;
+
+/**
+ * Creates the {@link UserDao} selected by the {@value #IMPLEMENTATION_PROPERTY} setting
+ * ({@code hibernate} or {@code jdbc}) in {@code hibernate.cfg.xml} or a system property,
+ * wrapped in a {@link JfrUserDao}.
+ */
+public final class UserDaoFactory {
+    private static final Logger logger = LogManager.getLogger(UserDaoFactory.class);
+    public static final String IMPLEMENTATION_PROPERTY = "user.dao.implementation";
+
+    private UserDaoFactory() {
+    }
+
+    public static UserDao create() {
+        String implementation = HibernateUtil.getStringProperty(IMPLEMENTATION_PROPERTY, "hibernate");
+        logger.info("Using {} UserDao implementation", implementation);
+        UserDao dao = switch (implementation.toLowerCase(Locale.ROOT)) {
+            case "hibernate" -> new UserDaoImpl();
+            case "jdbc" -> new JdbcUserDao();
+            default -> throw new IllegalArgumentException("Unknown " + IMPLEMENTATION_PROPERTY + ": " + implementation);
+        };
+        // Innermost decorator, so DaoOperation events measure database time rather than cache hits
+        return new JfrUserDao(dao);
+    }
+}
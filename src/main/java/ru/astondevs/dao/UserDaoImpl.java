@@ -3,41 +3,71 @@ package ru.astondevs.dao;
 import org.hibernate.Session;
 import org.hibernate.Transaction;
 import org.hibernate.query.Query;
+import org.hibernate.type.StandardBasicTypes;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import ru.astondevs.entity.User;
+import ru.astondevs.entity.UserQueries;
+import ru.astondevs.exception.DaoTimeoutException;
+import ru.astondevs.jfr.TransactionEvent;
 import ru.astondevs.util.HibernateUtil;
+import ru.astondevs.util.QueryTimeouts;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 public class UserDaoImpl implements UserDao {
     private static final Logger logger = LogManager.getLogger(UserDaoImpl.class);
 
     @Override
     public Long save(User user) {
-        Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
-            session.persist(user);
-            transaction.commit();
-            return user.getId();
+        try {
+            return inTransaction("save", session -> {
+                session.persist(user);
+                return user.getId();
+            });
+        } catch (DaoTimeoutException e) {
+            throw e;
         } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
-            }
-            System.out.println("Error saving user" + e);
+            logger.error("Error saving user", e);
             throw new RuntimeException("Failed to save user", e);
         }
     }
 
+    @Override
+    public Optional<Long> saveIfEmailAbsent(User user) {
+        try {
+            Optional<Long> id = inTransaction("saveIfEmailAbsent", session -> session
+                    .createNamedQuery(UserQueries.INSERT_IF_EMAIL_ABSENT, Long.class)
+                    .setParameter("name", user.getName())
+                    .setParameter("email", user.getEmail())
+                    .setParameter("age", user.getAge(), StandardBasicTypes.INTEGER)
+                    .setParameter("createdAt", user.getCreatedAt())
+                    .uniqueResultOptional());
+            id.ifPresent(user::setId);
+            logger.info("User with email {} saved: {}", user.getEmail(), id.isPresent());
+            return id;
+        } catch (DaoTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error saving user", e);
+            throw new RuntimeException("Failed to save user", e);
+        }
+    }
 
     @Override
     public Optional<User> findById(Long id) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            User user = session.get(User.class, id);
+        try {
+            User user = inSession("findById", session -> session.get(User.class, id));
             logger.info("User found by ID {}: {}", id, user != null);
             return Optional.ofNullable(user);
+        } catch (DaoTimeoutException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error finding user by ID: {}", id, e);
             throw new RuntimeException("Failed to find user by ID", e);
@@ -46,12 +76,16 @@ public class UserDaoImpl implements UserDao {
 
     @Override
     public Optional<User> findByEmail(String email) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Query<User> query = session.createQuery("FROM User WHERE email = :email", User.class);
-            query.setParameter("email", email);
-            User user = query.uniqueResult();
+        try {
+            User user = inSession("findByEmail", session -> {
+                Query<User> query = session.createNamedQuery(UserQueries.FIND_BY_EMAIL, User.class);
+                query.setParameter("email", User.normalizeEmail(email));
+                return query.uniqueResult();
+            });
             logger.info("User found by email {}: {}", email, user != null);
             return Optional.ofNullable(user);
+        } catch (DaoTimeoutException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error finding user by email: {}", email, e);
             throw new RuntimeException("Failed to find user by email", e);
@@ -60,29 +94,65 @@ public class UserDaoImpl implements UserDao {
 
     @Override
     public List<User> findAll() {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Query<User> query = session.createQuery("FROM User", User.class);
-            List<User> users = query.list();
+        try {
+            List<User> users = inSession("findAll", session -> session
+                    .createNamedQuery(UserQueries.FIND_ALL, User.class)
+                    .list());
             logger.info("Found {} users", users.size());
             return users;
+        } catch (DaoTimeoutException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error finding all users", e);
             throw new RuntimeException("Failed to find all users", e);
         }
     }
 
+    @Override
+    public List<User> findPage(Long afterId, int limit) {
+        try {
+            List<User> users = inSession("findPage", session -> session
+                    .createNamedQuery(UserQueries.FIND_PAGE, User.class)
+                    .setParameter("afterId", afterId != null ? afterId : Long.MIN_VALUE)
+                    .setMaxResults(limit)
+                    .list());
+            logger.info("Found {} users after ID {}", users.size(), afterId);
+            return users;
+        } catch (DaoTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error finding users after ID: {}", afterId, e);
+            throw new RuntimeException("Failed to find users page", e);
+        }
+    }
+
+    @Override
+    public List<User> findPageBefore(Long beforeId, int limit) {
+        try {
+            List<User> users = new ArrayList<>(inSession("findPageBefore", session -> session
+                    .createNamedQuery(UserQueries.FIND_PAGE_BEFORE, User.class)
+                    .setParameter("beforeId", beforeId != null ? beforeId : Long.MAX_VALUE)
+                    .setMaxResults(limit)
+                    .list()));
+            Collections.reverse(users);
+            logger.info("Found {} users before ID {}", users.size(), beforeId);
+            return users;
+        } catch (DaoTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error finding users before ID: {}", beforeId, e);
+            throw new RuntimeException("Failed to find users page", e);
+        }
+    }
+
     @Override
     public void update(User user) {
-        Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
-            session.merge(user);
-            transaction.commit();
+        try {
+            inTransaction("update", session -> session.merge(user));
             logger.info("User updated successfully: {}", user.getId());
+        } catch (DaoTimeoutException e) {
+            throw e;
         } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
-            }
             logger.error("Error updating user: {}", user.getId(), e);
             throw new RuntimeException("Failed to update user", e);
         }
@@ -91,24 +161,249 @@ public class UserDaoImpl implements UserDao {
 
     @Override
     public void delete(Long id) {
-        Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
-            User user = session.get(User.class, id);
-            if (user != null) {
-                session.remove(user); // Updated line
-                logger.info("User deleted successfully: {}", id);
-            } else {
-                logger.warn("User not found for deletion: {}", id);
-            }
-            transaction.commit();
+        try {
+            inTransaction("delete", session -> {
+                User user = session.get(User.class, id);
+                if (user != null) {
+                    session.remove(user);
+                    logger.info("User deleted successfully: {}", id);
+                } else {
+                    logger.warn("User not found for deletion: {}", id);
+                }
+                return null;
+            });
+        } catch (DaoTimeoutException e) {
+            throw e;
         } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
-            }
             logger.error("Error deleting user: {}", id, e);
             throw new RuntimeException("Failed to delete user", e);
         }
     }
 
+    @Override
+    public List<Long> saveAll(List<User> users) {
+        if (users.isEmpty()) {
+            return List.of();
+        }
+        try {
+            List<Long> ids = inTransaction("saveAll", session -> {
+                List<Long> generated = new ArrayList<>(users.size());
+                for (User user : users) {
+                    session.persist(user);
+                    generated.add(user.getId());
+                }
+                return generated;
+            });
+            logger.info("Saved {} users", ids.size());
+            return ids;
+        } catch (DaoTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error saving {} users", users.size(), e);
+            throw new RuntimeException("Failed to save users", e);
+        }
+    }
+
+    @Override
+    public List<User> findAllByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        try {
+            List<User> users = inSession("findAllByIds", session -> session
+                    .createNamedQuery(UserQueries.FIND_BY_IDS, User.class)
+                    .setParameterList("ids", ids)
+                    .list());
+            logger.info("Found {} of {} users by ID", users.size(), ids.size());
+            return users;
+        } catch (DaoTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error finding {} users by ID", ids.size(), e);
+            throw new RuntimeException("Failed to find users by ID", e);
+        }
+    }
+
+    @Override
+    public List<User> findAllByEmails(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return List.of();
+        }
+        try {
+            List<User> users = inSession("findAllByEmails", session -> session
+                    .createNamedQuery(UserQueries.FIND_BY_EMAILS, User.class)
+                    .setParameterList("emails", emails.stream().map(User::normalizeEmail).distinct().toList())
+                    .list());
+            logger.info("Found {} of {} users by email", users.size(), emails.size());
+            return users;
+        } catch (DaoTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error finding {} users by email", emails.size(), e);
+            throw new RuntimeException("Failed to find users by email", e);
+        }
+    }
+
+    @Override
+    public void updateAll(List<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        try {
+            inTransaction("updateAll", session -> {
+                users.forEach(session::merge);
+                return null;
+            });
+            logger.info("Updated {} users", users.size());
+        } catch (DaoTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error updating {} users", users.size(), e);
+            throw new RuntimeException("Failed to update users", e);
+        }
+    }
+
+    @Override
+    public List<User> findCreatedBetween(LocalDateTime from, LocalDateTime to, CreatedAtCursor afterKey, int limit) {
+        try {
+            List<User> users = inSession("findCreatedBetween", session -> {
+                Query<User> query = afterKey == null
+                        ? session.createNamedQuery(UserQueries.FIND_CREATED_BETWEEN, User.class)
+                        : session.createNamedQuery(UserQueries.FIND_CREATED_BETWEEN_AFTER, User.class)
+                        .setParameter("afterCreatedAt", afterKey.createdAt())
+                        .setParameter("afterId", afterKey.id());
+                return query.setParameter("from", from)
+                        .setParameter("to", to)
+                        .setMaxResults(limit)
+                        .list();
+            });
+            logger.info("Found {} users created between {} and {}", users.size(), from, to);
+            return users;
+        } catch (DaoTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error finding users created between {} and {}", from, to, e);
+            throw new RuntimeException("Failed to find users by creation time", e);
+        }
+    }
+
+    @Override
+    public List<Long> findIdsCreatedBetween(LocalDateTime from, LocalDateTime to, Long afterId, int limit) {
+        try {
+            return inSession("findIdsCreatedBetween", session -> session
+                    .createNamedQuery(UserQueries.FIND_IDS_CREATED_BETWEEN, Long.class)
+                    .setParameter("from", from)
+                    .setParameter("to", to)
+                    .setParameter("afterId", afterId != null ? afterId : Long.MIN_VALUE)
+                    .setMaxResults(limit)
+                    .list());
+        } catch (DaoTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error finding user IDs created between {} and {}", from, to, e);
+            throw new RuntimeException("Failed to find user IDs by creation time", e);
+        }
+    }
+
+    @Override
+    public int deleteByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        try {
+            int deleted = inTransaction("deleteByIds", session -> session
+                    .createNamedMutationQuery(UserQueries.DELETE_BY_IDS)
+                    .setParameterList("ids", ids)
+                    .executeUpdate());
+            logger.info("Deleted {} of {} requested users", deleted, ids.size());
+            return deleted;
+        } catch (DaoTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error deleting {} users by ID", ids.size(), e);
+            throw new RuntimeException("Failed to delete users", e);
+        }
+    }
+
+    /**
+     * Resolves every named query this DAO uses. They are parsed and validated when the
+     * SessionFactory is built, so this only fails if one of them is missing from the catalog.
+     */
+    @Override
+    public void warmUp() {
+        try {
+            inSession("warmUp", session -> {
+                for (String name : UserQueries.USER_QUERIES) {
+                    session.createNamedQuery(name, User.class);
+                }
+                session.createNamedQuery(UserQueries.FIND_IDS_CREATED_BETWEEN, Long.class);
+                session.createNamedMutationQuery(UserQueries.DELETE_BY_IDS);
+                return null;
+            });
+            logger.info("DAO queries compiled");
+        } catch (DaoTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error compiling DAO queries", e);
+            throw new RuntimeException("Failed to compile DAO queries", e);
+        }
+    }
+
+    /**
+     * Runs a read in the current unit of work, or in a short-lived session of its own.
+     */
+    private <T> T inSession(String operation, Function<Session, T> work) {
+        if (HibernateUtil.isTransactionActive()) {
+            return guarded(operation, HibernateUtil.getCurrentSession(), work);
+        }
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            return guarded(operation, session, work);
+        }
+    }
+
+    /**
+     * Runs a write in the current unit of work, or in a session and transaction of its own.
+     * Inside a unit of work commit and rollback are left to {@link HibernateUtil#inTransaction}.
+     */
+    private <T> T inTransaction(String operation, Function<Session, T> work) {
+        if (HibernateUtil.isTransactionActive()) {
+            return guarded(operation, HibernateUtil.getCurrentSession(), work);
+        }
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            Transaction transaction = session.beginTransaction();
+            TransactionEvent event = TransactionEvent.begin("hibernate");
+            boolean committed = false;
+            try {
+                T result = guarded(operation, session, s -> {
+                    T value = work.apply(s);
+                    transaction.commit();
+                    return value;
+                });
+                committed = true;
+                return result;
+            } catch (RuntimeException e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw e;
+            } finally {
+                event.end(committed);
+            }
+        }
+    }
+
+    /**
+     * Applies {@code work} within the operation's deadline (see {@link QueryTimeouts}).
+     */
+    private static <T> T guarded(String operation, Session session, Function<Session, T> work) {
+        try (QueryTimeouts.Guard guard = QueryTimeouts.start(operation,
+                () -> session.doReturningWork(connection -> connection))) {
+            try {
+                return work.apply(session);
+            } catch (RuntimeException e) {
+                DaoTimeoutException timeout = QueryTimeouts.translate(operation, guard, e);
+                throw timeout != null ? timeout : e;
+            }
+        }
+    }
 }
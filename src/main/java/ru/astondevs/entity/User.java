@@ -5,18 +5,41 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.NamedNativeQuery;
+import jakarta.persistence.NamedQuery;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 @Entity
 @Setter
 @Getter
 @ToString
 @Table(name = "users")
+@NamedQuery(name = UserQueries.FIND_BY_EMAIL, query = "FROM User WHERE email = :email")
+@NamedQuery(name = UserQueries.FIND_ALL, query = "FROM User")
+@NamedQuery(name = UserQueries.FIND_PAGE, query = "FROM User u WHERE u.id > :afterId ORDER BY u.id")
+@NamedQuery(name = UserQueries.FIND_PAGE_BEFORE, query = "FROM User u WHERE u.id < :beforeId ORDER BY u.id DESC")
+@NamedQuery(name = UserQueries.FIND_BY_IDS, query = "FROM User WHERE id IN :ids")
+@NamedQuery(name = UserQueries.FIND_BY_EMAILS, query = "FROM User WHERE email IN :emails")
+@NamedQuery(name = UserQueries.FIND_CREATED_BETWEEN, query = "FROM User u"
+        + " WHERE u.createdAt >= :from AND u.createdAt < :to ORDER BY u.createdAt, u.id")
+// ">= :afterCreatedAt" is the seekable lower bound on idx_users_created_at_id;
+// the OR only breaks ties between rows sharing the cursor's timestamp
+@NamedQuery(name = UserQueries.FIND_CREATED_BETWEEN_AFTER, query = "FROM User u"
+        + " WHERE u.createdAt >= :from AND u.createdAt < :to AND u.createdAt >= :afterCreatedAt"
+        + " AND (u.createdAt > :afterCreatedAt OR u.id > :afterId) ORDER BY u.createdAt, u.id")
+@NamedQuery(name = UserQueries.FIND_IDS_CREATED_BETWEEN, query = "SELECT u.id FROM User u"
+        + " WHERE u.createdAt >= :from AND u.createdAt < :to AND u.id > :afterId ORDER BY u.id")
+@NamedQuery(name = UserQueries.DELETE_BY_IDS, query = "DELETE FROM User WHERE id IN :ids")
+// One round trip: the unique email index both checks and rejects a taken email
+@NamedNativeQuery(name = UserQueries.INSERT_IF_EMAIL_ABSENT, query = "INSERT INTO users (name, email, age, created_at)"
+        + " VALUES (:name, :email, :age, :createdAt) ON CONFLICT (email) DO NOTHING RETURNING id",
+        resultClass = Long.class)
 public class User {
 
     @Id
@@ -42,7 +65,33 @@ public class User {
     public User(String name, String email, Integer age) {
         this();
         this.name = name;
-        this.email = email;
+        this.email = normalizeEmail(email);
         this.age = age;
     }
+
+    /**
+     * Stores the email in its {@link #normalizeEmail normalized} form.
+     */
+    public void setEmail(String email) {
+        this.email = normalizeEmail(email);
+    }
+
+    /**
+     * Canonical form of an email address: trimmed and lower-cased. Emails are stored this way
+     * (enforced by the {@code users_email_normalized} check constraint) and every lookup key is
+     * normalized the same way, so case-insensitive lookups stay exact matches on the unique index.
+     */
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns a detached copy, for caches that hand the same row to several callers.
+     */
+    public User copy() {
+        User copy = new User(name, email, age);
+        copy.id = id;
+        copy.createdAt = createdAt;
+        return copy;
+    }
 }
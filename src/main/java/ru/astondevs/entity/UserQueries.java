@@ -0,0 +1,34 @@
+package ru.astondevs.entity;
+
+import java.util.List;
+
+/**
+ * Names of the named queries declared on {@link User}. Hibernate parses and validates them when the
+ * {@code SessionFactory} is built ({@code hibernate.query.startup_check}), so a query that no longer
+ * matches the entity fails startup instead of the first call that uses it.
+ */
+public final class UserQueries {
+    public static final String FIND_BY_EMAIL = "User.findByEmail";
+    public static final String FIND_ALL = "User.findAll";
+    public static final String FIND_PAGE = "User.findPage";
+    public static final String FIND_PAGE_BEFORE = "User.findPageBefore";
+    public static final String FIND_BY_IDS = "User.findByIds";
+    public static final String FIND_BY_EMAILS = "User.findByEmails";
+    public static final String FIND_CREATED_BETWEEN = "User.findCreatedBetween";
+    public static final String FIND_CREATED_BETWEEN_AFTER = "User.findCreatedBetweenAfter";
+    public static final String FIND_IDS_CREATED_BETWEEN = "User.findIdsCreatedBetween";
+    public static final String DELETE_BY_IDS = "User.deleteByIds";
+    /**
+     * Native SQL, so not validated at startup.
+     */
+    public static final String INSERT_IF_EMAIL_ABSENT = "User.insertIfEmailAbsent";
+
+    /**
+     * Queries returning {@link User} rows.
+     */
+    public static final List<String> USER_QUERIES = List.of(FIND_BY_EMAIL, FIND_ALL, FIND_PAGE, FIND_PAGE_BEFORE,
+            FIND_BY_IDS, FIND_BY_EMAILS, FIND_CREATED_BETWEEN, FIND_CREATED_BETWEEN_AFTER);
+
+    private UserQueries() {
+    }
+}
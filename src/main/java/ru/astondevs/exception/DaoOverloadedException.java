@@ -0,0 +1,12 @@
+package ru.astondevs.exception;
+
+/**
+ * Thrown when a DAO call is shed because the database layer is saturated.
+ */
+public class DaoOverloadedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public DaoOverloadedException(String message) {
+        super(message);
+    }
+}
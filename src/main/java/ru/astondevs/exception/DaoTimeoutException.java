@@ -0,0 +1,22 @@
+package ru.astondevs.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a DAO operation exceeds its deadline; the statement running on the server was cancelled.
+ */
+@Getter
+public class DaoTimeoutException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final String operation;
+    private final Duration timeout;
+
+    public DaoTimeoutException(String operation, Duration timeout, Throwable cause) {
+        super("Operation " + operation + " timed out after " + timeout.toMillis() + " ms", cause);
+        this.operation = operation;
+        this.timeout = timeout;
+    }
+}
@@ -0,0 +1,42 @@
+package ru.astondevs.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * One {@link ru.astondevs.dao.UserDao} call. Disabled by default; see {@code jfr/user-service.jfc}.
+ */
+@Name(DaoOperationEvent.NAME)
+@Label("DAO Operation")
+@Category({"User Service", "DAO"})
+@Description("A UserDao call, from entry to return")
+@Enabled(false)
+@Threshold("10 ms")
+@StackTrace(false)
+public class DaoOperationEvent extends Event {
+    public static final String NAME = "ru.astondevs.DaoOperation";
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Key Kind")
+    @Description("What the call was keyed by: id, email, ids, emails, page, range, entity, entities or none")
+    public String keyKind;
+
+    @Label("Keys")
+    @Description("Number of keys or entities passed in")
+    public int keys;
+
+    @Label("Rows")
+    @Description("Rows returned or affected")
+    public int rows;
+
+    @Label("Failed")
+    public boolean failed;
+}
@@ -0,0 +1,77 @@
+package ru.astondevs.jfr;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Registered through {@code hibernate.session.events.auto}: Hibernate creates one instance per
+ * session when it opens and calls {@link #end()} when it closes, so the instance spans exactly one
+ * {@link SessionEvent}. Does nothing beyond a field check while the event is disabled.
+ */
+public class JfrSessionEventListener implements SessionEventListener {
+    private static final long serialVersionUID = 1L;
+
+    private final transient SessionEvent event;
+    private long acquisitionStart;
+
+    public JfrSessionEventListener() {
+        SessionEvent candidate = new SessionEvent();
+        if (candidate.isEnabled()) {
+            candidate.begin();
+            event = candidate;
+        } else {
+            event = null;
+        }
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionStart() {
+        if (event != null) {
+            acquisitionStart = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionEnd() {
+        if (event != null) {
+            event.connectionAcquisitionNanos += System.nanoTime() - acquisitionStart;
+        }
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        if (event != null) {
+            event.statements++;
+        }
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        if (event != null) {
+            event.batches++;
+        }
+    }
+
+    @Override
+    public void flushStart() {
+        if (event != null) {
+            event.flushes++;
+        }
+    }
+
+    @Override
+    public void transactionCompletion(boolean successful) {
+        if (event != null) {
+            event.transactions++;
+        }
+    }
+
+    @Override
+    public void end() {
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.commit();
+            }
+        }
+    }
+}
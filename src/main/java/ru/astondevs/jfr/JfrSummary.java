@@ -0,0 +1,129 @@
+package ru.astondevs.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import ru.astondevs.loadtest.LatencyHistogram;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Summarises the User Service events of a JFR recording into per-operation latency tables:
+ * DAO operations by method and key kind, transactions by scope and outcome, and sessions.
+ * <pre>
+ * java -cp ... ru.astondevs.jfr.JfrSummary recording.jfr
+ * </pre>
+ */
+public final class JfrSummary {
+    private static final double[] PERCENTILES = {50, 90, 99};
+
+    private final Map<String, Row> operations = new TreeMap<>();
+    private final Map<String, Row> transactions = new TreeMap<>();
+    private final Map<String, Row> sessions = new TreeMap<>();
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: JfrSummary <recording.jfr>");
+            System.exit(2);
+        }
+        System.out.print(summarize(Path.of(args[0])).format());
+    }
+
+    public static JfrSummary summarize(Path recording) throws IOException {
+        JfrSummary summary = new JfrSummary();
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                summary.accept(file.readEvent());
+            }
+        }
+        return summary;
+    }
+
+    void accept(RecordedEvent event) {
+        long nanos = event.getDuration().toNanos();
+        switch (event.getEventType().getName()) {
+            case DaoOperationEvent.NAME -> operations
+                    .computeIfAbsent(event.getString("operation") + " (" + event.getString("keyKind") + ")", k -> new Row())
+                    .record(nanos, event.getInt("rows"), event.getBoolean("failed"));
+            case TransactionEvent.NAME -> transactions
+                    .computeIfAbsent(event.getString("scope") + " " + event.getString("outcome"), k -> new Row())
+                    .record(nanos, 0, "rollback".equals(event.getString("outcome")));
+            case SessionEvent.NAME -> sessions
+                    .computeIfAbsent("session", k -> new Row())
+                    .record(nanos, event.getInt("statements"), false);
+            default -> {
+            }
+        }
+    }
+
+    public Map<String, Row> getOperations() {
+        return operations;
+    }
+
+    public Map<String, Row> getTransactions() {
+        return transactions;
+    }
+
+    public String format() {
+        StringBuilder text = new StringBuilder();
+        table(text, "DAO operations", "rows", operations);
+        table(text, "Transactions", null, transactions);
+        table(text, "Sessions", "stmts", sessions);
+        return text.toString();
+    }
+
+    /**
+     * @param perCall label of the per-call average column, or {@code null} to leave it out
+     */
+    private static void table(StringBuilder text, String title, String perCall, Map<String, Row> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        text.append(title).append(System.lineSeparator());
+        text.append(String.format(Locale.ROOT, "%-34s %8s %6s %10s %10s %10s %10s %10s",
+                "name", "count", "failed", "avg ms", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        text.append(perCall != null ? String.format(Locale.ROOT, " %8s%n", "avg " + perCall) : System.lineSeparator());
+        rows.forEach((name, row) -> {
+            LatencyHistogram histogram = row.histogram;
+            text.append(String.format(Locale.ROOT, "%-34s %8d %6d %10.3f", name, histogram.getCount(), row.failed,
+                    histogram.getMeanNanos() / 1e6));
+            for (double percentile : PERCENTILES) {
+                text.append(String.format(Locale.ROOT, " %10.3f", histogram.getValueAtPercentile(percentile) / 1e6));
+            }
+            text.append(String.format(Locale.ROOT, " %10.3f", histogram.getMaxNanos() / 1e6));
+            text.append(perCall != null
+                    ? String.format(Locale.ROOT, " %8.1f%n", (double) row.units / histogram.getCount())
+                    : System.lineSeparator());
+        });
+        text.append(System.lineSeparator());
+    }
+
+    public static final class Row {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private long units;
+        private long failed;
+
+        void record(long nanos, int units, boolean failed) {
+            histogram.record(nanos);
+            this.units += units;
+            if (failed) {
+                this.failed++;
+            }
+        }
+
+        public long getCount() {
+            return histogram.getCount();
+        }
+
+        public long getFailedCount() {
+            return failed;
+        }
+
+        public long getUnits() {
+            return units;
+        }
+    }
+}
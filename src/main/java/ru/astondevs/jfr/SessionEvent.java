@@ -0,0 +1,40 @@
+package ru.astondevs.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Lifetime of a Hibernate session, from open to close, emitted by {@link JfrSessionEventListener}.
+ */
+@Name(SessionEvent.NAME)
+@Label("Hibernate Session")
+@Category({"User Service", "Hibernate"})
+@Description("A Hibernate session from open to close")
+@Enabled(false)
+@Threshold("20 ms")
+@StackTrace(false)
+public class SessionEvent extends Event {
+    public static final String NAME = "ru.astondevs.HibernateSession";
+
+    @Label("Statements")
+    public int statements;
+
+    @Label("Batches")
+    public int batches;
+
+    @Label("Flushes")
+    public int flushes;
+
+    @Label("Connection Acquisition Nanos")
+    @Description("Time spent waiting for a pooled connection")
+    public long connectionAcquisitionNanos;
+
+    @Label("Transactions Completed")
+    public int transactions;
+}
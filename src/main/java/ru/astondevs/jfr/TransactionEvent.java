@@ -0,0 +1,50 @@
+package ru.astondevs.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A database transaction from begin to commit or rollback.
+ */
+@Name(TransactionEvent.NAME)
+@Label("Transaction")
+@Category({"User Service", "Transactions"})
+@Description("A database transaction from begin to commit or rollback")
+@Enabled(false)
+@Threshold("10 ms")
+@StackTrace(false)
+public class TransactionEvent extends Event {
+    public static final String NAME = "ru.astondevs.Transaction";
+
+    @Label("Scope")
+    @Description("unitOfWork, hibernate (single DAO call) or jdbc (single DAO call)")
+    public String scope;
+
+    @Label("Outcome")
+    @Description("commit or rollback")
+    public String outcome;
+
+    /**
+     * Starts timing a transaction of {@code scope}.
+     */
+    public static TransactionEvent begin(String scope) {
+        TransactionEvent event = new TransactionEvent();
+        event.scope = scope;
+        event.begin();
+        return event;
+    }
+
+    public void end(boolean committed) {
+        end();
+        if (shouldCommit()) {
+            outcome = committed ? "commit" : "rollback";
+            commit();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package ru.astondevs.loadtest;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks which of the {@code keySpace} seeded users an operation targets.
+ */
+public interface KeyGenerator {
+
+    /**
+     * @return a key index in {@code [0, keySpace)}
+     */
+    int nextKey();
+
+    static KeyGenerator uniform(int keySpace) {
+        return () -> ThreadLocalRandom.current().nextInt(keySpace);
+    }
+
+    static KeyGenerator zipfian(int keySpace, double exponent) {
+        return new ZipfianKeyGenerator(keySpace, exponent);
+    }
+
+    static KeyGenerator of(String distribution, int keySpace, double zipfExponent) {
+        return switch (distribution.toLowerCase(Locale.ROOT)) {
+            case "uniform" -> uniform(keySpace);
+            case "zipfian", "zipf" -> zipfian(keySpace, zipfExponent);
+            default -> throw new IllegalArgumentException("Unknown key distribution: " + distribution);
+        };
+    }
+}
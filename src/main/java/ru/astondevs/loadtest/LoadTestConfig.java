@@ -0,0 +1,79 @@
+package ru.astondevs.loadtest;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Settings of a load-test run. A {@code targetRate} above zero switches to open-loop mode: requests
+ * are scheduled at a fixed rate and latency is measured from the scheduled start, so stalls are
+ * not hidden by coordinated omission.
+ */
+@Getter
+@Builder
+public class LoadTestConfig {
+    @Builder.Default
+    private final int threads = 8;
+    @Builder.Default
+    private final Duration duration = Duration.ofSeconds(30);
+    @Builder.Default
+    private final Duration warmup = Duration.ofSeconds(5);
+    /** {@link ru.astondevs.service.warmup.StartupWarmup} run before the test; zero skips it. */
+    @Builder.Default
+    private final Duration startupWarmup = Duration.ZERO;
+    @Builder.Default
+    private final Map<Operation, Integer> mix = defaultMix();
+    @Builder.Default
+    private final int keySpace = 10_000;
+    @Builder.Default
+    private final String distribution = "uniform";
+    @Builder.Default
+    private final double zipfExponent = 0.99;
+    /** Total operations per second across all threads; {@code 0} runs closed-loop. */
+    @Builder.Default
+    private final double targetRate = 0;
+    @Builder.Default
+    private final boolean bulkhead = false;
+    @Builder.Default
+    private final boolean cleanup = true;
+    private final Path jsonOutput;
+
+    public boolean isOpenLoop() {
+        return targetRate > 0;
+    }
+
+    public static Map<Operation, Integer> defaultMix() {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        mix.put(Operation.FIND_BY_ID, 80);
+        mix.put(Operation.FIND_BY_EMAIL, 10);
+        mix.put(Operation.SAVE, 5);
+        mix.put(Operation.UPDATE, 5);
+        return mix;
+    }
+
+    /**
+     * Parses a mix such as {@code findById=80,findByEmail=10,save=5,update=5}.
+     */
+    public static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] pair = part.split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + part);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Mix weight cannot be negative: " + part);
+            }
+            mix.put(Operation.fromLabel(pair[0]), weight);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("Operation mix is empty");
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,123 @@
+package ru.astondevs.loadtest;
+
+import lombok.Getter;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Throughput and latency percentiles of a load-test run, rendered as text or JSON.
+ */
+@Getter
+public class LoadTestReport {
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] PERCENTILE_KEYS = {"p50", "p90", "p99", "p99.9"};
+
+    private final LoadTestConfig config;
+    private final double measuredSeconds;
+    private final Map<Operation, LatencyHistogram> latencies;
+    private final Map<Operation, Long> errors;
+
+    LoadTestReport(LoadTestConfig config, double measuredSeconds,
+                   Map<Operation, LatencyHistogram> latencies, Map<Operation, Long> errors) {
+        this.config = config;
+        this.measuredSeconds = measuredSeconds;
+        this.latencies = new EnumMap<>(latencies);
+        this.errors = new EnumMap<>(errors);
+    }
+
+    public long getTotalOperations() {
+        return latencies.values().stream().mapToLong(LatencyHistogram::getCount).sum();
+    }
+
+    public long getTotalErrors() {
+        return errors.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public double getThroughput() {
+        return measuredSeconds == 0 ? 0 : getTotalOperations() / measuredSeconds;
+    }
+
+    public LatencyHistogram getOverall() {
+        LatencyHistogram overall = new LatencyHistogram();
+        latencies.values().forEach(overall::merge);
+        return overall;
+    }
+
+    public String toText() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(Locale.ROOT, "Mode: %s, threads: %d, keys: %d (%s), measured: %.1f s%n",
+                config.isOpenLoop() ? String.format(Locale.ROOT, "open-loop @ %.0f ops/s", config.getTargetRate())
+                        : "closed-loop",
+                config.getThreads(), config.getKeySpace(), config.getDistribution(), measuredSeconds));
+        text.append(String.format(Locale.ROOT, "Throughput: %.1f ops/s, operations: %d, errors: %d%n",
+                getThroughput(), getTotalOperations(), getTotalErrors()));
+        text.append(String.format(Locale.ROOT, "%-12s %10s %8s %10s %10s %10s %10s %10s %10s%n",
+                "operation", "count", "errors", "mean ms", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Map.Entry<Operation, LatencyHistogram> entry : latencies.entrySet()) {
+            appendRow(text, entry.getKey().label(), entry.getValue(), errors.getOrDefault(entry.getKey(), 0L));
+        }
+        appendRow(text, "all", getOverall(), getTotalErrors());
+        return text.toString();
+    }
+
+    private static void appendRow(StringBuilder text, String name, LatencyHistogram histogram, long errorCount) {
+        text.append(String.format(Locale.ROOT, "%-12s %10d %8d %10.3f", name, histogram.getCount(), errorCount,
+                millis(histogram.getMeanNanos())));
+        for (double percentile : PERCENTILES) {
+            text.append(String.format(Locale.ROOT, " %10.3f", millis(histogram.getValueAtPercentile(percentile))));
+        }
+        text.append(String.format(Locale.ROOT, " %10.3f%n", millis(histogram.getMaxNanos())));
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{");
+        json.append("\"mode\":\"").append(config.isOpenLoop() ? "open-loop" : "closed-loop").append('"');
+        json.append(",\"targetRate\":").append(number(config.getTargetRate()));
+        json.append(",\"threads\":").append(config.getThreads());
+        json.append(",\"keySpace\":").append(config.getKeySpace());
+        json.append(",\"distribution\":\"").append(config.getDistribution()).append('"');
+        json.append(",\"measuredSeconds\":").append(number(measuredSeconds));
+        json.append(",\"throughput\":").append(number(getThroughput()));
+        json.append(",\"operations\":").append(getTotalOperations());
+        json.append(",\"errors\":").append(getTotalErrors());
+        json.append(",\"latencyMs\":{");
+        boolean first = true;
+        for (Map.Entry<Operation, LatencyHistogram> entry : latencies.entrySet()) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            appendJson(json, entry.getKey().label(), entry.getValue(), errors.getOrDefault(entry.getKey(), 0L));
+        }
+        if (!first) {
+            json.append(',');
+        }
+        appendJson(json, "all", getOverall(), getTotalErrors());
+        return json.append("}}").toString();
+    }
+
+    private static void appendJson(StringBuilder json, String name, LatencyHistogram histogram, long errorCount) {
+        json.append('"').append(name).append("\":{")
+                .append("\"count\":").append(histogram.getCount())
+                .append(",\"errors\":").append(errorCount)
+                .append(",\"mean\":").append(number(millis(histogram.getMeanNanos())));
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            json.append(",\"").append(PERCENTILE_KEYS[i]).append("\":")
+                    .append(number(millis(histogram.getValueAtPercentile(PERCENTILES[i]))));
+        }
+        json.append(",\"max\":").append(number(millis(histogram.getMaxNanos()))).append('}');
+    }
+
+    private static double millis(double nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static String number(double value) {
+        if (value == Math.rint(value)) {
+            return Long.toString((long) value);
+        }
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+}
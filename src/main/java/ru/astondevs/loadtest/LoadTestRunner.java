@@ -0,0 +1,250 @@
+package ru.astondevs.loadtest;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import ru.astondevs.dao.UserDao;
+import ru.astondevs.entity.User;
+import ru.astondevs.util.TransactionRunner;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives {@link UserDao} from several threads with a weighted operation mix and reports latency
+ * per operation. Seeded users ({@code seed<N>@load.test}) are created on first use and reused by
+ * later runs; users created by {@link Operation#SAVE} are removed afterwards unless cleanup is off.
+ */
+public class LoadTestRunner {
+    private static final Logger logger = LogManager.getLogger(LoadTestRunner.class);
+    private static final int SEED_CHUNK = 500;
+
+    private final UserDao userDao;
+    private final TransactionRunner transactionRunner;
+    private final LoadTestConfig config;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final String runId = Long.toString(System.currentTimeMillis() % 1_000_000_000L, 36);
+
+    public LoadTestRunner(UserDao userDao, TransactionRunner transactionRunner, LoadTestConfig config) {
+        this.userDao = userDao;
+        this.transactionRunner = transactionRunner;
+        this.config = config;
+        List<Operation> ops = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        int total = 0;
+        for (Map.Entry<Operation, Integer> entry : config.getMix().entrySet()) {
+            if (entry.getValue() > 0) {
+                total += entry.getValue();
+                ops.add(entry.getKey());
+                weights.add(total);
+            }
+        }
+        this.operations = ops.toArray(new Operation[0]);
+        this.cumulativeWeights = weights.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    static String seedEmail(int key) {
+        return "seed" + key + "@load.test";
+    }
+
+    public LoadTestReport run() {
+        long[] ids = seed();
+        KeyGenerator keys = KeyGenerator.of(config.getDistribution(), config.getKeySpace(), config.getZipfExponent());
+
+        int threads = config.getThreads();
+        List<Worker> workers = new ArrayList<>();
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long intervalNanos = config.isOpenLoop() ? (long) (threads * 1_000_000_000.0 / config.getTargetRate()) : 0;
+
+        for (int i = 0; i < threads; i++) {
+            Worker worker = new Worker(i, ids, keys, intervalNanos, ready, start, done);
+            workers.add(worker);
+            Thread thread = new Thread(worker, "load-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        long measureFromNanos;
+        long endNanos;
+        try {
+            // Fix the schedule once every thread runs, so slow thread startup does not eat into it
+            ready.await();
+            long startNanos = System.nanoTime() + 50_000_000L;
+            measureFromNanos = startNanos + config.getWarmup().toNanos();
+            endNanos = measureFromNanos + config.getDuration().toNanos();
+            for (int i = 0; i < threads; i++) {
+                workers.get(i).schedule(startNanos + (intervalNanos * i) / threads, measureFromNanos, endNanos);
+            }
+            start.countDown();
+            logger.info("Load test started: {} threads, warmup {} s, duration {} s, {}", threads,
+                    config.getWarmup().toSeconds(), config.getDuration().toSeconds(),
+                    config.isOpenLoop() ? "open-loop at " + config.getTargetRate() + " ops/s" : "closed-loop");
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Load test interrupted", e);
+        }
+
+        Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+        Map<Operation, Long> errors = new EnumMap<>(Operation.class);
+        List<Long> created = new ArrayList<>();
+        for (Operation operation : operations) {
+            latencies.put(operation, new LatencyHistogram());
+            errors.put(operation, 0L);
+        }
+        for (Worker worker : workers) {
+            worker.latencies.forEach((operation, histogram) -> latencies.get(operation).merge(histogram));
+            worker.errors.forEach((operation, count) -> errors.merge(operation, count, Long::sum));
+            created.addAll(worker.createdIds);
+        }
+        if (config.isCleanup() && !created.isEmpty()) {
+            for (int from = 0; from < created.size(); from += SEED_CHUNK) {
+                userDao.deleteByIds(created.subList(from, Math.min(created.size(), from + SEED_CHUNK)));
+            }
+            logger.info("Removed {} users created by the load test", created.size());
+        }
+        return new LoadTestReport(config, (endNanos - measureFromNanos) / 1e9, latencies, errors);
+    }
+
+    private long[] seed() {
+        int keySpace = config.getKeySpace();
+        long[] ids = new long[keySpace];
+        long started = System.nanoTime();
+        for (int from = 0; from < keySpace; from += SEED_CHUNK) {
+            int chunkStart = from;
+            int chunkEnd = Math.min(keySpace, from + SEED_CHUNK);
+            transactionRunner.runInTransaction(() -> {
+                for (int key = chunkStart; key < chunkEnd; key++) {
+                    String email = seedEmail(key);
+                    int k = key;
+                    ids[key] = userDao.findByEmail(email)
+                            .map(User::getId)
+                            .orElseGet(() -> userDao.save(new User("Seed " + k, email, 20 + k % 50)));
+                }
+            });
+        }
+        logger.info("Seeded {} users in {} ms", keySpace, (System.nanoTime() - started) / 1_000_000);
+        return ids;
+    }
+
+    private Operation nextOperation() {
+        int roll = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private final class Worker implements Runnable {
+        private final int index;
+        private final long[] ids;
+        private final KeyGenerator keys;
+        private final long intervalNanos;
+        private final CountDownLatch ready;
+        private final CountDownLatch start;
+        private final CountDownLatch done;
+        // Set by schedule() before the start latch opens, which publishes them to the worker thread
+        private long firstStartNanos;
+        private long measureFromNanos;
+        private long endNanos;
+        private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+        private final Map<Operation, Long> errors = new EnumMap<>(Operation.class);
+        private final List<Long> createdIds = new ArrayList<>();
+        private long sequence;
+
+        private Worker(int index, long[] ids, KeyGenerator keys, long intervalNanos, CountDownLatch ready,
+                       CountDownLatch start, CountDownLatch done) {
+            this.index = index;
+            this.ids = ids;
+            this.keys = keys;
+            this.intervalNanos = intervalNanos;
+            this.ready = ready;
+            this.start = start;
+            this.done = done;
+            for (Operation operation : operations) {
+                latencies.put(operation, new LatencyHistogram());
+            }
+        }
+
+        private void schedule(long firstStartNanos, long measureFromNanos, long endNanos) {
+            this.firstStartNanos = firstStartNanos;
+            this.measureFromNanos = measureFromNanos;
+            this.endNanos = endNanos;
+        }
+
+        @Override
+        public void run() {
+            ready.countDown();
+            try {
+                start.await();
+                long intendedStart = firstStartNanos;
+                parkUntil(intendedStart);
+                while (true) {
+                    long now = System.nanoTime();
+                    if (intervalNanos > 0) {
+                        if (intendedStart >= endNanos) {
+                            break;
+                        }
+                        // Open loop: wait for the schedule, but never skip a slot that is already late
+                        parkUntil(intendedStart);
+                    } else {
+                        if (now >= endNanos) {
+                            break;
+                        }
+                        intendedStart = now;
+                    }
+                    Operation operation = nextOperation();
+                    boolean failed = !execute(operation);
+                    long latency = System.nanoTime() - intendedStart;
+                    if (intendedStart >= measureFromNanos) {
+                        latencies.get(operation).record(latency);
+                        if (failed) {
+                            errors.merge(operation, 1L, Long::sum);
+                        }
+                    }
+                    intendedStart += intervalNanos;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                done.countDown();
+            }
+        }
+
+        private boolean execute(Operation operation) {
+            try {
+                int key = keys.nextKey();
+                switch (operation) {
+                    case FIND_BY_ID -> userDao.findById(ids[key]);
+                    case FIND_BY_EMAIL -> userDao.findByEmail(seedEmail(key));
+                    case SAVE -> createdIds.add(userDao.save(new User("Load " + index,
+                            "lt" + runId + "." + index + "." + sequence++ + "@load.test", 30)));
+                    case UPDATE -> transactionRunner.runInTransaction(() -> userDao.findById(ids[key])
+                            .ifPresent(user -> {
+                                user.setAge(18 + ThreadLocalRandom.current().nextInt(60));
+                                userDao.update(user);
+                            }));
+                }
+                return true;
+            } catch (RuntimeException e) {
+                logger.debug("{} failed", operation, e);
+                return false;
+            }
+        }
+
+        private void parkUntil(long deadlineNanos) {
+            long remaining;
+            while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(remaining);
+            }
+        }
+    }
+}
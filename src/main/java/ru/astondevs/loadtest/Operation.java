@@ -0,0 +1,36 @@
+package ru.astondevs.loadtest;
+
+/**
+ * Operations the load generator can issue against {@link ru.astondevs.dao.UserDao}.
+ */
+public enum Operation {
+    FIND_BY_ID("findById"),
+    FIND_BY_EMAIL("findByEmail"),
+    SAVE("save"),
+    UPDATE("update");
+
+    private final String label;
+
+    Operation(String label) {
+        this.label = label;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public static Operation fromLabel(String label) {
+        for (Operation operation : values()) {
+            if (operation.label.equalsIgnoreCase(label.trim())) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation: " + label
+                + " (expected one of findById, findByEmail, save, update)");
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,52 @@
+package ru.astondevs.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Zipfian key distribution (Gray et al., "Quickly Generating Billion-Record Synthetic Databases"),
+ * the same generator YCSB uses. Key 0 is the most popular; popularity falls off as {@code 1/rank^s}.
+ */
+class ZipfianKeyGenerator implements KeyGenerator {
+    private final int keySpace;
+    private final double theta;
+    private final double alpha;
+    private final double zetaN;
+    private final double eta;
+
+    ZipfianKeyGenerator(int keySpace, double theta) {
+        if (keySpace <= 0) {
+            throw new IllegalArgumentException("keySpace must be positive");
+        }
+        if (theta <= 0 || theta >= 1) {
+            throw new IllegalArgumentException("Zipfian exponent must be in (0, 1)");
+        }
+        this.keySpace = keySpace;
+        this.theta = theta;
+        this.alpha = 1.0 / (1.0 - theta);
+        this.zetaN = zeta(keySpace, theta);
+        double zeta2 = zeta(2, theta);
+        this.eta = (1 - Math.pow(2.0 / keySpace, 1 - theta)) / (1 - zeta2 / zetaN);
+    }
+
+    private static double zeta(int n, double theta) {
+        double sum = 0;
+        for (int i = 1; i <= n; i++) {
+            sum += 1 / Math.pow(i, theta);
+        }
+        return sum;
+    }
+
+    @Override
+    public int nextKey() {
+        double u = ThreadLocalRandom.current().nextDouble();
+        double uz = u * zetaN;
+        if (uz < 1.0) {
+            return 0;
+        }
+        if (uz < 1.0 + Math.pow(0.5, theta)) {
+            return Math.min(1, keySpace - 1);
+        }
+        int key = (int) (keySpace * Math.pow(eta * u - eta + 1, alpha));
+        return Math.min(key, keySpace - 1);
+    }
+}
@@ -0,0 +1,101 @@
+package ru.astondevs.migration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * One versioned schema change, read from a SQL script on the classpath.
+ * <p>
+ * Scripts hold plain statements, each ending with {@code ;} at the end of a line; {@code --} comment
+ * lines are skipped. Inside a {@code $$}-quoted body (e.g. a PL/pgSQL function) lines are kept as
+ * they are and {@code ;} does not end the statement. Transactional migrations run all statements
+ * and their history row in one transaction. Non-transactional ones run statement by statement in
+ * autocommit, which {@code CREATE INDEX CONCURRENTLY} requires, so every statement must be safe to
+ * re-run ({@code IF NOT EXISTS}).
+ *
+ * @param version     applied in ascending order, never reused
+ * @param description recorded in the history table
+ * @param resource    classpath location of the script
+ */
+public record Migration(int version, String description, String resource, boolean transactional) {
+    private static final Pattern CREATE_INDEX = Pattern.compile("^CREATE\\s+(?:UNIQUE\\s+)?INDEX\\s+"
+            + "(?:CONCURRENTLY\\s+)?(?:IF\\s+NOT\\s+EXISTS\\s+)?(?:\\w+\\.)?\"?(\\w+)\"?", Pattern.CASE_INSENSITIVE);
+
+    public static Migration transactional(int version, String description, String resource) {
+        return new Migration(version, description, resource, true);
+    }
+
+    public static Migration nonTransactional(int version, String description, String resource) {
+        return new Migration(version, description, resource, false);
+    }
+
+    public String sql() {
+        try (InputStream in = Migration.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Migration script not found: " + resource);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read migration script " + resource, e);
+        }
+    }
+
+    /**
+     * CRC32 of the script, compared against the history table to detect edited migrations.
+     */
+    public long checksum() {
+        CRC32 crc = new CRC32();
+        crc.update(sql().getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    public List<String> statements() {
+        List<String> statements = new ArrayList<>();
+        StringBuilder statement = new StringBuilder();
+        boolean dollarQuoted = false;
+        for (String line : sql().split("\n")) {
+            String trimmed = line.strip();
+            if (!dollarQuoted && (trimmed.isEmpty() || trimmed.startsWith("--"))) {
+                continue;
+            }
+            statement.append(line).append('\n');
+            if (countDollarQuotes(line) % 2 == 1) {
+                dollarQuoted = !dollarQuoted;
+            }
+            if (!dollarQuoted && trimmed.endsWith(";")) {
+                statements.add(statement.substring(0, statement.lastIndexOf(";")).strip());
+                statement.setLength(0);
+            }
+        }
+        if (!statement.isEmpty()) {
+            statements.add(statement.toString().strip());
+        }
+        return statements;
+    }
+
+    /**
+     * Names of the indexes the script creates.
+     */
+    public List<String> createdIndexes() {
+        return statements().stream()
+                .map(CREATE_INDEX::matcher)
+                .filter(Matcher::find)
+                .map(matcher -> matcher.group(1))
+                .toList();
+    }
+
+    private static int countDollarQuotes(String line) {
+        int count = 0;
+        for (int i = line.indexOf("$$"); i >= 0; i = line.indexOf("$$", i + 2)) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,190 @@
+package ru.astondevs.migration;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Brings the database schema up to the latest {@link Migration} before Hibernate starts, which then
+ * only validates it ({@code hbm2ddl.auto=validate}).
+ * <p>
+ * Applied versions and script checksums are recorded in {@value #HISTORY_TABLE}. A session-level
+ * advisory lock serialises nodes starting at the same time; it does not hold a transaction open, so
+ * {@code CREATE INDEX CONCURRENTLY} on the same connection is not blocked by it. A concurrent index
+ * build that failed leaves an invalid index behind; such indexes are dropped before the next
+ * non-transactional migration so that its {@code IF NOT EXISTS} rebuilds them. DDL gives up after
+ * {@value #LOCK_TIMEOUT} waiting for a table lock instead of queueing all traffic behind it.
+ */
+public class SchemaMigrator {
+    private static final Logger logger = LogManager.getLogger(SchemaMigrator.class);
+
+    public static final String HISTORY_TABLE = "schema_migrations";
+    private static final long ADVISORY_LOCK_KEY = 0x7573_6572_6d69_6772L;
+    private static final String LOCK_TIMEOUT = "10s";
+
+    public static final List<Migration> MIGRATIONS = List.of(
+            Migration.transactional(1, "Create users table", "db/migration/V1__create_users.sql"),
+            Migration.transactional(2, "Align column lengths with User", "db/migration/V2__align_column_lengths.sql"),
+            Migration.nonTransactional(3, "Index created_at", "db/migration/V3__index_created_at.sql"),
+            Migration.nonTransactional(4, "Index lower(email)", "db/migration/V4__index_email_lower.sql"),
+            // 5 indexed lower(name) prefixes for a search that was never added; 11 drops it where applied
+            Migration.transactional(6, "Normalize emails", "db/migration/V6__normalize_emails.sql"),
+            Migration.transactional(7, "Validate normalized emails", "db/migration/V7__validate_normalized_emails.sql"),
+            Migration.nonTransactional(8, "Drop lower(email) index", "db/migration/V8__drop_email_lower_index.sql"),
+            Migration.transactional(9, "User change notification triggers", "db/migration/V9__user_change_triggers.sql"),
+            Migration.transactional(10, "User insert notifications", "db/migration/V10__user_insert_notifications.sql"),
+            Migration.nonTransactional(11, "Drop lower(name) prefix index", "db/migration/V11__drop_name_prefix_index.sql"));
+
+    private static final String CREATE_HISTORY = "CREATE TABLE IF NOT EXISTS " + HISTORY_TABLE + " ("
+            + "version INTEGER PRIMARY KEY, description VARCHAR(200) NOT NULL, checksum BIGINT NOT NULL, "
+            + "installed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, execution_ms BIGINT NOT NULL)";
+    private static final String SELECT_HISTORY = "SELECT version, checksum FROM " + HISTORY_TABLE;
+    private static final String INSERT_HISTORY = "INSERT INTO " + HISTORY_TABLE
+            + " (version, description, checksum, execution_ms) VALUES (?, ?, ?, ?)";
+    private static final String SELECT_INVALID_INDEXES = "SELECT c.relname FROM pg_index i"
+            + " JOIN pg_class c ON c.oid = i.indexrelid JOIN pg_namespace n ON n.oid = c.relnamespace"
+            + " WHERE NOT i.indisvalid AND n.nspname = current_schema() AND c.relname = ANY (?)";
+
+    private final String jdbcUrl;
+    private final String username;
+    private final String password;
+    private final List<Migration> migrations;
+
+    public SchemaMigrator(String jdbcUrl, String username, String password) {
+        this(jdbcUrl, username, password, MIGRATIONS);
+    }
+
+    public SchemaMigrator(String jdbcUrl, String username, String password, List<Migration> migrations) {
+        for (int i = 1; i < migrations.size(); i++) {
+            if (migrations.get(i).version() <= migrations.get(i - 1).version()) {
+                throw new IllegalArgumentException("Migration versions must be ascending: " + migrations.get(i));
+            }
+        }
+        this.jdbcUrl = jdbcUrl;
+        this.username = username;
+        this.password = password;
+        this.migrations = List.copyOf(migrations);
+    }
+
+    /**
+     * Applies every pending migration in version order and returns how many were applied.
+     *
+     * @throws IllegalStateException if an applied migration's script has since been changed
+     */
+    public int migrate() {
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, username, password)) {
+            connection.setAutoCommit(true);
+            // Held until the connection closes, like the lock_timeout setting
+            execute(connection, "SELECT pg_advisory_lock(" + ADVISORY_LOCK_KEY + ")");
+            execute(connection, "SET lock_timeout = '" + LOCK_TIMEOUT + "'");
+            execute(connection, CREATE_HISTORY);
+            Map<Integer, Long> applied = loadHistory(connection);
+            List<Migration> pending = new ArrayList<>();
+            for (Migration migration : migrations) {
+                Long checksum = applied.get(migration.version());
+                if (checksum == null) {
+                    pending.add(migration);
+                } else if (checksum != migration.checksum()) {
+                    throw new IllegalStateException("Migration " + migration.version() + " ("
+                            + migration.resource() + ") was changed after it was applied");
+                }
+            }
+            for (Migration migration : pending) {
+                apply(connection, migration);
+            }
+            logger.info("Schema is at version {} ({} migrations applied)",
+                    migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version(), pending.size());
+            return pending.size();
+        } catch (SQLException e) {
+            logger.error("Error migrating schema", e);
+            throw new RuntimeException("Failed to migrate schema", e);
+        }
+    }
+
+    private void apply(Connection connection, Migration migration) throws SQLException {
+        logger.info("Applying migration {}: {}", migration.version(), migration.description());
+        long start = System.nanoTime();
+        if (migration.transactional()) {
+            connection.setAutoCommit(false);
+            try {
+                for (String sql : migration.statements()) {
+                    execute(connection, sql);
+                }
+                recordHistory(connection, migration, start);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } else {
+            dropInvalidIndexes(connection, migration.createdIndexes());
+            for (String sql : migration.statements()) {
+                execute(connection, sql);
+            }
+            recordHistory(connection, migration, start);
+        }
+        logger.info("Migration {} applied in {} ms", migration.version(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static Map<Integer, Long> loadHistory(Connection connection) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(SELECT_HISTORY)) {
+            while (resultSet.next()) {
+                applied.put(resultSet.getInt(1), resultSet.getLong(2));
+            }
+        }
+        return applied;
+    }
+
+    private static void recordHistory(Connection connection, Migration migration, long startNanos) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_HISTORY)) {
+            statement.setInt(1, migration.version());
+            statement.setString(2, migration.description());
+            statement.setLong(3, migration.checksum());
+            statement.setLong(4, (System.nanoTime() - startNanos) / 1_000_000);
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Drops those of {@code indexes} left invalid by an interrupted {@code CREATE INDEX CONCURRENTLY}
+     * of an earlier attempt; other invalid indexes (e.g. a build still running elsewhere) are kept.
+     */
+    private static void dropInvalidIndexes(Connection connection, List<String> indexes) throws SQLException {
+        if (indexes.isEmpty()) {
+            return;
+        }
+        List<String> invalid = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_INVALID_INDEXES)) {
+            statement.setArray(1, connection.createArrayOf("text", indexes.toArray()));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    invalid.add(resultSet.getString(1));
+                }
+            }
+        }
+        for (String index : invalid) {
+            logger.warn("Dropping invalid index {} left by an interrupted build", index);
+            execute(connection, "DROP INDEX CONCURRENTLY IF EXISTS \"" + index.replace("\"", "\"\"") + "\"");
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -1,32 +1,72 @@
 package ru.astondevs.service;
 
 import lombok.AllArgsConstructor;
+import lombok.Getter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import ru.astondevs.dao.BulkheadUserDao;
+import ru.astondevs.dao.CoalescingUserDao;
+import ru.astondevs.dao.EmailFilteringUserDao;
+import ru.astondevs.dao.NearCachingUserDao;
 import ru.astondevs.dao.UserDao;
-import ru.astondevs.dao.UserDaoImpl;
+import ru.astondevs.dao.UserDaoFactory;
 import ru.astondevs.entity.User;
+import ru.astondevs.service.listing.UserPager;
+import ru.astondevs.service.listing.UserTableFormatter;
 import ru.astondevs.util.HibernateUtil;
+import ru.astondevs.util.TransactionRunner;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.Scanner;
+import java.util.regex.Pattern;
 
 @AllArgsConstructor
 public class UserService {
     private static final Logger logger = LogManager.getLogger(UserService.class);
-
+    private static final int PAGE_SIZE = 20;
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+    public static final Pattern EMAIL_PATTERN = Pattern.compile("^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}$");
+
+    /**
+     * The decorated DAO the service reads and writes through, caches and bulkheads included.
+     */
+    @Getter
     private final UserDao userDao;
     private final Scanner scanner;
+    private final TransactionRunner transactionRunner;
 
     public UserService() {
-        this.userDao = new UserDaoImpl();
-        this.scanner = new Scanner(System.in);
+        this(BulkheadUserDao.withDefaults(UserDaoFactory.create(),
+                HibernateUtil.getIntProperty("hibernate.connection.pool_size", 10)));
+    }
+
+    private UserService(BulkheadUserDao bulkheadUserDao) {
+        this(EmailFilteringUserDao.load(withNearCache(new CoalescingUserDao(bulkheadUserDao,
+                        Duration.ofMillis(HibernateUtil.getIntProperty("user.dao.coalesce.batch_window_ms", 0))))),
+                new Scanner(System.in), bulkheadUserDao.bound(TransactionRunner.hibernate()));
+    }
+
+    private static UserDao withNearCache(UserDao userDao) {
+        boolean enabled = Boolean.parseBoolean(HibernateUtil.getStringProperty("user.cache.near.enabled", "false"));
+        return enabled ? NearCachingUserDao.create(userDao) : userDao;
     }
 
     public UserService(UserDao userDao) {
-        this.userDao = userDao;
-        this.scanner = new Scanner(System.in);
+        this(userDao, new Scanner(System.in));
+    }
+
+    /**
+     * Creates a service whose DAO calls are not grouped into a shared unit of work.
+     */
+    public UserService(UserDao userDao, Scanner scanner) {
+        this(userDao, scanner, TransactionRunner.direct());
     }
 
     public void createUser() {
@@ -48,18 +88,12 @@ public class UserService {
                 return;
             }
 
-            if (!email.matches("^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}$")) {
+            if (!EMAIL_PATTERN.matcher(email).matches()) {
                 System.out.println("\nError: Invalid email format!");
                 System.out.println("Example: example@example.com");
                 return;
             }
 
-            Optional<User> existingUser = userDao.findByEmail(email);
-            if (existingUser.isPresent()) {
-                System.out.println("\nError: User with this email already exists!");
-                return;
-            }
-
             System.out.print("Enter new user age: ");
             int age = Integer.parseInt(scanner.nextLine());
 
@@ -68,9 +102,14 @@ public class UserService {
                 return;
             }
 
-            User user = new User(name, email, age);
-            Long id = userDao.save(user);
-            System.out.println("User created successfully with ID:" + id);
+            // Uniqueness check and insert are one statement; emails are compared case-insensitively
+            Optional<Long> id = userDao.saveIfEmailAbsent(new User(name, email, age));
+
+            if (id.isEmpty()) {
+                System.out.println("\nError: User with this email already exists!");
+                return;
+            }
+            System.out.println("User created successfully with ID:" + id.get());
 
         } catch (NumberFormatException e) {
             logger.warn("Invalid age input in create", e);
@@ -116,7 +155,11 @@ public class UserService {
             if (users.isEmpty()) {
                 System.out.println("\nNo users found.");
             } else {
-                users.forEach(System.out::println);
+                Writer out = consoleWriter();
+                UserTableFormatter formatter = new UserTableFormatter();
+                formatter.writeHeader(out);
+                formatter.writeRows(out, users);
+                out.flush();
             }
 
         } catch (Exception e) {
@@ -125,6 +168,80 @@ public class UserService {
         }
     }
 
+    /**
+     * Lists users {@value #PAGE_SIZE} per page with next/previous/jump-to-ID navigation. Each step
+     * is one keyset query, and a page is written to the console in one buffered write.
+     */
+    public void listUsers() {
+        try {
+            Writer out = consoleWriter();
+            UserTableFormatter formatter = new UserTableFormatter();
+            UserPager pager = new UserPager(userDao, PAGE_SIZE);
+            out.write("\n=== Users ===\n");
+            pager.first();
+            String notice = null;
+            while (true) {
+                if (pager.getPage().isEmpty()) {
+                    out.write("\nNo users found.\n");
+                } else {
+                    formatter.writeHeader(out);
+                    formatter.writeRows(out, pager.getPage());
+                    out.write(pageFooter(pager));
+                }
+                if (notice != null) {
+                    out.write(notice);
+                    notice = null;
+                }
+                out.write("[n]ext, [p]revious, [j <id>] jump to ID, [q]uit: ");
+                out.flush();
+
+                if (!scanner.hasNextLine()) {
+                    return;
+                }
+                String command = scanner.nextLine().trim();
+                if (command.isEmpty() || command.equalsIgnoreCase("n")) {
+                    if (!pager.next()) {
+                        notice = "Already at the last page.\n";
+                    }
+                } else if (command.equalsIgnoreCase("p")) {
+                    if (!pager.previous()) {
+                        notice = "Already at the first page.\n";
+                    }
+                } else if (command.toLowerCase(Locale.ROOT).startsWith("j")) {
+                    try {
+                        long id = Long.parseLong(command.substring(1).trim());
+                        if (!pager.jumpTo(id)) {
+                            notice = "No users with ID " + id + " or greater, showing the last page.\n";
+                        }
+                    } catch (NumberFormatException e) {
+                        notice = "Error: ID must be a valid number!\n";
+                    }
+                } else if (command.equalsIgnoreCase("q")) {
+                    return;
+                } else {
+                    notice = "Unknown command: " + command + "\n";
+                }
+            }
+        } catch (Exception e) {
+            System.out.println("Error listing users: " + e.getMessage());
+            logger.error("Error in listUsers", e);
+        }
+    }
+
+    private static String pageFooter(UserPager pager) {
+        List<User> page = pager.getPage();
+        return "IDs " + page.get(0).getId() + "-" + page.get(page.size() - 1).getId()
+                + " (" + page.size() + " users)" + (pager.hasNext() ? "" : ", last page") + "\n";
+    }
+
+    /**
+     * Buffers console output so a page reaches {@code System.out} in one write; never closed, as
+     * that would close {@code System.out}.
+     */
+    private static Writer consoleWriter() {
+        return new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), OUTPUT_BUFFER_SIZE);
+    }
+
     public void updateUser() {
         try {
             System.out.println("\n=== Update User ===");
@@ -148,14 +265,6 @@ public class UserService {
 
             System.out.print("Enter new email (current: " + user.getEmail() + "):");
             String email = scanner.nextLine();
-            if (!email.trim().isEmpty()) {
-                Optional<User> existingUser = userDao.findByEmail(email);
-                if (existingUser.isPresent() && !existingUser.get().getId().equals(id)) {
-                    System.out.println("Error: Another user with this email already exists!");
-                    return;
-                }
-                user.setEmail(email);
-            }
 
             System.out.print("Enter new age (current: " + user.getAge() + "): ");
             String ageInput = scanner.nextLine();
@@ -163,7 +272,23 @@ public class UserService {
                 user.setAge(Integer.parseInt(ageInput));
             }
 
-            userDao.update(user);
+            // The input prompts stay outside; the email check and the write form one unit of work
+            boolean updated = transactionRunner.inTransaction(() -> {
+                if (!email.trim().isEmpty()) {
+                    Optional<User> existingUser = userDao.findByEmail(email);
+                    if (existingUser.isPresent() && !existingUser.get().getId().equals(id)) {
+                        return false;
+                    }
+                    user.setEmail(email);
+                }
+                userDao.update(user);
+                return true;
+            });
+
+            if (!updated) {
+                System.out.println("Error: Another user with this email already exists!");
+                return;
+            }
             System.out.println("\nUser updated successfully!");
 
         } catch (NumberFormatException e) {
@@ -181,9 +306,14 @@ public class UserService {
             System.out.print("Enter user ID to delete: ");
             Long id = Long.parseLong(scanner.nextLine());
 
-            Optional<User> user = userDao.findById(id);
-            if (user.isPresent()) {
+            boolean deleted = transactionRunner.inTransaction(() -> {
+                if (userDao.findById(id).isEmpty()) {
+                    return false;
+                }
                 userDao.delete(id);
+                return true;
+            });
+            if (deleted) {
                 System.out.println("User deleted successfully!");
             } else {
                 System.out.println("User not found with ID: " + id);
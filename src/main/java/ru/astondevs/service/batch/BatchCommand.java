@@ -0,0 +1,52 @@
+package ru.astondevs.service.batch;
+
+import java.util.Locale;
+
+/**
+ * One line of a batch command stream. Fields are separated by {@code ;}:
+ * <pre>
+ * create;&lt;name&gt;;&lt;email&gt;;&lt;age&gt;
+ * get;&lt;id&gt;
+ * update;&lt;id&gt;;&lt;name&gt;;&lt;email&gt;;&lt;age&gt;   (empty field keeps the current value)
+ * delete;&lt;id&gt;
+ * </pre>
+ */
+public record BatchCommand(long lineNumber, Type type, String[] fields) {
+
+    public enum Type {
+        CREATE(3), GET(1), UPDATE(4), DELETE(1);
+
+        private final int arity;
+
+        Type(int arity) {
+            this.arity = arity;
+        }
+    }
+
+    public static BatchCommand parse(long lineNumber, String line) {
+        String[] parts = line.split(";", -1);
+        Type type;
+        try {
+            type = Type.valueOf(parts[0].trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown command '" + parts[0].trim() + "'");
+        }
+        if (parts.length - 1 != type.arity) {
+            throw new IllegalArgumentException(type.name().toLowerCase(Locale.ROOT) + " expects "
+                    + type.arity + " field(s), got " + (parts.length - 1));
+        }
+        String[] fields = new String[type.arity];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = parts[i + 1].trim();
+        }
+        return new BatchCommand(lineNumber, type, fields);
+    }
+
+    public String field(int index) {
+        return fields[index];
+    }
+
+    public String name() {
+        return type.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,325 @@
+package ru.astondevs.service.batch;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import ru.astondevs.dao.UserDao;
+import ru.astondevs.entity.User;
+import ru.astondevs.service.UserService;
+import ru.astondevs.util.TransactionRunner;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Non-interactive counterpart of {@link UserService}. Reads {@link BatchCommand} lines, groups
+ * consecutive commands of the same kind into chunks and executes every chunk with a handful of
+ * multi-row DAO calls in one transaction. A result line is written per command, in input order:
+ * <pre>
+ * &lt;line&gt;\t&lt;command&gt;\t&lt;status&gt;[\t&lt;details&gt;...]
+ * </pre>
+ * Details are the new ID for {@code create} and {@code id, name, email, age, createdAt} for a found
+ * {@code get}; non-OK results carry a message. If a chunk fails as a whole its commands are retried
+ * one by one, so a single bad row does not fail its neighbours.
+ */
+public class BatchCommandProcessor {
+    private static final Logger logger = LogManager.getLogger(BatchCommandProcessor.class);
+
+    private final UserDao userDao;
+    private final TransactionRunner transactionRunner;
+    private final int chunkSize;
+
+    public BatchCommandProcessor(UserDao userDao, TransactionRunner transactionRunner, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        this.userDao = userDao;
+        this.transactionRunner = transactionRunner;
+        this.chunkSize = chunkSize;
+    }
+
+    public BatchSummary process(Reader input, Writer output) throws IOException {
+        BatchSummary summary = new BatchSummary();
+        long started = System.nanoTime();
+        BufferedReader reader = input instanceof BufferedReader buffered ? buffered : new BufferedReader(input, 1 << 16);
+        List<BatchCommand> pending = new ArrayList<>(chunkSize);
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            BatchCommand command;
+            try {
+                command = BatchCommand.parse(lineNumber, trimmed);
+            } catch (IllegalArgumentException e) {
+                flush(pending, output, summary);
+                write(output, summary, lineNumber, "?", BatchStatus.INVALID, e.getMessage());
+                continue;
+            }
+            if (!pending.isEmpty() && (pending.get(0).type() != command.type() || pending.size() == chunkSize)) {
+                flush(pending, output, summary);
+            }
+            pending.add(command);
+        }
+        flush(pending, output, summary);
+        output.flush();
+        summary.finish(Duration.ofNanos(System.nanoTime() - started));
+        logger.info("Batch finished: {}", summary);
+        return summary;
+    }
+
+    private void flush(List<BatchCommand> chunk, Writer output, BatchSummary summary) throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<Result> results;
+        try {
+            results = execute(chunk);
+        } catch (RuntimeException e) {
+            logger.warn("Chunk of {} {} commands starting at line {} failed, retrying one by one",
+                    chunk.size(), chunk.get(0).name(), chunk.get(0).lineNumber(), e);
+            results = new ArrayList<>(chunk.size());
+            for (BatchCommand command : chunk) {
+                try {
+                    results.addAll(execute(List.of(command)));
+                } catch (RuntimeException single) {
+                    results.add(new Result(command, BatchStatus.ERROR, rootMessage(single)));
+                }
+            }
+        }
+        for (Result result : results) {
+            write(output, summary, result.command.lineNumber(), result.command.name(), result.status, result.details);
+        }
+        summary.chunkProcessed();
+        chunk.clear();
+    }
+
+    private List<Result> execute(List<BatchCommand> chunk) {
+        return switch (chunk.get(0).type()) {
+            case CREATE -> transactionRunner.inTransaction(() -> create(chunk));
+            case GET -> get(chunk);
+            case UPDATE -> transactionRunner.inTransaction(() -> update(chunk));
+            case DELETE -> transactionRunner.inTransaction(() -> delete(chunk));
+        };
+    }
+
+    private List<Result> create(List<BatchCommand> chunk) {
+        Result[] results = new Result[chunk.size()];
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            BatchCommand command = chunk.get(i);
+            String error = validateNew(command.field(0), command.field(1), command.field(2));
+            if (error != null) {
+                results[i] = new Result(command, BatchStatus.INVALID, error);
+            } else if (candidates.putIfAbsent(User.normalizeEmail(command.field(1)), i) != null) {
+                results[i] = new Result(command, BatchStatus.DUPLICATE, "Email repeated in batch");
+            }
+        }
+        Set<String> taken = userDao.findAllByEmails(candidates.keySet()).stream()
+                .map(User::getEmail)
+                .collect(Collectors.toSet());
+
+        List<User> toSave = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (Map.Entry<String, Integer> candidate : candidates.entrySet()) {
+            BatchCommand command = chunk.get(candidate.getValue());
+            if (taken.contains(candidate.getKey())) {
+                results[candidate.getValue()] = new Result(command, BatchStatus.DUPLICATE, "Email already exists");
+            } else {
+                toSave.add(new User(command.field(0), command.field(1), Integer.parseInt(command.field(2))));
+                positions.add(candidate.getValue());
+            }
+        }
+        List<Long> ids = userDao.saveAll(toSave);
+        for (int i = 0; i < ids.size(); i++) {
+            int position = positions.get(i);
+            results[position] = new Result(chunk.get(position), BatchStatus.OK, String.valueOf(ids.get(i)));
+        }
+        return List.of(results);
+    }
+
+    private List<Result> get(List<BatchCommand> chunk) {
+        Map<Long, User> users = loadUsers(chunk);
+        List<Result> results = new ArrayList<>(chunk.size());
+        for (BatchCommand command : chunk) {
+            Long id = parseId(command.field(0));
+            if (id == null) {
+                results.add(new Result(command, BatchStatus.INVALID, "ID must be a valid number"));
+                continue;
+            }
+            User user = users.get(id);
+            results.add(user == null
+                    ? new Result(command, BatchStatus.NOT_FOUND, "User not found with ID: " + id)
+                    : new Result(command, BatchStatus.OK, user.getId() + "\t" + singleField(user.getName()) + "\t"
+                    + singleField(user.getEmail()) + "\t" + user.getAge() + "\t" + user.getCreatedAt()));
+        }
+        return results;
+    }
+
+    private List<Result> update(List<BatchCommand> chunk) {
+        Map<Long, User> users = loadUsers(chunk);
+        Set<String> newEmails = chunk.stream()
+                .map(command -> command.field(2))
+                .filter(email -> !email.isEmpty())
+                .map(User::normalizeEmail)
+                .collect(Collectors.toSet());
+        Map<String, Long> emailOwners = userDao.findAllByEmails(newEmails).stream()
+                .collect(Collectors.toMap(User::getEmail, User::getId));
+
+        List<Result> results = new ArrayList<>(chunk.size());
+        Set<User> changed = new LinkedHashSet<>();
+        for (BatchCommand command : chunk) {
+            Long id = parseId(command.field(0));
+            String error = id == null ? "ID must be a valid number" : validateChanges(command);
+            if (error != null) {
+                results.add(new Result(command, BatchStatus.INVALID, error));
+                continue;
+            }
+            User user = users.get(id);
+            if (user == null) {
+                results.add(new Result(command, BatchStatus.NOT_FOUND, "User not found with ID: " + id));
+                continue;
+            }
+            String email = User.normalizeEmail(command.field(2));
+            if (!email.isEmpty()) {
+                Long owner = emailOwners.get(email);
+                if (owner != null && !owner.equals(id)) {
+                    results.add(new Result(command, BatchStatus.DUPLICATE, "Another user with this email already exists"));
+                    continue;
+                }
+                emailOwners.remove(user.getEmail());
+                emailOwners.put(email, id);
+                user.setEmail(email);
+            }
+            if (!command.field(1).isEmpty()) {
+                user.setName(command.field(1));
+            }
+            if (!command.field(3).isEmpty()) {
+                user.setAge(Integer.parseInt(command.field(3)));
+            }
+            changed.add(user);
+            results.add(new Result(command, BatchStatus.OK, String.valueOf(id)));
+        }
+        userDao.updateAll(new ArrayList<>(changed));
+        return results;
+    }
+
+    private List<Result> delete(List<BatchCommand> chunk) {
+        Set<Long> existing = new HashSet<>(loadUsers(chunk).keySet());
+        List<Result> results = new ArrayList<>(chunk.size());
+        Set<Long> toDelete = new LinkedHashSet<>();
+        for (BatchCommand command : chunk) {
+            Long id = parseId(command.field(0));
+            if (id == null) {
+                results.add(new Result(command, BatchStatus.INVALID, "ID must be a valid number"));
+            } else if (existing.remove(id)) {
+                toDelete.add(id);
+                results.add(new Result(command, BatchStatus.OK, String.valueOf(id)));
+            } else {
+                results.add(new Result(command, BatchStatus.NOT_FOUND, "User not found with ID: " + id));
+            }
+        }
+        userDao.deleteByIds(toDelete);
+        return results;
+    }
+
+    private Map<Long, User> loadUsers(List<BatchCommand> chunk) {
+        Set<Long> ids = chunk.stream()
+                .map(command -> parseId(command.field(0)))
+                .filter(id -> id != null)
+                .collect(Collectors.toSet());
+        return userDao.findAllByIds(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+    }
+
+    private static String validateNew(String name, String email, String age) {
+        if (name.isEmpty()) {
+            return "Name cannot be empty";
+        }
+        if (!singleField(name).equals(name)) {
+            return "Name cannot contain tabs or line breaks";
+        }
+        if (email.isEmpty()) {
+            return "Email cannot be empty";
+        }
+        if (!UserService.EMAIL_PATTERN.matcher(email).matches()) {
+            return "Invalid email format";
+        }
+        return validateAge(age);
+    }
+
+    private static String validateChanges(BatchCommand command) {
+        if (!singleField(command.field(1)).equals(command.field(1))) {
+            return "Name cannot contain tabs or line breaks";
+        }
+        String email = command.field(2);
+        if (!email.isEmpty() && !UserService.EMAIL_PATTERN.matcher(email).matches()) {
+            return "Invalid email format";
+        }
+        return command.field(3).isEmpty() ? null : validateAge(command.field(3));
+    }
+
+    private static String validateAge(String age) {
+        try {
+            return Integer.parseInt(age) < 0 ? "Age cannot be negative" : null;
+        } catch (NumberFormatException e) {
+            return "Age must be a valid number";
+        }
+    }
+
+    private static Long parseId(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String rootMessage(Throwable error) {
+        Throwable root = error;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        return String.valueOf(root.getMessage());
+    }
+
+    /**
+     * Replaces tabs and line breaks, which would split a value across result fields or lines.
+     */
+    private static String singleField(String value) {
+        return value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    private static void write(Writer output, BatchSummary summary, long lineNumber, String command,
+                              BatchStatus status, String details) throws IOException {
+        output.write(Long.toString(lineNumber));
+        output.write('\t');
+        output.write(command);
+        output.write('\t');
+        output.write(status.name());
+        if (details != null) {
+            output.write('\t');
+            // OK details are tab-separated fields, each already passed through singleField
+            output.write(status == BatchStatus.OK ? details : singleField(details));
+        }
+        output.write('\n');
+        summary.record(status);
+    }
+
+    private record Result(BatchCommand command, BatchStatus status, String details) {
+    }
+}
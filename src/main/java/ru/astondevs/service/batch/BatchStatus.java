@@ -0,0 +1,12 @@
+package ru.astondevs.service.batch;
+
+/**
+ * Outcome of a single batch command, written as the third column of the result log.
+ */
+public enum BatchStatus {
+    OK,
+    NOT_FOUND,
+    DUPLICATE,
+    INVALID,
+    ERROR
+}
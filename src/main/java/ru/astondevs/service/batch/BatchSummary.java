@@ -0,0 +1,46 @@
+package ru.astondevs.service.batch;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Totals of a batch run by result status.
+ */
+@Getter
+public class BatchSummary {
+    private final Map<BatchStatus, Long> counts = new EnumMap<>(BatchStatus.class);
+    private long commands;
+    private long chunks;
+    private Duration elapsed = Duration.ZERO;
+
+    void record(BatchStatus status) {
+        counts.merge(status, 1L, Long::sum);
+        commands++;
+    }
+
+    void chunkProcessed() {
+        chunks++;
+    }
+
+    void finish(Duration elapsed) {
+        this.elapsed = elapsed;
+    }
+
+    public long count(BatchStatus status) {
+        return counts.getOrDefault(status, 0L);
+    }
+
+    public double getCommandsPerSecond() {
+        long millis = elapsed.toMillis();
+        return millis == 0 ? 0 : commands * 1000.0 / millis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("commands=%d chunks=%d %s elapsed=%d ms (%.0f commands/s)",
+                commands, chunks, counts, elapsed.toMillis(), getCommandsPerSecond());
+    }
+}
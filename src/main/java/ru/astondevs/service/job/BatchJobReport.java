@@ -0,0 +1,70 @@
+package ru.astondevs.service.job;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Outcome of a {@link PartitionedUserJob} run with per-partition throughput.
+ */
+@Getter
+public class BatchJobReport {
+    private final String jobName;
+    private final List<PartitionReport> partitions;
+    private final Duration elapsed;
+    private final int parallelism;
+
+    BatchJobReport(String jobName, List<PartitionReport> partitions, Duration elapsed, int parallelism) {
+        this.jobName = jobName;
+        this.partitions = List.copyOf(partitions);
+        this.elapsed = elapsed;
+        this.parallelism = parallelism;
+    }
+
+    public long getProcessedRows() {
+        return partitions.stream().mapToLong(PartitionReport::getProcessedRows).sum();
+    }
+
+    public long getUpdatedRows() {
+        return partitions.stream().mapToLong(PartitionReport::getUpdatedRows).sum();
+    }
+
+    public boolean isResumed() {
+        return partitions.stream().anyMatch(PartitionReport::isResumed);
+    }
+
+    public double getRowsPerSecond() {
+        long millis = elapsed.toMillis();
+        long rows = partitions.stream().mapToLong(PartitionReport::getRowsThisRun).sum();
+        return millis == 0 ? 0 : rows * 1000.0 / millis;
+    }
+
+    /**
+     * One line per partition followed by the totals.
+     */
+    public String format() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(Locale.ROOT, "Job %s: %d partitions, parallelism %d%n",
+                jobName, partitions.size(), parallelism));
+        text.append(String.format(Locale.ROOT, "%-24s %10s %10s %8s %10s %12s%n",
+                "range", "processed", "updated", "chunks", "ms", "rows/s"));
+        for (PartitionReport partition : partitions) {
+            text.append(String.format(Locale.ROOT, "%-24s %10d %10d %8d %10d %12.1f%s%n",
+                    partition.getRange(), partition.getProcessedRows(), partition.getUpdatedRows(),
+                    partition.getChunks(), partition.getElapsed().toMillis(), partition.getRowsPerSecond(),
+                    partition.isResumed() ? " (resumed)" : ""));
+        }
+        text.append(String.format(Locale.ROOT, "%-24s %10d %10d %8s %10d %12.1f%n",
+                "total", getProcessedRows(), getUpdatedRows(), "", elapsed.toMillis(), getRowsPerSecond()));
+        return text.toString();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "job=%s processed=%d updated=%d partitions=%d elapsed=%d ms "
+                        + "throughput=%.1f rows/s%s", jobName, getProcessedRows(), getUpdatedRows(),
+                partitions.size(), elapsed.toMillis(), getRowsPerSecond(), isResumed() ? " (resumed)" : "");
+    }
+}
@@ -0,0 +1,48 @@
+package ru.astondevs.service.job;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Half-open ID range {@code [from, to)} processed by one worker of a {@link PartitionedUserJob}.
+ */
+public record IdRange(long from, long to) {
+
+    public IdRange {
+        if (to < from) {
+            throw new IllegalArgumentException("Empty range: " + from + "-" + to);
+        }
+    }
+
+    /**
+     * Splits {@code [minId, maxId]} into at most {@code count} ranges of equal width.
+     */
+    public static List<IdRange> split(long minId, long maxId, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("count must be positive");
+        }
+        long span = maxId - minId + 1;
+        int ranges = (int) Math.min(count, span);
+        List<IdRange> result = new ArrayList<>(ranges);
+        long from = minId;
+        for (int i = 1; i <= ranges; i++) {
+            long to = i == ranges ? maxId + 1 : minId + span * i / ranges;
+            result.add(new IdRange(from, to));
+            from = to;
+        }
+        return result;
+    }
+
+    /**
+     * Parses {@link #toString()}.
+     */
+    public static IdRange parse(String value) {
+        int separator = value.indexOf('-', 1);
+        return new IdRange(Long.parseLong(value.substring(0, separator)), Long.parseLong(value.substring(separator + 1)));
+    }
+
+    @Override
+    public String toString() {
+        return from + "-" + to;
+    }
+}
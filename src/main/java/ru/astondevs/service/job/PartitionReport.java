@@ -0,0 +1,65 @@
+package ru.astondevs.service.job;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Properties;
+
+/**
+ * Progress of one ID range. Counts include work done by earlier runs when the job was resumed;
+ * elapsed time and throughput cover this run only.
+ */
+@Getter
+public class PartitionReport {
+    private final IdRange range;
+    private long lastProcessedId;
+    private long processedRows;
+    private long updatedRows;
+    private long chunks;
+    private boolean done;
+    private boolean resumed;
+    private long rowsThisRun;
+    private Duration elapsed = Duration.ZERO;
+
+    PartitionReport(IdRange range) {
+        this.range = range;
+        this.lastProcessedId = range.from() - 1;
+    }
+
+    void restore(long lastProcessedId, long processedRows, long updatedRows, boolean done) {
+        this.lastProcessedId = lastProcessedId;
+        this.processedRows = processedRows;
+        this.updatedRows = updatedRows;
+        this.done = done;
+        this.resumed = true;
+    }
+
+    synchronized void recordChunk(int processed, int updated, long lastId) {
+        processedRows += processed;
+        updatedRows += updated;
+        rowsThisRun += processed;
+        chunks++;
+        lastProcessedId = lastId;
+    }
+
+    /**
+     * Stores a consistent view of this partition's progress under {@code range.<index>.*}.
+     */
+    synchronized void writeCheckpoint(Properties properties, int index) {
+        String prefix = "range." + index + ".";
+        properties.setProperty(prefix + "lastId", Long.toString(lastProcessedId));
+        properties.setProperty(prefix + "processed", Long.toString(processedRows));
+        properties.setProperty(prefix + "updated", Long.toString(updatedRows));
+        properties.setProperty(prefix + "done", Boolean.toString(done));
+    }
+
+    synchronized void finish(Duration elapsed, boolean done) {
+        this.elapsed = elapsed;
+        this.done = done;
+    }
+
+    public double getRowsPerSecond() {
+        long micros = elapsed.toNanos() / 1_000;
+        return micros == 0 ? 0 : rowsThisRun * 1_000_000.0 / micros;
+    }
+}
@@ -0,0 +1,313 @@
+package ru.astondevs.service.job;
+
+import lombok.Builder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.LockMode;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import ru.astondevs.entity.User;
+import ru.astondevs.util.HibernateUtil;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Applies a {@link UserBatchTask} to every user. The ID space is split into {@code partitions}
+ * ranges that at most {@code parallelism} workers process at a time, so a slow range does not hold
+ * up the rest.
+ * <p>
+ * A worker reads its range in ID order through its own {@link StatelessSession} (no persistence
+ * context or dirty checking) and writes the users the task changed back with one JDBC batch per
+ * chunk. Every chunk is its own transaction and locks its rows ({@code FOR UPDATE}) until it
+ * commits, so concurrent updates of those users wait instead of being overwritten. After the commit
+ * the range's last processed ID is written to the checkpoint file. If a chunk fails, the remaining
+ * workers stop after their current chunk and the job throws; running it again with the same name
+ * continues every range where it stopped and skips finished ones. A chunk committed just before a
+ * crash, before its checkpoint was written, is processed again, so tasks must be idempotent.
+ * Ranges are fixed by the first run, so users inserted above the highest ID at that time are not
+ * processed by a resumed run.
+ */
+public class PartitionedUserJob {
+    private static final Logger logger = LogManager.getLogger(PartitionedUserJob.class);
+
+    private static final String SELECT_ID_BOUNDS = "SELECT min(u.id), max(u.id) FROM User u";
+    private static final String SELECT_CHUNK = "FROM User u WHERE u.id > :afterId AND u.id < :to ORDER BY u.id";
+    private static final String UPDATE = "UPDATE users SET name = ?, email = ?, age = ?, created_at = ? WHERE id = ?";
+
+    private final String name;
+    private final UserBatchTask task;
+    private final SessionFactory sessionFactory;
+    private final int partitions;
+    private final int parallelism;
+    private final int chunkSize;
+    private final Duration pause;
+    private final Path checkpointFile;
+    private volatile List<PartitionReport> checkpointed = List.of();
+
+    private record Chunk(int read, int updated, long lastId) {
+    }
+
+    @Builder
+    public PartitionedUserJob(String name, UserBatchTask task, SessionFactory sessionFactory, Integer partitions,
+                              Integer parallelism, Integer chunkSize, Duration pause, Path checkpointFile) {
+        this.name = name != null ? name : "users";
+        this.task = task;
+        this.sessionFactory = sessionFactory;
+        this.parallelism = parallelism != null ? parallelism : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        // Several ranges per worker even out ranges that turn out denser or slower than others
+        this.partitions = partitions != null ? partitions : this.parallelism * 4;
+        this.chunkSize = chunkSize != null ? chunkSize : 500;
+        this.pause = pause != null ? pause : Duration.ZERO;
+        this.checkpointFile = checkpointFile;
+        if (task == null) {
+            throw new IllegalArgumentException("task is required");
+        }
+        if (this.partitions <= 0 || this.parallelism <= 0 || this.chunkSize <= 0) {
+            throw new IllegalArgumentException("partitions, parallelism and chunkSize must be positive");
+        }
+    }
+
+    public BatchJobReport run() {
+        SessionFactory factory = sessionFactory != null ? sessionFactory : HibernateUtil.getSessionFactory();
+        List<PartitionReport> reports = loadCheckpoint();
+        if (reports == null) {
+            reports = plan(factory);
+        }
+        checkpointed = reports;
+        logger.info("Starting job {} over {} partitions with {} workers", name, reports.size(), parallelism);
+        long started = System.nanoTime();
+
+        AtomicBoolean stopped = new AtomicBoolean();
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism,
+                runnable -> new Thread(runnable, "job-" + name + "-" + threadNumber.incrementAndGet()));
+        List<Future<?>> futures = new ArrayList<>();
+        for (PartitionReport partition : reports) {
+            futures.add(workers.submit(() -> runPartition(factory, partition, stopped)));
+        }
+        workers.shutdown();
+
+        Throwable failure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                stopped.set(true);
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stopped.set(true);
+                workers.shutdownNow();
+                throw new IllegalStateException("Job " + name + " interrupted", e);
+            }
+        }
+
+        BatchJobReport report = new BatchJobReport(name, reports, Duration.ofNanos(System.nanoTime() - started),
+                parallelism);
+        if (failure != null) {
+            logger.error("Job {} failed, progress saved to {}: {}", name, checkpointFile, report, failure);
+            throw new RuntimeException("Failed to run job " + name, failure);
+        }
+        logger.info("Job {} finished: {}", name, report);
+        deleteCheckpoint();
+        return report;
+    }
+
+    private List<PartitionReport> plan(SessionFactory factory) {
+        try (StatelessSession session = factory.openStatelessSession()) {
+            Object[] bounds = session.createQuery(SELECT_ID_BOUNDS, Object[].class).getSingleResult();
+            if (bounds[0] == null) {
+                return List.of();
+            }
+            return IdRange.split((Long) bounds[0], (Long) bounds[1], partitions).stream()
+                    .map(PartitionReport::new)
+                    .toList();
+        }
+    }
+
+    private void runPartition(SessionFactory factory, PartitionReport partition, AtomicBoolean stopped) {
+        if (partition.isDone()) {
+            return;
+        }
+        long started = System.nanoTime();
+        boolean done = false;
+        try (StatelessSession session = factory.openStatelessSession()) {
+            while (!done && !stopped.get()) {
+                Chunk chunk = processChunk(session, partition);
+                done = chunk.read() < chunkSize;
+                if (chunk.read() > 0) {
+                    partition.recordChunk(chunk.read(), chunk.updated(), chunk.lastId());
+                }
+                if (done) {
+                    partition.finish(Duration.ofNanos(System.nanoTime() - started), true);
+                }
+                saveCheckpoint();
+                if (!done) {
+                    sleep();
+                }
+            }
+        } catch (RuntimeException e) {
+            stopped.set(true);
+            throw e;
+        } finally {
+            if (!done) {
+                partition.finish(Duration.ofNanos(System.nanoTime() - started), false);
+            }
+        }
+        logger.info("Job {} partition {} done: {} rows, {} updated", name, partition.getRange(),
+                partition.getProcessedRows(), partition.getUpdatedRows());
+    }
+
+    private Chunk processChunk(StatelessSession session, PartitionReport partition) {
+        Transaction transaction = session.beginTransaction();
+        try {
+            List<User> users = session.createQuery(SELECT_CHUNK, User.class)
+                    .setParameter("afterId", partition.getLastProcessedId())
+                    .setParameter("to", partition.getRange().to())
+                    .setMaxResults(chunkSize)
+                    .setHibernateLockMode(LockMode.PESSIMISTIC_WRITE)
+                    .list();
+            List<User> changed = new ArrayList<>();
+            for (User user : users) {
+                if (task.process(user)) {
+                    changed.add(user);
+                }
+            }
+            if (!changed.isEmpty()) {
+                session.doWork(connection -> batchUpdate(connection, changed));
+            }
+            transaction.commit();
+            long lastId = users.isEmpty() ? partition.getLastProcessedId() : users.get(users.size() - 1).getId();
+            return new Chunk(users.size(), changed.size(), lastId);
+        } catch (RuntimeException e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        }
+    }
+
+    private static void batchUpdate(Connection connection, List<User> users) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(UPDATE)) {
+            for (User user : users) {
+                statement.setString(1, user.getName());
+                statement.setString(2, user.getEmail());
+                if (user.getAge() != null) {
+                    statement.setInt(3, user.getAge());
+                } else {
+                    statement.setNull(3, Types.INTEGER);
+                }
+                statement.setTimestamp(4, Timestamp.valueOf(user.getCreatedAt()));
+                statement.setLong(5, user.getId());
+                statement.addBatch();
+            }
+            int[] counts = statement.executeBatch();
+            if (Arrays.stream(counts).anyMatch(count -> count == 0)) {
+                logger.debug("Some users of the batch were deleted concurrently");
+            }
+        }
+    }
+
+    private void sleep() {
+        if (pause.isZero() || pause.isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(pause.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Job " + name + " interrupted", e);
+        }
+    }
+
+    private List<PartitionReport> loadCheckpoint() {
+        if (checkpointFile == null || !Files.exists(checkpointFile)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(checkpointFile)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read job checkpoint " + checkpointFile, e);
+        }
+        if (!name.equals(properties.getProperty("job"))) {
+            throw new IllegalStateException("Checkpoint " + checkpointFile + " belongs to a different job: "
+                    + properties.getProperty("job"));
+        }
+        List<PartitionReport> reports = new ArrayList<>();
+        String ranges = properties.getProperty("ranges", "");
+        for (String range : ranges.isEmpty() ? new String[0] : ranges.split(",")) {
+            PartitionReport partition = new PartitionReport(IdRange.parse(range));
+            String prefix = "range." + reports.size() + ".";
+            partition.restore(Long.parseLong(properties.getProperty(prefix + "lastId")),
+                    Long.parseLong(properties.getProperty(prefix + "processed", "0")),
+                    Long.parseLong(properties.getProperty(prefix + "updated", "0")),
+                    Boolean.parseBoolean(properties.getProperty(prefix + "done")));
+            reports.add(partition);
+        }
+        logger.info("Resuming job {} from {}: {} of {} partitions done", name, checkpointFile,
+                reports.stream().filter(PartitionReport::isDone).count(), reports.size());
+        return reports;
+    }
+
+    private synchronized void saveCheckpoint() {
+        if (checkpointFile == null) {
+            return;
+        }
+        List<PartitionReport> reports = checkpointed;
+        Properties properties = new Properties();
+        properties.setProperty("job", name);
+        properties.setProperty("ranges", reports.stream()
+                .map(partition -> partition.getRange().toString())
+                .collect(Collectors.joining(",")));
+        for (int i = 0; i < reports.size(); i++) {
+            reports.get(i).writeCheckpoint(properties, i);
+        }
+        try {
+            Path temp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temp)) {
+                properties.store(writer, "Partitioned user job checkpoint");
+            }
+            Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write job checkpoint " + checkpointFile, e);
+        }
+    }
+
+    private void deleteCheckpoint() {
+        if (checkpointFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(checkpointFile);
+        } catch (IOException e) {
+            logger.warn("Failed to remove job checkpoint {}", checkpointFile, e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package ru.astondevs.service.job;
+
+import ru.astondevs.entity.User;
+
+/**
+ * Work applied to every user by a {@link PartitionedUserJob}. Implementations are called from
+ * several workers at once and must be thread-safe. They must also be idempotent: a resumed job can
+ * process the last chunk committed before a crash once more.
+ */
+@FunctionalInterface
+public interface UserBatchTask {
+
+    /**
+     * Inspects or modifies {@code user}; returns {@code true} if it changed and must be written back.
+     * An exception fails the chunk, which is rolled back, and stops the job.
+     */
+    boolean process(User user);
+
+    /**
+     * Strips leading and trailing whitespace from names; the interactive service stores names as
+     * typed.
+     */
+    static UserBatchTask trimNames() {
+        return user -> {
+            String trimmed = user.getName().trim();
+            if (trimmed.equals(user.getName())) {
+                return false;
+            }
+            user.setName(trimmed);
+            return true;
+        };
+    }
+}
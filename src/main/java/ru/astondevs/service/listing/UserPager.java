@@ -0,0 +1,108 @@
+package ru.astondevs.service.listing;
+
+import lombok.Getter;
+import ru.astondevs.dao.UserDao;
+import ru.astondevs.entity.User;
+
+import java.util.List;
+
+/**
+ * Walks the users table one page at a time in ID order using keyset queries, so every step costs
+ * one indexed query of {@code pageSize + 1} rows however deep the page is. The extra row only tells
+ * whether another page exists in the direction of travel. Only the current page is held.
+ */
+public class UserPager {
+    private final UserDao userDao;
+    @Getter
+    private final int pageSize;
+
+    @Getter
+    private List<User> page = List.of();
+    private boolean hasNext;
+    private boolean hasPrevious;
+
+    public UserPager(UserDao userDao, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive");
+        }
+        this.userDao = userDao;
+        this.pageSize = pageSize;
+    }
+
+    public List<User> first() {
+        forward(null);
+        hasPrevious = false;
+        return page;
+    }
+
+    /**
+     * Moves to the next page; stays on the current one and returns {@code false} at the end.
+     */
+    public boolean next() {
+        if (!hasNext || page.isEmpty()) {
+            return false;
+        }
+        forward(lastId());
+        hasPrevious = true;
+        return true;
+    }
+
+    /**
+     * Moves to the previous page; stays on the current one and returns {@code false} at the start.
+     */
+    public boolean previous() {
+        if (!hasPrevious || page.isEmpty()) {
+            return false;
+        }
+        List<User> rows = userDao.findPageBefore(page.get(0).getId(), pageSize + 1);
+        if (rows.isEmpty()) {
+            hasPrevious = false;
+            return false;
+        }
+        hasPrevious = rows.size() > pageSize;
+        page = hasPrevious ? List.copyOf(rows.subList(1, rows.size())) : List.copyOf(rows);
+        hasNext = true;
+        return true;
+    }
+
+    /**
+     * Shows the page starting at the first user with ID {@code id} or greater. If there is none,
+     * shows the {@link #last() last page} instead and returns {@code false}.
+     */
+    public boolean jumpTo(long id) {
+        forward(id == Long.MIN_VALUE ? null : id - 1);
+        if (page.isEmpty()) {
+            last();
+            return false;
+        }
+        // Unknown without another query; previous() finds out
+        hasPrevious = true;
+        return true;
+    }
+
+    public List<User> last() {
+        List<User> rows = userDao.findPageBefore(null, pageSize + 1);
+        hasPrevious = rows.size() > pageSize;
+        page = hasPrevious ? List.copyOf(rows.subList(1, rows.size())) : List.copyOf(rows);
+        hasNext = false;
+        return page;
+    }
+
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    public boolean hasPrevious() {
+        return hasPrevious;
+    }
+
+    private void forward(Long afterId) {
+        List<User> rows = userDao.findPage(afterId, pageSize + 1);
+        hasNext = rows.size() > pageSize;
+        page = hasNext ? List.copyOf(rows.subList(0, pageSize)) : List.copyOf(rows);
+    }
+
+    private Long lastId() {
+        return page.get(page.size() - 1).getId();
+    }
+}
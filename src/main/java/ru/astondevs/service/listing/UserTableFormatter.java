@@ -0,0 +1,103 @@
+package ru.astondevs.service.listing;
+
+import ru.astondevs.entity.User;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+
+/**
+ * Renders users as fixed-width table rows. Rows are assembled in one reused buffer and handed to
+ * the writer whole, without {@code String.format} or {@code toString}; values wider than their
+ * column are cut with {@code ~}.
+ */
+public class UserTableFormatter {
+    private static final int ID_WIDTH = 10;
+    private static final int NAME_WIDTH = 25;
+    private static final int EMAIL_WIDTH = 50;
+    private static final int AGE_WIDTH = 4;
+    private static final int CREATED_WIDTH = 19;
+    private static final String SEPARATOR = "-".repeat(ID_WIDTH + NAME_WIDTH + EMAIL_WIDTH + AGE_WIDTH + CREATED_WIDTH + 8);
+
+    private final StringBuilder line = new StringBuilder(SEPARATOR.length() + 1);
+
+    public void writeHeader(Writer out) throws IOException {
+        line.setLength(0);
+        padLeft("ID", ID_WIDTH);
+        line.append("  ");
+        padRight("Name", NAME_WIDTH);
+        line.append("  ");
+        padRight("Email", EMAIL_WIDTH);
+        line.append("  ");
+        padLeft("Age", AGE_WIDTH);
+        line.append("  ");
+        padRight("Created", CREATED_WIDTH);
+        line.append('\n').append(SEPARATOR).append('\n');
+        out.append(line);
+    }
+
+    public void writeRow(Writer out, User user) throws IOException {
+        line.setLength(0);
+        padLeft(user.getId() != null ? Long.toString(user.getId()) : "", ID_WIDTH);
+        line.append("  ");
+        padRight(user.getName(), NAME_WIDTH);
+        line.append("  ");
+        padRight(user.getEmail(), EMAIL_WIDTH);
+        line.append("  ");
+        padLeft(user.getAge() != null ? Integer.toString(user.getAge()) : "", AGE_WIDTH);
+        line.append("  ");
+        appendDateTime(user.getCreatedAt());
+        line.append('\n');
+        out.append(line);
+    }
+
+    public void writeRows(Writer out, Iterable<User> users) throws IOException {
+        for (User user : users) {
+            writeRow(out, user);
+        }
+    }
+
+    private void padLeft(String value, int width) {
+        String text = fit(value, width);
+        spaces(width - text.length());
+        line.append(text);
+    }
+
+    private void padRight(String value, int width) {
+        String text = fit(value, width);
+        line.append(text);
+        spaces(width - text.length());
+    }
+
+    private void spaces(int count) {
+        for (int i = 0; i < count; i++) {
+            line.append(' ');
+        }
+    }
+
+    private static String fit(String value, int width) {
+        if (value == null) {
+            return "";
+        }
+        return value.length() <= width ? value : value.substring(0, width - 1) + '~';
+    }
+
+    /**
+     * Appends {@code yyyy-MM-dd HH:mm:ss} (empty when {@code null}) without a formatter.
+     */
+    private void appendDateTime(LocalDateTime value) {
+        if (value == null) {
+            return;
+        }
+        line.append(value.getYear()).append('-');
+        twoDigits(value.getMonthValue()).append('-');
+        twoDigits(value.getDayOfMonth()).append(' ');
+        twoDigits(value.getHour()).append(':');
+        twoDigits(value.getMinute()).append(':');
+        twoDigits(value.getSecond());
+    }
+
+    private StringBuilder twoDigits(int value) {
+        return line.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+}
@@ -0,0 +1,52 @@
+package ru.astondevs.service.purge;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Selects the users to purge: either a {@code createdAt} range {@code [from, to)} or an explicit ID list.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class PurgeCriteria {
+    private final LocalDateTime createdFrom;
+    private final LocalDateTime createdTo;
+    private final List<Long> ids;
+
+    public static PurgeCriteria createdBetween(LocalDateTime from, LocalDateTime to) {
+        return new PurgeCriteria(Objects.requireNonNull(from), Objects.requireNonNull(to), null);
+    }
+
+    public static PurgeCriteria createdBefore(LocalDateTime cutoff) {
+        return createdBetween(LocalDateTime.of(1970, 1, 1, 0, 0), cutoff);
+    }
+
+    public static PurgeCriteria ids(Collection<Long> ids) {
+        return new PurgeCriteria(null, null, ids.stream().filter(Objects::nonNull).distinct().sorted().toList());
+    }
+
+    public boolean isIdList() {
+        return ids != null;
+    }
+
+    /**
+     * Identifies the criteria in a checkpoint so a checkpoint is never resumed for a different purge.
+     */
+    public String fingerprint() {
+        if (isIdList()) {
+            return "ids:" + ids.size() + ":" + ids.hashCode();
+        }
+        return "created:" + createdFrom + ".." + createdTo;
+    }
+
+    @Override
+    public String toString() {
+        return isIdList() ? ids.size() + " listed IDs" : "created in [" + createdFrom + ", " + createdTo + ")";
+    }
+}
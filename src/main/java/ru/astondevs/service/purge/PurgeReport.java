@@ -0,0 +1,57 @@
+package ru.astondevs.service.purge;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Progress and timing of a purge run. Chunk duration is the time each chunk's transaction held
+ * its row locks, so {@link #getMaxChunkDuration()} bounds lock duration.
+ */
+@Getter
+public class PurgeReport {
+    private long deletedRows;
+    private long chunks;
+    private long lastProcessedId;
+    private Duration totalChunkTime = Duration.ZERO;
+    private Duration maxChunkDuration = Duration.ZERO;
+    private Duration elapsed = Duration.ZERO;
+    private boolean resumed;
+
+    PurgeReport(long deletedRows, long lastProcessedId, boolean resumed) {
+        this.deletedRows = deletedRows;
+        this.lastProcessedId = lastProcessedId;
+        this.resumed = resumed;
+    }
+
+    void recordChunk(int deleted, long lastId, Duration duration) {
+        deletedRows += deleted;
+        chunks++;
+        lastProcessedId = lastId;
+        totalChunkTime = totalChunkTime.plus(duration);
+        if (duration.compareTo(maxChunkDuration) > 0) {
+            maxChunkDuration = duration;
+        }
+    }
+
+    void finish(Duration elapsed) {
+        this.elapsed = elapsed;
+    }
+
+    public Duration getAverageChunkDuration() {
+        return chunks == 0 ? Duration.ZERO : totalChunkTime.dividedBy(chunks);
+    }
+
+    public double getRowsPerSecond() {
+        long millis = elapsed.toMillis();
+        return millis == 0 ? 0 : deletedRows * 1000.0 / millis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("deleted=%d chunks=%d lastId=%d elapsed=%d ms throughput=%.1f rows/s "
+                        + "avgChunk=%d ms maxChunk=%d ms%s",
+                deletedRows, chunks, lastProcessedId, elapsed.toMillis(), getRowsPerSecond(),
+                getAverageChunkDuration().toMillis(), maxChunkDuration.toMillis(), resumed ? " (resumed)" : "");
+    }
+}
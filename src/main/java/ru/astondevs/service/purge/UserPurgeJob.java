@@ -0,0 +1,170 @@
+package ru.astondevs.service.purge;
+
+import lombok.Builder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import ru.astondevs.dao.UserDao;
+import ru.astondevs.util.TransactionRunner;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Consumer;
+
+/**
+ * Deletes users matching {@link PurgeCriteria} in ID-ordered chunks. Every chunk runs in its own
+ * short transaction followed by a pause, which keeps row locks and WAL bursts small. After each
+ * chunk the last processed ID is written to the checkpoint file, so a crashed run continues where
+ * it stopped when started again with the same criteria.
+ */
+public class UserPurgeJob {
+    private static final Logger logger = LogManager.getLogger(UserPurgeJob.class);
+
+    private final UserDao userDao;
+    private final TransactionRunner transactionRunner;
+    private final int chunkSize;
+    private final Duration pause;
+    private final Path checkpointFile;
+    private final Consumer<PurgeReport> progressListener;
+
+    @Builder
+    public UserPurgeJob(UserDao userDao, TransactionRunner transactionRunner, Integer chunkSize,
+                        Duration pause, Path checkpointFile, Consumer<PurgeReport> progressListener) {
+        this.userDao = userDao;
+        this.transactionRunner = transactionRunner != null ? transactionRunner : TransactionRunner.hibernate();
+        this.chunkSize = chunkSize != null ? chunkSize : 1000;
+        this.pause = pause != null ? pause : Duration.ofMillis(50);
+        this.checkpointFile = checkpointFile;
+        this.progressListener = progressListener != null ? progressListener : report -> { };
+        if (this.chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+    }
+
+    public PurgeReport run(PurgeCriteria criteria) {
+        PurgeReport report = loadCheckpoint(criteria);
+        logger.info("Starting purge of users {} from ID {}", criteria, report.getLastProcessedId());
+        long started = System.nanoTime();
+
+        while (true) {
+            long afterId = report.getLastProcessedId();
+            long chunkStart = System.nanoTime();
+            long[] result = transactionRunner.inTransaction(() -> {
+                List<Long> ids = nextChunk(criteria, afterId);
+                if (ids.isEmpty()) {
+                    return null;
+                }
+                return new long[] {userDao.deleteByIds(ids), ids.get(ids.size() - 1), ids.size()};
+            });
+            if (result == null) {
+                break;
+            }
+            report.recordChunk((int) result[0], result[1], Duration.ofNanos(System.nanoTime() - chunkStart));
+            saveCheckpoint(criteria, report);
+            progressListener.accept(report);
+            logger.debug("Purge progress: {}", report);
+
+            if (result[2] < chunkSize) {
+                break;
+            }
+            sleep();
+        }
+
+        report.finish(Duration.ofNanos(System.nanoTime() - started));
+        logger.info("Purge finished: {}", report);
+        deleteCheckpoint();
+        return report;
+    }
+
+    private List<Long> nextChunk(PurgeCriteria criteria, long afterId) {
+        if (!criteria.isIdList()) {
+            return userDao.findIdsCreatedBetween(criteria.getCreatedFrom(), criteria.getCreatedTo(), afterId, chunkSize);
+        }
+        List<Long> ids = criteria.getIds();
+        int from = firstIndexAfter(ids, afterId);
+        return ids.subList(from, Math.min(ids.size(), from + chunkSize));
+    }
+
+    private static int firstIndexAfter(List<Long> sortedIds, long afterId) {
+        int low = 0;
+        int high = sortedIds.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedIds.get(mid) <= afterId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void sleep() {
+        if (pause.isZero() || pause.isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(pause.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Purge interrupted", e);
+        }
+    }
+
+    private PurgeReport loadCheckpoint(PurgeCriteria criteria) {
+        if (checkpointFile == null || !Files.exists(checkpointFile)) {
+            return new PurgeReport(0, Long.MIN_VALUE, false);
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(checkpointFile)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read purge checkpoint " + checkpointFile, e);
+        }
+        if (!criteria.fingerprint().equals(properties.getProperty("criteria"))) {
+            throw new IllegalStateException("Checkpoint " + checkpointFile + " belongs to a different purge: "
+                    + properties.getProperty("criteria"));
+        }
+        long lastId = Long.parseLong(properties.getProperty("lastId"));
+        long deleted = Long.parseLong(properties.getProperty("deleted", "0"));
+        logger.info("Resuming purge after ID {} ({} users already deleted)", lastId, deleted);
+        return new PurgeReport(deleted, lastId, true);
+    }
+
+    private void saveCheckpoint(PurgeCriteria criteria, PurgeReport report) {
+        if (checkpointFile == null) {
+            return;
+        }
+        Properties properties = new Properties();
+        properties.setProperty("criteria", criteria.fingerprint());
+        properties.setProperty("lastId", Long.toString(report.getLastProcessedId()));
+        properties.setProperty("deleted", Long.toString(report.getDeletedRows()));
+        try {
+            Path temp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temp)) {
+                properties.store(writer, "User purge checkpoint");
+            }
+            Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write purge checkpoint " + checkpointFile, e);
+        }
+    }
+
+    private void deleteCheckpoint() {
+        if (checkpointFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(checkpointFile);
+        } catch (IOException e) {
+            logger.warn("Failed to remove purge checkpoint {}", checkpointFile, e);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package ru.astondevs.service.warmup;
+
+import lombok.Builder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import ru.astondevs.dao.UserDao;
+import ru.astondevs.entity.User;
+import ru.astondevs.exception.DaoOverloadedException;
+import ru.astondevs.loadtest.LatencyHistogram;
+import ru.astondevs.util.HibernateUtil;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Brings a freshly started process to steady-state latency before it reports ready:
+ * <ol>
+ *     <li>opens every connection of the pool (connect, authentication, session setup);</li>
+ *     <li>lets the DAO compile its queries ({@link UserDao#warmUp()});</li>
+ *     <li>runs a read-only synthetic workload over existing users from several threads, so each
+ *     pooled connection reaches pgjdbc's server-prepare threshold and the JIT compiles the hot
+ *     paths.</li>
+ * </ol>
+ * The workload stops after {@code duration} or {@code iterations} operations, whichever comes first.
+ */
+public class StartupWarmup {
+    private static final Logger logger = LogManager.getLogger(StartupWarmup.class);
+    private static final int SAMPLE_SIZE = 1_000;
+    private static final int WINDOW = 500;
+
+    private final UserDao userDao;
+    private final int poolSize;
+    private final int threads;
+    private final Duration duration;
+    private final long iterations;
+
+    @Builder
+    public StartupWarmup(UserDao userDao, Integer poolSize, Integer threads, Duration duration, Long iterations) {
+        this.userDao = userDao;
+        this.poolSize = poolSize != null ? poolSize : HibernateUtil.getIntProperty("hibernate.connection.pool_size", 10);
+        this.threads = threads != null ? threads : this.poolSize;
+        this.duration = duration != null ? duration : Duration.ofSeconds(10);
+        this.iterations = iterations != null ? iterations : Long.MAX_VALUE;
+        if (this.threads <= 0) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+    }
+
+    /**
+     * Builds a warm-up from the {@code user.warmup.*} settings of {@code hibernate.cfg.xml}. Pass
+     * the DAO the service itself uses, so its caches and bulkheads are warmed up too.
+     */
+    public static StartupWarmup fromConfiguration(UserDao userDao) {
+        int iterations = HibernateUtil.getIntProperty("user.warmup.iterations", 0);
+        return StartupWarmup.builder()
+                .userDao(userDao)
+                .duration(Duration.ofMillis(HibernateUtil.getIntProperty("user.warmup.duration_ms", 10_000)))
+                .iterations(iterations > 0 ? (long) iterations : null)
+                .build();
+    }
+
+    public WarmupReport run() {
+        logger.info("Starting warm-up: pool {}, {} threads, up to {} ms / {} operations", poolSize, threads,
+                duration.toMillis(), iterations == Long.MAX_VALUE ? "unlimited" : iterations);
+
+        long started = System.nanoTime();
+        int opened = openPool();
+        Duration poolOpenTime = Duration.ofNanos(System.nanoTime() - started);
+
+        started = System.nanoTime();
+        userDao.warmUp();
+        Duration compileTime = Duration.ofNanos(System.nanoTime() - started);
+
+        List<User> sample = userDao.findPage(null, SAMPLE_SIZE);
+        AtomicLong remaining = new AtomicLong(iterations);
+        long deadline = System.nanoTime() + duration.toNanos();
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram last = new LatencyHistogram();
+
+        started = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long operations = 0;
+        try {
+            List<Future<long[][]>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> work(sample, remaining, deadline)));
+            }
+            for (Future<long[][]> result : results) {
+                long[][] latencies = result.get();
+                operations += latencies[2][0];
+                for (long nanos : latencies[0]) {
+                    first.record(nanos);
+                }
+                for (long nanos : latencies[1]) {
+                    last.record(nanos);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error running warm-up workload", e);
+            throw new RuntimeException("Failed to run warm-up workload", e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        WarmupReport report = new WarmupReport(opened, poolOpenTime, compileTime, operations,
+                Duration.ofNanos(System.nanoTime() - started),
+                first.getValueAtPercentile(50) / 1_000, first.getValueAtPercentile(99) / 1_000,
+                last.getValueAtPercentile(50) / 1_000, last.getValueAtPercentile(99) / 1_000);
+        logger.info("Warm-up finished: {}", report);
+        return report;
+    }
+
+    /**
+     * Borrows {@code poolSize} connections at once, forcing the pool to open all of them.
+     */
+    private int openPool() {
+        ConnectionProvider provider = HibernateUtil.getSessionFactory().unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(ConnectionProvider.class);
+        List<Connection> connections = new ArrayList<>();
+        try {
+            for (int i = 0; i < poolSize; i++) {
+                Connection connection = provider.getConnection();
+                connections.add(connection);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SELECT 1");
+                }
+            }
+            return connections.size();
+        } catch (SQLException e) {
+            logger.error("Error opening connection pool", e);
+            throw new RuntimeException("Failed to open connection pool", e);
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    provider.closeConnection(connection);
+                } catch (SQLException e) {
+                    logger.warn("Failed to return warm-up connection", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the latencies of this thread's first and last {@value #WINDOW} operations (its first
+     * and second half when it ran fewer than twice that) and its operation count.
+     */
+    private long[][] work(List<User> sample, AtomicLong remaining, long deadline) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long[] first = new long[2 * WINDOW];
+        long[] last = new long[WINDOW];
+        int count = 0;
+        while (System.nanoTime() < deadline && remaining.getAndDecrement() > 0) {
+            long start = System.nanoTime();
+            try {
+                runOperation(sample, random);
+            } catch (DaoOverloadedException e) {
+                // Shed by the service's bulkhead: a slow start must not fail the warm-up
+                continue;
+            }
+            long nanos = System.nanoTime() - start;
+            if (count < first.length) {
+                first[count] = nanos;
+            }
+            last[count % WINDOW] = nanos;
+            count++;
+        }
+        if (count <= first.length) {
+            return new long[][] {Arrays.copyOfRange(first, 0, count / 2), Arrays.copyOfRange(first, count / 2, count),
+                    {count}};
+        }
+        return new long[][] {Arrays.copyOf(first, WINDOW), last, {count}};
+    }
+
+    private void runOperation(List<User> sample, ThreadLocalRandom random) {
+        User user = sample.isEmpty() ? null : sample.get(random.nextInt(sample.size()));
+        int choice = random.nextInt(10);
+        if (user == null || choice == 0) {
+            // Misses run the same statements and keep the workload read-only on an empty table
+            userDao.findById(-1L - random.nextInt(1_000));
+        } else if (choice < 6) {
+            userDao.findById(user.getId());
+        } else if (choice < 9) {
+            userDao.findByEmail(user.getEmail());
+        } else {
+            userDao.findPage(user.getId(), 10);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package ru.astondevs.service.warmup;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Outcome of a {@link StartupWarmup} run. The first and last window percentiles show how far the
+ * synthetic workload brought latency down.
+ */
+@Getter
+@AllArgsConstructor
+public class WarmupReport {
+    private final int connectionsOpened;
+    private final Duration poolOpenTime;
+    private final Duration compileTime;
+    private final long operations;
+    private final Duration workloadTime;
+    private final long firstWindowP50Micros;
+    private final long firstWindowP99Micros;
+    private final long lastWindowP50Micros;
+    private final long lastWindowP99Micros;
+
+    public Duration getTotalTime() {
+        return poolOpenTime.plus(compileTime).plus(workloadTime);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("connections=%d (%d ms), compile=%d ms, operations=%d in %d ms,"
+                        + " p50 %d -> %d us, p99 %d -> %d us",
+                connectionsOpened, poolOpenTime.toMillis(), compileTime.toMillis(), operations,
+                workloadTime.toMillis(), firstWindowP50Micros, lastWindowP50Micros,
+                firstWindowP99Micros, lastWindowP99Micros);
+    }
+}
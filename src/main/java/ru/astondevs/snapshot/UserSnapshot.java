@@ -0,0 +1,344 @@
+package ru.astondevs.snapshot;
+
+import ru.astondevs.entity.User;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IntSummaryStatistics;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Read-only, column-oriented copy of the {@code users} table, ordered by id. Rows are addressed by
+ * index ({@code 0..size()-1}) and stored without per-row objects:
+ * <ul>
+ *     <li>ids and creation times (epoch seconds, {@code created_at} read as UTC) in {@code long[]};</li>
+ *     <li>ages in {@code int[]}, {@link #NO_AGE} for {@code NULL};</li>
+ *     <li>names dictionary-encoded as {@code int[]} codes into a {@code String[]};</li>
+ *     <li>emails UTF-8 packed into one {@link ByteBuffer} (heap or direct) with an offsets array.</li>
+ * </ul>
+ * Predicates and consumers receive row indexes and read the columns they need through the accessors.
+ * The {@code parallel*} methods split the row range with fork/join on the common pool.
+ */
+public final class UserSnapshot {
+    public static final int NO_AGE = Integer.MIN_VALUE;
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    private final long[] ids;
+    private final int[] ages;
+    private final long[] createdAt;
+    private final int[] nameCodes;
+    private final String[] nameDictionary;
+    private final int[] emailOffsets;
+    private final ByteBuffer emailBytes;
+    private final int size;
+    private final long transactionHorizon;
+
+    private UserSnapshot(Builder builder, long transactionHorizon) {
+        this.size = builder.size;
+        this.ids = Arrays.copyOf(builder.ids, size);
+        this.ages = Arrays.copyOf(builder.ages, size);
+        this.createdAt = Arrays.copyOf(builder.createdAt, size);
+        this.nameCodes = Arrays.copyOf(builder.nameCodes, size);
+        this.nameDictionary = new String[builder.dictionary.size()];
+        builder.dictionary.forEach((name, code) -> nameDictionary[code] = name);
+        this.emailOffsets = Arrays.copyOf(builder.emailOffsets, size + 1);
+        ByteBuffer bytes = builder.offHeap ? ByteBuffer.allocateDirect(builder.emailLength)
+                : ByteBuffer.allocate(builder.emailLength);
+        bytes.put(builder.emailData, 0, builder.emailLength).flip();
+        this.emailBytes = bytes.asReadOnlyBuffer();
+        this.transactionHorizon = transactionHorizon;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long id(int row) {
+        return ids[row];
+    }
+
+    /**
+     * Age of the row, or {@link #NO_AGE} when it is not set.
+     */
+    public int age(int row) {
+        return ages[row];
+    }
+
+    public long createdAtEpochSecond(int row) {
+        return createdAt[row];
+    }
+
+    public LocalDateTime createdAt(int row) {
+        return LocalDateTime.ofEpochSecond(createdAt[row], 0, ZoneOffset.UTC);
+    }
+
+    public String name(int row) {
+        return nameDictionary[nameCodes[row]];
+    }
+
+    public String email(int row) {
+        int from = emailOffsets[row];
+        byte[] bytes = new byte[emailOffsets[row + 1] - from];
+        emailBytes.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the row holding {@code id}, or a negative value if it is not in the snapshot.
+     */
+    public int indexOf(long id) {
+        return Arrays.binarySearch(ids, 0, size, id);
+    }
+
+    public User toUser(int row) {
+        User user = new User(name(row), email(row), ages[row] == NO_AGE ? null : ages[row]);
+        user.setId(ids[row]);
+        user.setCreatedAt(createdAt(row));
+        return user;
+    }
+
+    /**
+     * Number of distinct names in the dictionary.
+     */
+    public int distinctNameCount() {
+        return nameDictionary.length;
+    }
+
+    /**
+     * Approximate memory used by the columns, including the name dictionary.
+     */
+    public long memoryBytes() {
+        long dictionary = 0;
+        for (String name : nameDictionary) {
+            dictionary += 56 + name.length();
+        }
+        return 8L * size + 4L * size + 8L * size + 4L * size + 4L * (size + 1) + emailBytes.capacity() + dictionary;
+    }
+
+    public boolean isOffHeap() {
+        return emailBytes.isDirect();
+    }
+
+    /**
+     * Oldest transaction id (64-bit) that was still in progress when the snapshot was read; rows
+     * written by it or later transactions are re-read by {@link UserSnapshotLoader#refresh}.
+     */
+    public long getTransactionHorizon() {
+        return transactionHorizon;
+    }
+
+    // ---- scans
+
+    public void forEach(IntPredicate filter, IntConsumer action) {
+        for (int row = 0; row < size; row++) {
+            if (filter.test(row)) {
+                action.accept(row);
+            }
+        }
+    }
+
+    /**
+     * Indexes of the matching rows, in id order. Evaluated in parallel.
+     */
+    public int[] filter(IntPredicate filter) {
+        return IntStream.range(0, size).parallel().filter(filter).toArray();
+    }
+
+    public long count(IntPredicate filter) {
+        return parallelAggregate(filter, () -> new long[1], (total, row) -> total[0]++,
+                (left, right) -> {
+                    left[0] += right[0];
+                    return left;
+                })[0];
+    }
+
+    /**
+     * Statistics over the ages of matching rows; rows without an age are skipped.
+     */
+    public IntSummaryStatistics ageStatistics(IntPredicate filter) {
+        return parallelAggregate(row -> ages[row] != NO_AGE && filter.test(row), IntSummaryStatistics::new,
+                (stats, row) -> stats.accept(ages[row]),
+                (left, right) -> {
+                    left.combine(right);
+                    return left;
+                });
+    }
+
+    /**
+     * Folds the matching rows into a container created by {@code supplier}, on the calling thread.
+     */
+    public <A> A aggregate(IntPredicate filter, Supplier<A> supplier, ObjIntConsumer<A> accumulator) {
+        A result = supplier.get();
+        forEach(filter, row -> accumulator.accept(result, row));
+        return result;
+    }
+
+    /**
+     * Like {@link #aggregate} but splits the rows into fork/join tasks, each with its own container;
+     * partial results are merged with {@code combiner}.
+     */
+    public <A> A parallelAggregate(IntPredicate filter, Supplier<A> supplier, ObjIntConsumer<A> accumulator,
+                                   BinaryOperator<A> combiner) {
+        return ForkJoinPool.commonPool().invoke(new AggregateTask<>(0, size, filter, supplier, accumulator, combiner));
+    }
+
+    // ---- predicates
+
+    public IntPredicate ageBetween(int minInclusive, int maxInclusive) {
+        return row -> ages[row] != NO_AGE && ages[row] >= minInclusive && ages[row] <= maxInclusive;
+    }
+
+    public IntPredicate createdBetween(LocalDateTime fromInclusive, LocalDateTime toExclusive) {
+        long from = fromInclusive.toEpochSecond(ZoneOffset.UTC);
+        long to = toExclusive.toEpochSecond(ZoneOffset.UTC);
+        return row -> createdAt[row] >= from && createdAt[row] < to;
+    }
+
+    /**
+     * Matches emails ending in {@code suffix} (e.g. a domain) by comparing packed bytes, without decoding.
+     */
+    public IntPredicate emailEndsWith(String suffix) {
+        byte[] expected = suffix.getBytes(StandardCharsets.UTF_8);
+        return row -> {
+            int end = emailOffsets[row + 1];
+            int start = end - expected.length;
+            if (start < emailOffsets[row]) {
+                return false;
+            }
+            for (int i = 0; i < expected.length; i++) {
+                if (emailBytes.get(start + i) != expected[i]) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    public IntPredicate nameEquals(String name) {
+        int code = Arrays.asList(nameDictionary).indexOf(name);
+        return row -> nameCodes[row] == code;
+    }
+
+    private final class AggregateTask<A> extends RecursiveTask<A> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final IntPredicate filter;
+        private final Supplier<A> supplier;
+        private final ObjIntConsumer<A> accumulator;
+        private final BinaryOperator<A> combiner;
+
+        private AggregateTask(int from, int to, IntPredicate filter, Supplier<A> supplier,
+                              ObjIntConsumer<A> accumulator, BinaryOperator<A> combiner) {
+            this.from = from;
+            this.to = to;
+            this.filter = filter;
+            this.supplier = supplier;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected A compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                A result = supplier.get();
+                for (int row = from; row < to; row++) {
+                    if (filter.test(row)) {
+                        accumulator.accept(result, row);
+                    }
+                }
+                return result;
+            }
+            int middle = (from + to) >>> 1;
+            AggregateTask<A> left = new AggregateTask<>(from, middle, filter, supplier, accumulator, combiner);
+            left.fork();
+            A right = new AggregateTask<>(middle, to, filter, supplier, accumulator, combiner).compute();
+            return combiner.apply(left.join(), right);
+        }
+    }
+
+    /**
+     * Accumulates rows in ascending id order.
+     */
+    static final class Builder {
+        private final boolean offHeap;
+        private long[] ids;
+        private int[] ages;
+        private long[] createdAt;
+        private int[] nameCodes;
+        private int[] emailOffsets;
+        private byte[] emailData;
+        private int emailLength;
+        private int size;
+        private final Map<String, Integer> dictionary = new HashMap<>();
+
+        Builder(int expectedRows, boolean offHeap) {
+            int capacity = Math.max(16, expectedRows);
+            this.offHeap = offHeap;
+            this.ids = new long[capacity];
+            this.ages = new int[capacity];
+            this.createdAt = new long[capacity];
+            this.nameCodes = new int[capacity];
+            this.emailOffsets = new int[capacity + 1];
+            this.emailData = new byte[capacity * 24];
+        }
+
+        Builder add(long id, String name, String email, Integer age, LocalDateTime created) {
+            return add(id, name, email.getBytes(StandardCharsets.UTF_8), age == null ? NO_AGE : age,
+                    created.toEpochSecond(ZoneOffset.UTC));
+        }
+
+        /**
+         * Copies a row from another snapshot without decoding its email.
+         */
+        Builder add(UserSnapshot source, int row) {
+            int from = source.emailOffsets[row];
+            byte[] email = new byte[source.emailOffsets[row + 1] - from];
+            source.emailBytes.get(from, email);
+            return add(source.ids[row], source.name(row), email, source.ages[row], source.createdAt[row]);
+        }
+
+        private Builder add(long id, String name, byte[] email, int age, long createdEpochSecond) {
+            if (size > 0 && id <= ids[size - 1]) {
+                throw new IllegalArgumentException("Rows must be added in ascending id order");
+            }
+            if (size == ids.length) {
+                int capacity = ids.length * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                ages = Arrays.copyOf(ages, capacity);
+                createdAt = Arrays.copyOf(createdAt, capacity);
+                nameCodes = Arrays.copyOf(nameCodes, capacity);
+                emailOffsets = Arrays.copyOf(emailOffsets, capacity + 1);
+            }
+            if (emailLength + email.length > emailData.length) {
+                emailData = Arrays.copyOf(emailData, Math.max(emailData.length * 2, emailLength + email.length));
+            }
+            ids[size] = id;
+            ages[size] = age;
+            createdAt[size] = createdEpochSecond;
+            nameCodes[size] = dictionary.computeIfAbsent(name, key -> dictionary.size());
+            System.arraycopy(email, 0, emailData, emailLength, email.length);
+            emailLength += email.length;
+            emailOffsets[size + 1] = emailLength;
+            size++;
+            return this;
+        }
+
+        UserSnapshot build(long transactionHorizon) {
+            return new UserSnapshot(this, transactionHorizon);
+        }
+    }
+}
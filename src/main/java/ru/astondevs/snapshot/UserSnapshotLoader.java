@@ -0,0 +1,225 @@
+package ru.astondevs.snapshot;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import ru.astondevs.util.HibernateUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams {@code users} into a {@link UserSnapshot} over a pooled JDBC connection, using a
+ * server-side cursor so rows are never materialised as entities.
+ * <p>
+ * {@link #refresh} re-reads only the rows whose {@code xmin} (the transaction that wrote the row
+ * version) is at or after the previous snapshot's transaction horizon, i.e. rows inserted or updated
+ * since, and detects deletes by merging the snapshot against an index-only scan of the ids. Both
+ * reads run in one {@code REPEATABLE READ} transaction, so the result is a consistent snapshot.
+ */
+public class UserSnapshotLoader {
+    private static final Logger logger = LogManager.getLogger(UserSnapshotLoader.class);
+
+    private static final String COLUMNS = "id, name, email, age, created_at";
+    private static final String SELECT_HORIZON = "SELECT txid_snapshot_xmin(txid_current_snapshot())";
+    private static final String SELECT_ALL = "SELECT " + COLUMNS + " FROM users ORDER BY id";
+    private static final String SELECT_COUNT = "SELECT count(*) FROM users";
+    // age() is wraparound-safe; frozen rows report the maximum age and are never re-read
+    private static final String SELECT_CHANGED = "SELECT " + COLUMNS + " FROM users"
+            + " WHERE age(xmin) <= age(?::text::xid) ORDER BY id";
+    private static final String SELECT_IDS = "SELECT id FROM users ORDER BY id";
+
+    private final int fetchSize;
+    private final boolean offHeap;
+
+    public UserSnapshotLoader() {
+        this(10_000, false);
+    }
+
+    /**
+     * @param offHeap store the packed email bytes in a direct buffer
+     */
+    public UserSnapshotLoader(int fetchSize, boolean offHeap) {
+        this.fetchSize = fetchSize;
+        this.offHeap = offHeap;
+    }
+
+    public UserSnapshot load() {
+        try {
+            long started = System.nanoTime();
+            UserSnapshot snapshot = inSnapshotTransaction(connection -> {
+                long horizon = readHorizon(connection);
+                UserSnapshot.Builder builder = new UserSnapshot.Builder(countRows(connection), offHeap);
+                try (PreparedStatement statement = connection.prepareStatement(SELECT_ALL)) {
+                    statement.setFetchSize(fetchSize);
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            addRow(builder, resultSet);
+                        }
+                    }
+                }
+                return builder.build(horizon);
+            });
+            logger.info("User snapshot loaded: {} rows, {} KB in {} ms", snapshot.size(),
+                    snapshot.memoryBytes() / 1024, (System.nanoTime() - started) / 1_000_000);
+            return snapshot;
+        } catch (Exception e) {
+            logger.error("Error loading user snapshot", e);
+            throw new RuntimeException("Failed to load user snapshot", e);
+        }
+    }
+
+    /**
+     * Returns a new snapshot equal to {@code previous} with rows inserted, updated or deleted since
+     * it was taken applied. {@code previous} is left unchanged.
+     */
+    public UserSnapshot refresh(UserSnapshot previous) {
+        try {
+            long started = System.nanoTime();
+            int[] changes = new int[2];
+            UserSnapshot snapshot = inSnapshotTransaction(connection -> {
+                long horizon = readHorizon(connection);
+                List<ChangedRow> changed = readChanged(connection, previous.getTransactionHorizon());
+                boolean[] deleted = findDeleted(connection, previous);
+                changes[0] = changed.size();
+                for (boolean d : deleted) {
+                    changes[1] += d ? 1 : 0;
+                }
+                return merge(previous, deleted, changed, horizon);
+            });
+            logger.info("User snapshot refreshed: {} changed, {} deleted, {} rows in {} ms", changes[0], changes[1],
+                    snapshot.size(), (System.nanoTime() - started) / 1_000_000);
+            return snapshot;
+        } catch (Exception e) {
+            logger.error("Error refreshing user snapshot", e);
+            throw new RuntimeException("Failed to refresh user snapshot", e);
+        }
+    }
+
+    private List<ChangedRow> readChanged(Connection connection, long horizon) throws SQLException {
+        List<ChangedRow> changed = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_CHANGED)) {
+            statement.setString(1, Long.toString(horizon & 0xFFFF_FFFFL));
+            statement.setFetchSize(fetchSize);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    changed.add(new ChangedRow(resultSet.getLong(1), resultSet.getString(2), resultSet.getString(3),
+                            (Integer) resultSet.getObject(4), resultSet.getTimestamp(5).toLocalDateTime()));
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Marks snapshot rows whose id is no longer in the table.
+     */
+    private boolean[] findDeleted(Connection connection, UserSnapshot previous) throws SQLException {
+        boolean[] deleted = new boolean[previous.size()];
+        int row = 0;
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_IDS)) {
+            statement.setFetchSize(fetchSize * 10);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next() && row < deleted.length) {
+                    long liveId = resultSet.getLong(1);
+                    while (row < deleted.length && previous.id(row) < liveId) {
+                        deleted[row++] = true;
+                    }
+                    if (row < deleted.length && previous.id(row) == liveId) {
+                        row++;
+                    }
+                }
+            }
+        }
+        while (row < deleted.length) {
+            deleted[row++] = true;
+        }
+        return deleted;
+    }
+
+    private UserSnapshot merge(UserSnapshot previous, boolean[] deleted, List<ChangedRow> changed, long horizon) {
+        UserSnapshot.Builder builder = new UserSnapshot.Builder(previous.size() + changed.size(), offHeap);
+        int next = 0;
+        for (int row = 0; row < previous.size(); row++) {
+            long id = previous.id(row);
+            while (next < changed.size() && changed.get(next).id() < id) {
+                changed.get(next++).addTo(builder);
+            }
+            if (next < changed.size() && changed.get(next).id() == id) {
+                changed.get(next++).addTo(builder);
+            } else if (!deleted[row]) {
+                builder.add(previous, row);
+            }
+        }
+        while (next < changed.size()) {
+            changed.get(next++).addTo(builder);
+        }
+        return builder.build(horizon);
+    }
+
+    private static void addRow(UserSnapshot.Builder builder, ResultSet resultSet) throws SQLException {
+        builder.add(resultSet.getLong(1), resultSet.getString(2), resultSet.getString(3),
+                (Integer) resultSet.getObject(4), resultSet.getTimestamp(5).toLocalDateTime());
+    }
+
+    private static long readHorizon(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(SELECT_HORIZON)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static int countRows(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(SELECT_COUNT)) {
+            resultSet.next();
+            return (int) Math.min(Integer.MAX_VALUE - 8, resultSet.getLong(1));
+        }
+    }
+
+    @FunctionalInterface
+    private interface SnapshotWork<T> {
+        T execute(Connection connection) throws SQLException;
+    }
+
+    private static <T> T inSnapshotTransaction(SnapshotWork<T> work) throws SQLException {
+        ConnectionProvider provider = HibernateUtil.getSessionFactory().unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(ConnectionProvider.class);
+        Connection connection = provider.getConnection();
+        boolean autoCommit = connection.getAutoCommit();
+        int isolation = connection.getTransactionIsolation();
+        try {
+            connection.setAutoCommit(false);
+            connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            connection.setReadOnly(true);
+            T result = work.execute(connection);
+            connection.commit();
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            try {
+                connection.setReadOnly(false);
+                connection.setTransactionIsolation(isolation);
+                connection.setAutoCommit(autoCommit);
+            } finally {
+                provider.closeConnection(connection);
+            }
+        }
+    }
+
+    private record ChangedRow(long id, String name, String email, Integer age, LocalDateTime createdAt) {
+        void addTo(UserSnapshot.Builder builder) {
+            builder.add(id, name, email, age, createdAt);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package ru.astondevs.snapshot;
+
+import ru.astondevs.entity.User;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Compact binary file of cached {@link User} rows, kept across restarts to warm the near cache.
+ * <pre>
+ * header  magic "UWCS" (int), version (byte), written at epoch millis (long), row count (varint)
+ * row     id delta from the previous row (varint, rows sorted by id), age + 1 (varint, 0 = null),
+ *         created_at epoch second (zigzag varint) and nano (varint), name and email (varint
+ *         byte length + UTF-8)
+ * trailer CRC32C of everything before it (int)
+ * </pre>
+ * Files are written to a temporary sibling and atomically moved into place, and read through a
+ * read-only memory mapping, so a crash mid-write never leaves a truncated file behind.
+ */
+public final class WarmCacheFile {
+    public static final int MAGIC = 0x55574353;
+    public static final byte VERSION = 1;
+
+    private static final int HEADER_BYTES = Integer.BYTES + 1 + Long.BYTES;
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private WarmCacheFile() {
+    }
+
+    public record Contents(Instant writtenAt, List<User> users) {
+    }
+
+    /**
+     * Writes {@code users} (rows without an id are skipped) and returns the file size in bytes.
+     */
+    public static long write(Path file, Collection<User> users) throws IOException {
+        List<User> rows = users.stream()
+                .filter(user -> user.getId() != null)
+                .sorted(Comparator.comparing(User::getId))
+                .toList();
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                Writer writer = new Writer(channel);
+                writer.ensure(HEADER_BYTES + 5);
+                writer.buffer.putInt(MAGIC).put(VERSION).putLong(System.currentTimeMillis());
+                writer.putVarint(rows.size());
+                long previousId = 0;
+                for (User user : rows) {
+                    byte[] name = bytes(user.getName());
+                    byte[] email = bytes(user.getEmail());
+                    writer.ensure(5 * 10 + name.length + email.length);
+                    writer.putVarint(user.getId() - previousId);
+                    writer.putVarint(user.getAge() == null ? 0 : (user.getAge() & 0xFFFFFFFFL) + 1);
+                    LocalDateTime createdAt = user.getCreatedAt();
+                    writer.putVarint(zigzag(createdAt.toEpochSecond(ZoneOffset.UTC)));
+                    writer.putVarint(createdAt.getNano());
+                    writer.putBytes(name);
+                    writer.putBytes(email);
+                    previousId = user.getId();
+                }
+                writer.finish();
+                channel.force(false);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return Files.size(file);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Reads a file written by {@link #write}.
+     *
+     * @throws IOException if the file is unreadable, of another version, truncated or corrupt
+     */
+    public static Contents read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + 1 + Integer.BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a warm cache file (size " + size + "): " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int bodyBytes = (int) size - Integer.BYTES;
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.slice(0, bodyBytes));
+            if ((int) crc.getValue() != buffer.getInt(bodyBytes)) {
+                throw new IOException("Warm cache file checksum mismatch: " + file);
+            }
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a warm cache file: " + file);
+            }
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IOException("Unsupported warm cache file version " + version + ": " + file);
+            }
+            Instant writtenAt = Instant.ofEpochMilli(buffer.getLong());
+            buffer.limit(bodyBytes);
+            try {
+                long count = getVarint(buffer);
+                if (count > bodyBytes) {
+                    throw new IOException("Corrupt warm cache file row count " + count + ": " + file);
+                }
+                List<User> users = new ArrayList<>((int) count);
+                long id = 0;
+                for (long i = 0; i < count; i++) {
+                    id += getVarint(buffer);
+                    long age = getVarint(buffer);
+                    long epochSecond = unzigzag(getVarint(buffer));
+                    int nano = (int) getVarint(buffer);
+                    User user = new User(getString(buffer), getString(buffer), age == 0 ? null : (int) (age - 1));
+                    user.setId(id);
+                    user.setCreatedAt(LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC));
+                    users.add(user);
+                }
+                return new Contents(writtenAt, users);
+            } catch (BufferUnderflowException | IllegalArgumentException | DateTimeException e) {
+                throw new IOException("Corrupt warm cache file: " + file, e);
+            }
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long getVarint(ByteBuffer buffer) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint at offset " + buffer.position());
+    }
+
+    private static String getString(ByteBuffer buffer) throws IOException {
+        long length = getVarint(buffer);
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[(int) length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Fills a direct buffer and drains it to the channel, checksumming everything written.
+     */
+    private static final class Writer {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        private final CRC32C crc = new CRC32C();
+
+        Writer(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                drain();
+            }
+        }
+
+        void putVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        void putBytes(byte[] bytes) throws IOException {
+            putVarint(bytes.length);
+            if (bytes.length > buffer.remaining()) {
+                drain();
+                ByteBuffer large = ByteBuffer.wrap(bytes);
+                crc.update(large.duplicate());
+                while (large.hasRemaining()) {
+                    channel.write(large);
+                }
+                return;
+            }
+            buffer.put(bytes);
+        }
+
+        void finish() throws IOException {
+            drain();
+            buffer.putInt((int) crc.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
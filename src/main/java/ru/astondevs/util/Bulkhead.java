@@ -0,0 +1,174 @@
+package ru.astondevs.util;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import ru.astondevs.exception.DaoOverloadedException;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Limits the number of concurrent calls into a resource. Callers beyond the limit wait in a
+ * bounded queue for at most {@code maxWait}; when the queue is full or the wait expires the call
+ * is rejected with {@link DaoOverloadedException}.
+ * <p>
+ * In adaptive mode the limit shrinks towards {@code minLimit} while call latency stays above
+ * {@code latencyThreshold} and grows back towards {@code maxLimit} once latency recovers.
+ */
+public class Bulkhead {
+    private static final Logger logger = LogManager.getLogger(Bulkhead.class);
+    private static final long ADJUST_COOLDOWN_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Getter
+    private final String name;
+    private final int maxLimit;
+    private final int minLimit;
+    private final int maxQueueDepth;
+    private final long maxWaitNanos;
+    private final long latencyThresholdNanos;
+    private final AdjustableSemaphore permits;
+
+    @Getter
+    private volatile int limit;
+    private long lastAdjustNanos = System.nanoTime() - ADJUST_COOLDOWN_NANOS;
+    private int fastCallsSinceAdjust;
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejectedQueueFull = new LongAdder();
+    private final LongAdder rejectedTimeout = new LongAdder();
+
+    /**
+     * @param latencyThreshold enables adaptive mode when set; {@code minLimit} defaults to 1
+     */
+    @Builder
+    public Bulkhead(String name, int maxConcurrent, int maxQueueDepth, Duration maxWait,
+                    Duration latencyThreshold, Integer minLimit) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("maxConcurrent must be positive");
+        }
+        this.name = name;
+        this.maxLimit = maxConcurrent;
+        this.minLimit = minLimit != null ? Math.max(1, Math.min(minLimit, maxConcurrent)) : 1;
+        this.maxQueueDepth = Math.max(0, maxQueueDepth);
+        this.maxWaitNanos = maxWait != null ? maxWait.toNanos() : 0;
+        this.latencyThresholdNanos = latencyThreshold != null ? latencyThreshold.toNanos() : 0;
+        this.permits = new AdjustableSemaphore(maxConcurrent);
+        this.limit = maxConcurrent;
+    }
+
+    public <T> T execute(Supplier<T> call) {
+        acquire();
+        inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            inFlight.decrementAndGet();
+            permits.release();
+            if (latencyThresholdNanos > 0) {
+                adapt(System.nanoTime() - start);
+            }
+        }
+    }
+
+    public void run(Runnable call) {
+        execute(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    private void acquire() {
+        try {
+            // Zero timeout keeps fairness: a free permit is not taken ahead of queued callers
+            if (permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                accepted.increment();
+                return;
+            }
+            if (queueDepth.incrementAndGet() > maxQueueDepth) {
+                queueDepth.decrementAndGet();
+                rejectedQueueFull.increment();
+                throw new DaoOverloadedException("Bulkhead '" + name + "' is saturated: queue is full");
+            }
+            try {
+                if (!permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                    rejectedTimeout.increment();
+                    throw new DaoOverloadedException("Bulkhead '" + name + "' is saturated: no permit within "
+                            + TimeUnit.NANOSECONDS.toMillis(maxWaitNanos) + " ms");
+                }
+                accepted.increment();
+            } finally {
+                queueDepth.decrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejectedTimeout.increment();
+            throw new DaoOverloadedException("Interrupted while waiting for bulkhead '" + name + "'");
+        }
+    }
+
+    private synchronized void adapt(long latencyNanos) {
+        long now = System.nanoTime();
+        if (latencyNanos > latencyThresholdNanos) {
+            fastCallsSinceAdjust = 0;
+            if (limit > minLimit && now - lastAdjustNanos >= ADJUST_COOLDOWN_NANOS) {
+                int newLimit = Math.max(minLimit, limit * 3 / 4);
+                permits.reducePermits(limit - newLimit);
+                logger.warn("Bulkhead '{}' limit lowered {} -> {} (latency {} ms)",
+                        name, limit, newLimit, TimeUnit.NANOSECONDS.toMillis(latencyNanos));
+                limit = newLimit;
+                lastAdjustNanos = now;
+            }
+        } else if (limit < maxLimit && ++fastCallsSinceAdjust >= limit) {
+            permits.release();
+            limit++;
+            fastCallsSinceAdjust = 0;
+            lastAdjustNanos = now;
+            logger.info("Bulkhead '{}' limit raised to {}", name, limit);
+        }
+    }
+
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getAcceptedCount() {
+        return accepted.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedQueueFull.sum() + rejectedTimeout.sum();
+    }
+
+    public long getQueueFullRejectedCount() {
+        return rejectedQueueFull.sum();
+    }
+
+    public long getTimeoutRejectedCount() {
+        return rejectedTimeout.sum();
+    }
+
+    private static final class AdjustableSemaphore extends Semaphore {
+
+        AdjustableSemaphore(int permits) {
+            super(permits, true);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+}
@@ -1,16 +1,27 @@
 package ru.astondevs.util;
 
 import lombok.Getter;
+import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
 import org.hibernate.cfg.Configuration;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
 import org.hibernate.service.ServiceRegistry;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import ru.astondevs.entity.User;
+import ru.astondevs.jfr.TransactionEvent;
+import ru.astondevs.migration.SchemaMigrator;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.function.Supplier;
 
 public class HibernateUtil {
     private static final Logger logger = LogManager.getLogger(HibernateUtil.class);
+    public static final String MIGRATE_PROPERTY = "user.schema.migrate";
+    private static final ThreadLocal<Integer> transactionDepth = ThreadLocal.withInitial(() -> 0);
+    private static final Deque<Runnable> shutdownActions = new ConcurrentLinkedDeque<>();
     @Getter
     private static SessionFactory sessionFactory;
 
@@ -20,6 +31,14 @@ public class HibernateUtil {
             configuration.configure("hibernate.cfg.xml");
             configuration.addAnnotatedClass(User.class);
 
+            // Hibernate only validates the schema; migrations own it
+            if (Boolean.parseBoolean(System.getProperty(MIGRATE_PROPERTY,
+                    configuration.getProperty(MIGRATE_PROPERTY)))) {
+                new SchemaMigrator(configuration.getProperty("hibernate.connection.url"),
+                        configuration.getProperty("hibernate.connection.username"),
+                        configuration.getProperty("hibernate.connection.password")).migrate();
+            }
+
             ServiceRegistry serviceRegistry = new StandardServiceRegistryBuilder()
                     .applySettings(configuration.getProperties())
                     .build();
@@ -32,7 +51,104 @@ public class HibernateUtil {
         }
     }
 
+    /**
+     * Runs {@code work} as a single unit of work. The session is obtained through
+     * {@link SessionFactory#getCurrentSession()} (thread-bound context), so every DAO call made
+     * inside {@code work} shares one session, first-level cache, connection and transaction.
+     * Nested calls join the outer transaction; a failure inside a nested call marks it rollback-only.
+     */
+    public static <T> T inTransaction(Supplier<T> work) {
+        if (isTransactionActive()) {
+            transactionDepth.set(transactionDepth.get() + 1);
+            try {
+                return work.get();
+            } catch (RuntimeException e) {
+                getSessionFactory().getCurrentSession().getTransaction().markRollbackOnly();
+                throw e;
+            } finally {
+                transactionDepth.set(transactionDepth.get() - 1);
+            }
+        }
+
+        Transaction transaction = getSessionFactory().getCurrentSession().beginTransaction();
+        TransactionEvent event = TransactionEvent.begin("unitOfWork");
+        transactionDepth.set(1);
+        boolean committed = false;
+        try {
+            T result = work.get();
+            transaction.commit();
+            committed = true;
+            return result;
+        } catch (RuntimeException e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        } finally {
+            transactionDepth.remove();
+            event.end(committed);
+        }
+    }
+
+    /**
+     * Returns {@code true} when the calling thread is inside {@link #inTransaction(Supplier)}.
+     */
+    public static boolean isTransactionActive() {
+        return transactionDepth.get() > 0;
+    }
+
+    /**
+     * Returns the session bound to the current unit of work.
+     */
+    public static Session getCurrentSession() {
+        if (!isTransactionActive()) {
+            throw new IllegalStateException("No unit of work is active on the current thread");
+        }
+        return getSessionFactory().getCurrentSession();
+    }
+
+    /**
+     * Reads a setting from {@code hibernate.cfg.xml}; system properties take precedence.
+     */
+    public static String getStringProperty(String name, String defaultValue) {
+        String value = System.getProperty(name);
+        if (value == null) {
+            Object configured = getSessionFactory().getProperties().get(name);
+            value = configured != null ? configured.toString() : null;
+        }
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    public static int getIntProperty(String name, int defaultValue) {
+        String value = getStringProperty(name, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid value '{}' for {}, using {}", value, name, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Registers {@code action} to run in {@link #shutdown()} before the SessionFactory is closed.
+     * Actions run in reverse registration order; a failing action does not stop the others.
+     */
+    public static void onShutdown(Runnable action) {
+        shutdownActions.push(action);
+    }
+
     public static void shutdown() {
+        Runnable action;
+        while ((action = shutdownActions.poll()) != null) {
+            try {
+                action.run();
+            } catch (Exception e) {
+                logger.error("Error running shutdown action", e);
+            }
+        }
         if (sessionFactory != null) {
             sessionFactory.close();
             logger.info("SessionFactory closed");
@@ -0,0 +1,211 @@
+package ru.astondevs.util;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps a dedicated connection subscribed to a PostgreSQL {@code LISTEN} channel and hands every
+ * notification payload to {@code onNotification} on a background thread.
+ * <p>
+ * Notifications sent while the connection is down are lost. On every (re)connect the listener
+ * issues {@code LISTEN} first and then calls {@code onGap}, so subscribers can discard state that
+ * may have missed changes; only after that does {@link #isConnected()} report {@code true}.
+ * An idle connection is checked with {@code SELECT 1} every {@code heartbeat}.
+ */
+public class PgNotificationListener implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(PgNotificationListener.class);
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private final String jdbcUrl;
+    private final Properties connectionProperties;
+    @Getter
+    private final String channel;
+    private final Consumer<String> onNotification;
+    private final Runnable onGap;
+    private final int pollMillis;
+    private final long heartbeatNanos;
+    private final long reconnectDelayMillis;
+
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile boolean connected;
+    private volatile Connection connection;
+    private volatile int backendPid;
+    private volatile CountDownLatch connectedSignal = new CountDownLatch(1);
+
+    private final LongAdder notifications = new LongAdder();
+    private final LongAdder reconnects = new LongAdder();
+
+    @Builder
+    public PgNotificationListener(String jdbcUrl, String username, String password, String channel,
+                                  Consumer<String> onNotification, Runnable onGap,
+                                  Duration pollInterval, Duration heartbeat, Duration reconnectDelay) {
+        if (channel == null || !CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid channel name: " + channel);
+        }
+        this.jdbcUrl = jdbcUrl;
+        this.connectionProperties = new Properties();
+        connectionProperties.setProperty("user", username);
+        if (password != null) {
+            connectionProperties.setProperty("password", password);
+        }
+        // Bounds how long a heartbeat can hang on a silently dropped connection
+        connectionProperties.setProperty("socketTimeout", "10");
+        connectionProperties.setProperty("ApplicationName", "listener:" + channel);
+        this.channel = channel;
+        this.onNotification = onNotification;
+        this.onGap = onGap != null ? onGap : () -> { };
+        this.pollMillis = (int) (pollInterval != null ? pollInterval : Duration.ofMillis(250)).toMillis();
+        this.heartbeatNanos = (heartbeat != null ? heartbeat : Duration.ofSeconds(5)).toNanos();
+        this.reconnectDelayMillis = (reconnectDelay != null ? reconnectDelay : Duration.ofSeconds(1)).toMillis();
+        this.thread = new Thread(this::run, "pg-listen-" + channel);
+        this.thread.setDaemon(true);
+    }
+
+    public PgNotificationListener start() {
+        thread.start();
+        return this;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * Waits until the listener is subscribed; returns {@code false} on timeout.
+     */
+    public boolean awaitConnected(Duration timeout) throws InterruptedException {
+        return connected || connectedSignal.await(timeout.toMillis(), TimeUnit.MILLISECONDS) && connected;
+    }
+
+    /**
+     * Server process id of the listening connection, or 0 while disconnected.
+     */
+    public int getBackendPid() {
+        return connected ? backendPid : 0;
+    }
+
+    public long getNotificationCount() {
+        return notifications.sum();
+    }
+
+    /**
+     * Number of successful subscriptions after the first one.
+     */
+    public long getReconnectCount() {
+        return reconnects.sum();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        closeQuietly(connection);
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        boolean firstConnect = true;
+        while (running) {
+            try (Connection conn = DriverManager.getConnection(jdbcUrl, connectionProperties)) {
+                connection = conn;
+                conn.setAutoCommit(true);
+                try (Statement statement = conn.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                PGConnection pgConnection = conn.unwrap(PGConnection.class);
+                backendPid = pgConnection.getBackendPID();
+                onGap.run();
+                if (!firstConnect) {
+                    reconnects.increment();
+                }
+                firstConnect = false;
+                connected = true;
+                connectedSignal.countDown();
+                logger.info("Listening on channel '{}' (backend pid {})", channel, backendPid);
+                listen(conn, pgConnection);
+            } catch (SQLException | RuntimeException e) {
+                if (running) {
+                    logger.warn("Listener on channel '{}' lost its connection, reconnecting: {}", channel, e.getMessage());
+                }
+            } finally {
+                if (connected) {
+                    connectedSignal = new CountDownLatch(1);
+                }
+                connected = false;
+                connection = null;
+            }
+            if (running) {
+                pause();
+            }
+        }
+    }
+
+    private void listen(Connection conn, PGConnection pgConnection) throws SQLException {
+        long lastHeard = System.nanoTime();
+        while (running) {
+            PGNotification[] received = pgConnection.getNotifications(pollMillis);
+            if (received != null && received.length > 0) {
+                lastHeard = System.nanoTime();
+                for (PGNotification notification : received) {
+                    notifications.increment();
+                    dispatch(notification.getParameter());
+                }
+            } else if (System.nanoTime() - lastHeard > heartbeatNanos) {
+                try (Statement statement = conn.createStatement()) {
+                    statement.execute("SELECT 1");
+                }
+                lastHeard = System.nanoTime();
+            }
+        }
+    }
+
+    private void dispatch(String payload) {
+        try {
+            onNotification.accept(payload);
+        } catch (RuntimeException e) {
+            // The change it described may not have been applied; treat it like a missed notification
+            logger.error("Failed to handle notification on channel '{}': {}", channel, payload, e);
+            onGap.run();
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(reconnectDelayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                logger.debug("Failed to close listener connection", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package ru.astondevs.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.postgresql.PGConnection;
+import ru.astondevs.exception.DaoTimeoutException;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Deadlines for DAO operations.
+ * <p>
+ * The timeout of an operation is {@code user.dao.timeout.<operation>_ms}, falling back to
+ * {@code user.dao.timeout.default_ms} ({@code 0} = no timeout). {@link #withTimeout} overrides it for
+ * every DAO call made by {@code call}, as an absolute deadline shared by all of them.
+ * <p>
+ * While an operation runs, a {@link Guard} arms a timer that calls {@link PGConnection#cancelQuery()}
+ * on the operation's connection when the deadline passes; this is how pgjdbc implements
+ * {@code Statement.setQueryTimeout}, but with millisecond resolution and covering every statement of
+ * the operation, including those Hibernate issues itself. The server aborts the statement with
+ * SQLSTATE {@code 57014} and the DAO raises {@link DaoTimeoutException}.
+ */
+public final class QueryTimeouts {
+    private static final Logger logger = LogManager.getLogger(QueryTimeouts.class);
+    private static final String QUERY_CANCELED = "57014";
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private static final ThreadLocal<Long> callDeadline = ThreadLocal.withInitial(() -> NO_DEADLINE);
+    private static final Map<String, Duration> configured = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> timeouts = new ConcurrentHashMap<>();
+    private static final ScheduledThreadPoolExecutor timer = createTimer();
+
+    private QueryTimeouts() {
+    }
+
+    /**
+     * Runs {@code call} with every DAO operation inside it bounded by {@code timeout} from now.
+     * Nested calls can only shorten the deadline.
+     */
+    public static <T> T withTimeout(Duration timeout, Supplier<T> call) {
+        long previous = callDeadline.get();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        callDeadline.set(previous == NO_DEADLINE ? deadline : Math.min(previous, deadline));
+        try {
+            return call.get();
+        } finally {
+            if (previous == NO_DEADLINE) {
+                callDeadline.remove();
+            } else {
+                callDeadline.set(previous);
+            }
+        }
+    }
+
+    public static void runWithTimeout(Duration timeout, Runnable call) {
+        withTimeout(timeout, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /**
+     * Configured timeout of {@code operation}, or {@link Duration#ZERO} when it has none.
+     */
+    public static Duration timeoutFor(String operation) {
+        return configured.computeIfAbsent(operation, op -> {
+            int defaultMillis = HibernateUtil.getIntProperty("user.dao.timeout.default_ms", 0);
+            return Duration.ofMillis(HibernateUtil.getIntProperty("user.dao.timeout." + op + "_ms", defaultMillis));
+        });
+    }
+
+    /**
+     * Overrides the configured timeout of {@code operation}; {@code null} restores the configuration.
+     */
+    public static void configure(String operation, Duration timeout) {
+        if (timeout == null) {
+            configured.remove(operation);
+        } else {
+            configured.put(operation, timeout);
+        }
+    }
+
+    /**
+     * Starts guarding {@code operation} on {@code connection}. Returns an inactive guard when the
+     * operation has no timeout; fails fast when a per-call deadline has already passed.
+     */
+    public static Guard start(String operation, Supplier<Connection> connection) {
+        long now = System.nanoTime();
+        long deadline = callDeadline.get();
+        Duration limit = timeoutFor(operation);
+        if (!limit.isZero()) {
+            deadline = Math.min(deadline, now + limit.toNanos());
+        }
+        if (deadline == NO_DEADLINE) {
+            return Guard.INACTIVE;
+        }
+        Duration timeout = Duration.ofNanos(Math.max(0, deadline - now));
+        if (deadline - now <= 0) {
+            throw timedOut(operation, timeout, null);
+        }
+        return new Guard(operation, connection.get(), timeout);
+    }
+
+    /**
+     * Converts a failure of a guarded operation into {@link DaoTimeoutException} if it was caused by
+     * the guard's cancellation (or a server-side {@code statement_timeout}); otherwise returns {@code null}.
+     */
+    public static DaoTimeoutException translate(String operation, Guard guard, Throwable failure) {
+        if (guard.cancelled() || isQueryCanceled(failure)) {
+            return timedOut(operation, guard.timeout, failure);
+        }
+        return null;
+    }
+
+    public static long getTimeoutCount(String operation) {
+        LongAdder count = timeouts.get(operation);
+        return count == null ? 0 : count.sum();
+    }
+
+    /**
+     * Timed-out operations by name, sorted by name.
+     */
+    public static Map<String, Long> getTimeoutCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        timeouts.forEach((operation, count) -> counts.put(operation, count.sum()));
+        return counts;
+    }
+
+    private static DaoTimeoutException timedOut(String operation, Duration timeout, Throwable cause) {
+        timeouts.computeIfAbsent(operation, op -> new LongAdder()).increment();
+        logger.warn("DAO operation {} timed out after {} ms", operation, timeout.toMillis());
+        return new DaoTimeoutException(operation, timeout, cause);
+    }
+
+    private static boolean isQueryCanceled(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql && QUERY_CANCELED.equals(sql.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ScheduledThreadPoolExecutor createTimer() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "dao-timeout-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    /**
+     * Cancels the statement running on a connection if the operation outlives its deadline.
+     * {@link #close()} must be called (try-with-resources) before the connection is reused.
+     */
+    public static final class Guard implements AutoCloseable {
+        static final Guard INACTIVE = new Guard();
+
+        private static final int RUNNING = 0;
+        private static final int DONE = 1;
+        private static final int CANCELLING = 2;
+        private static final int CANCELLED = 3;
+
+        private final String operation;
+        private final Duration timeout;
+        private final Connection connection;
+        private final AtomicInteger state = new AtomicInteger(RUNNING);
+        private final ScheduledFuture<?> cancelTask;
+
+        private Guard() {
+            this.operation = null;
+            this.timeout = Duration.ZERO;
+            this.connection = null;
+            this.cancelTask = null;
+        }
+
+        private Guard(String operation, Connection connection, Duration timeout) {
+            this.operation = operation;
+            this.timeout = timeout;
+            this.connection = connection;
+            this.cancelTask = timer.schedule(this::cancel, timeout.toNanos(), TimeUnit.NANOSECONDS);
+        }
+
+        boolean cancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        private void cancel() {
+            if (!state.compareAndSet(RUNNING, CANCELLING)) {
+                return;
+            }
+            try {
+                connection.unwrap(PGConnection.class).cancelQuery();
+            } catch (SQLException e) {
+                logger.warn("Failed to cancel timed-out operation {}", operation, e);
+            } finally {
+                synchronized (this) {
+                    state.set(CANCELLED);
+                    notifyAll();
+                }
+            }
+        }
+
+        /**
+         * Disarms the timer; if a cancel is being sent, waits for it so it cannot hit the
+         * connection's next statement.
+         */
+        @Override
+        public void close() {
+            if (cancelTask == null || state.compareAndSet(RUNNING, DONE)) {
+                if (cancelTask != null) {
+                    cancelTask.cancel(false);
+                }
+                return;
+            }
+            synchronized (this) {
+                boolean interrupted = false;
+                while (state.get() == CANCELLING) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
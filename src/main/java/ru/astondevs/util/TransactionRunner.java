@@ -0,0 +1,32 @@
+package ru.astondevs.util;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs a multi-step service operation as one unit of work.
+ */
+public interface TransactionRunner {
+
+    <T> T inTransaction(Supplier<T> work);
+
+    default void runInTransaction(Runnable work) {
+        inTransaction(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Unit of work bound to the current thread's Hibernate session.
+     */
+    static TransactionRunner hibernate() {
+        return HibernateUtil::inTransaction;
+    }
+
+    /**
+     * Runs the work as is; each DAO call manages its own session.
+     */
+    static TransactionRunner direct() {
+        return Supplier::get;
+    }
+}
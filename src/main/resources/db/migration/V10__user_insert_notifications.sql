@@ -0,0 +1,44 @@
+-- Also publishes inserted rows on users_changed, so per-node email filters learn about users created
+-- by other nodes. Insert payloads start with a '+' line. Inserted rows are only ever added to
+-- subscribers' state, so a large insert is split into several notifications instead of a flush.
+CREATE OR REPLACE FUNCTION users_notify_change() RETURNS trigger LANGUAGE plpgsql AS $$
+DECLARE
+    payload text;
+    line text;
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        payload := '+';
+        FOR line IN SELECT id || ' ' || email FROM new_rows LOOP
+            IF payload <> '+' AND octet_length(payload) + octet_length(line) > 7900 THEN
+                PERFORM pg_notify('users_changed', payload);
+                payload := '+';
+            END IF;
+            payload := payload || E'\n' || line;
+        END LOOP;
+        IF payload <> '+' THEN
+            PERFORM pg_notify('users_changed', payload);
+        END IF;
+        RETURN NULL;
+    END IF;
+    IF TG_OP = 'TRUNCATE' THEN
+        payload := '*';
+    ELSIF TG_OP = 'DELETE' THEN
+        SELECT string_agg(id || ' ' || email, E'\n') INTO payload FROM old_rows;
+    ELSE
+        SELECT string_agg(id || ' ' || email, E'\n') INTO payload
+        FROM (SELECT id, email FROM old_rows UNION SELECT id, email FROM new_rows) changed;
+    END IF;
+    IF payload IS NULL THEN
+        RETURN NULL;
+    END IF;
+    IF octet_length(payload) > 7900 THEN
+        payload := '*';
+    END IF;
+    PERFORM pg_notify('users_changed', payload);
+    RETURN NULL;
+END
+$$;
+DROP TRIGGER IF EXISTS users_notify_insert ON users;
+CREATE TRIGGER users_notify_insert AFTER INSERT ON users
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION users_notify_change();
@@ -0,0 +1,2 @@
+-- Created by the former migration 5 for a name prefix search no query runs; it only slowed writes
+DROP INDEX CONCURRENTLY IF EXISTS idx_users_name_lower_prefix;
@@ -0,0 +1,9 @@
+-- Matches the User entity; IF NOT EXISTS adopts tables created by the former hbm2ddl update + import.sql
+CREATE TABLE IF NOT EXISTS users (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(25) NOT NULL,
+    email VARCHAR(50) NOT NULL,
+    age INTEGER,
+    created_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT users_email_key UNIQUE (email)
+);
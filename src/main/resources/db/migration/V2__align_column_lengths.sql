@@ -0,0 +1,5 @@
+-- import.sql created VARCHAR(100)/VARCHAR(150); User declares @Column(length = 25/50).
+-- Fails, leaving the schema untouched, if existing rows are longer than the entity allows.
+ALTER TABLE users
+    ALTER COLUMN name TYPE VARCHAR(25),
+    ALTER COLUMN email TYPE VARCHAR(50);
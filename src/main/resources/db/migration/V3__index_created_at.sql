@@ -0,0 +1,2 @@
+-- (created_at, id) keyset pagination and created_at range scans (findCreatedBetween)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_created_at_id ON users (created_at, id);
@@ -0,0 +1,2 @@
+-- Case-insensitive email lookups: WHERE lower(email) = lower(?)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email_lower ON users (lower(email));
@@ -0,0 +1,8 @@
+-- Emails are stored trimmed and lower-cased (User.normalizeEmail), so case-insensitive lookups stay
+-- "email = ?" on users_email_key. Addresses differing only in case belong to near-duplicate users:
+-- the UPDATE then fails on users_email_key naming the address, and those users must be merged first.
+-- Large tables can be normalized beforehand, online and in chunks, by a PartitionedUserJob running
+-- UserBatchTask.normalizeEmails(); this UPDATE then finds nothing left to change.
+UPDATE users SET email = lower(btrim(email)) WHERE email <> lower(btrim(email));
+-- NOT VALID checks new rows only and takes its lock briefly; V7 validates existing rows
+ALTER TABLE users ADD CONSTRAINT users_email_normalized CHECK (email = lower(btrim(email))) NOT VALID;
@@ -0,0 +1,2 @@
+-- Scans the table under SHARE UPDATE EXCLUSIVE, which does not block reads or writes
+ALTER TABLE users VALIDATE CONSTRAINT users_email_normalized;
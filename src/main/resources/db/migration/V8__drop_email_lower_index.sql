@@ -0,0 +1,2 @@
+-- Lookups match normalized emails on users_email_key; lower(email) is no longer queried
+DROP INDEX CONCURRENTLY IF EXISTS idx_users_email_lower;
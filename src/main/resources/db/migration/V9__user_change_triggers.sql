@@ -0,0 +1,35 @@
+-- Publishes committed updates, deletes and truncates of users on the users_changed channel
+-- (see UserChangeTrigger for the payload). Formerly installed by every node on start.
+CREATE OR REPLACE FUNCTION users_notify_change() RETURNS trigger LANGUAGE plpgsql AS $$
+DECLARE
+    payload text;
+BEGIN
+    IF TG_OP = 'TRUNCATE' THEN
+        payload := '*';
+    ELSIF TG_OP = 'DELETE' THEN
+        SELECT string_agg(id || ' ' || email, E'\n') INTO payload FROM old_rows;
+    ELSE
+        SELECT string_agg(id || ' ' || email, E'\n') INTO payload
+        FROM (SELECT id, email FROM old_rows UNION SELECT id, email FROM new_rows) changed;
+    END IF;
+    IF payload IS NULL THEN
+        RETURN NULL;
+    END IF;
+    IF octet_length(payload) > 7900 THEN
+        payload := '*';
+    END IF;
+    PERFORM pg_notify('users_changed', payload);
+    RETURN NULL;
+END
+$$;
+DROP TRIGGER IF EXISTS users_notify_update ON users;
+CREATE TRIGGER users_notify_update AFTER UPDATE ON users
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION users_notify_change();
+DROP TRIGGER IF EXISTS users_notify_delete ON users;
+CREATE TRIGGER users_notify_delete AFTER DELETE ON users
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION users_notify_change();
+DROP TRIGGER IF EXISTS users_notify_truncate ON users;
+CREATE TRIGGER users_notify_truncate AFTER TRUNCATE ON users
+    FOR EACH STATEMENT EXECUTE FUNCTION users_notify_change();
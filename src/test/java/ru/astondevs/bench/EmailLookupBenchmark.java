@@ -0,0 +1,98 @@
+package ru.astondevs.bench;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.astondevs.dao.UserDao;
+import ru.astondevs.dao.UserDaoImpl;
+import ru.astondevs.entity.User;
+import ru.astondevs.util.HibernateUtil;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Case-insensitive email lookup on a table of {@code users} rows:
+ * <ul>
+ *     <li>{@code normalizedEmail}: {@link UserDao#findByEmail} with a mixed-case address, which
+ *     normalizes it and probes the unique index on {@code email};</li>
+ *     <li>{@code upperEmailScan}: {@code upper(email) = upper(?)}, what the lookup costs without a
+ *     normalized key or a matching expression index.</li>
+ * </ul>
+ * Runs against the database configured in {@code hibernate.cfg.xml}, like {@link UserDaoBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailLookupBenchmark {
+    private static final String DOMAIN = "@Email.Bench.Test";
+
+    @Param({"200000"})
+    public int users;
+
+    private SessionFactory sessionFactory;
+    private UserDao userDao;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionFactory = HibernateUtil.getSessionFactory();
+        userDao = new UserDaoImpl();
+        sessionFactory.inTransaction(session -> session
+                .createNativeMutationQuery("INSERT INTO users (name, email, age, created_at) SELECT 'Email ' || g,"
+                        + " 'user' || g || lower(:domain), 30, now() FROM generate_series(1, :users) g")
+                .setParameter("domain", DOMAIN)
+                .setParameter("users", users)
+                .executeUpdate());
+        sessionFactory.inTransaction(session -> session.createNativeMutationQuery("ANALYZE users").executeUpdate());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.inTransaction(session -> session
+                .createNativeMutationQuery("DELETE FROM users WHERE email LIKE :pattern")
+                .setParameter("pattern", "%" + DOMAIN.toLowerCase())
+                .executeUpdate());
+        HibernateUtil.shutdown();
+    }
+
+    private String randomEmail() {
+        return "User" + (ThreadLocalRandom.current().nextInt(users) + 1) + DOMAIN;
+    }
+
+    @Benchmark
+    public Optional<User> normalizedEmail() {
+        return userDao.findByEmail(randomEmail());
+    }
+
+    @Benchmark
+    public Long upperEmailScan() {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createNativeQuery("SELECT count(*) FROM users WHERE upper(email) = upper(:email)", Long.class)
+                    .setParameter("email", randomEmail())
+                    .getSingleResult();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EmailLookupBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,105 @@
+package ru.astondevs.bench;
+
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.astondevs.dao.UserDaoImpl;
+import ru.astondevs.service.purge.PurgeCriteria;
+import ru.astondevs.service.purge.PurgeReport;
+import ru.astondevs.service.purge.UserPurgeJob;
+import ru.astondevs.util.HibernateUtil;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One {@link UserPurgeJob} run over {@value #ROWS} seeded users per iteration, by chunk size. The
+ * score is the run time, so throughput is {@value #ROWS} rows divided by it. The secondary results
+ * are totals over the measured iterations: rows deleted, chunks, and milliseconds spent inside
+ * chunk transactions, i.e. holding row locks ({@code lockHeldMs / chunks} is the average hold).
+ * Seeded users are created in 1990 so the purge window does not touch real data. Runs against the
+ * database configured in {@code hibernate.cfg.xml}, like {@link UserDaoBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PurgeBenchmark {
+    private static final int ROWS = 50_000;
+    private static final LocalDateTime FROM = LocalDateTime.of(1990, 1, 1, 0, 0);
+    private static final PurgeCriteria CRITERIA = PurgeCriteria.createdBetween(FROM, FROM.plusYears(1));
+
+    @Param({"100", "1000", "5000"})
+    public int chunkSize;
+
+    private SessionFactory sessionFactory;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PurgeMetrics {
+        public long deletedRows;
+        public long chunks;
+        public double lockHeldMs;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionFactory = HibernateUtil.getSessionFactory();
+    }
+
+    @Setup(Level.Iteration)
+    public void seed() {
+        sessionFactory.inTransaction(session -> session
+                .createNativeMutationQuery("INSERT INTO users (name, email, age, created_at) SELECT 'Purge ' || g,"
+                        + " 'purge' || g || '@purge.bench.test', 30, CAST(:from AS timestamp) + g * interval '1 second'"
+                        + " FROM generate_series(1, :rows) g")
+                .setParameter("from", FROM)
+                .setParameter("rows", ROWS)
+                .executeUpdate());
+        sessionFactory.inTransaction(session -> session.createNativeMutationQuery("ANALYZE users").executeUpdate());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.inTransaction(session -> session
+                .createNativeMutationQuery("DELETE FROM users WHERE email LIKE '%@purge.bench.test'")
+                .executeUpdate());
+        HibernateUtil.shutdown();
+    }
+
+    @Benchmark
+    public PurgeReport purge(PurgeMetrics metrics) {
+        PurgeReport report = UserPurgeJob.builder()
+                .userDao(new UserDaoImpl())
+                .chunkSize(chunkSize)
+                .pause(Duration.ZERO)
+                .build()
+                .run(CRITERIA);
+        metrics.deletedRows += report.getDeletedRows();
+        metrics.chunks += report.getChunks();
+        metrics.lockHeldMs += report.getTotalChunkTime().toNanos() / 1e6;
+        return report;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PurgeBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,116 @@
+package ru.astondevs.bench;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.astondevs.entity.User;
+import ru.astondevs.entity.UserQueries;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of query parsing and planning on a {@code findByEmail} lookup in a short-lived session, as
+ * the DAO runs it:
+ * <ul>
+ *     <li>{@code namedQuery}: catalog query, HQL parsed once at startup;</li>
+ *     <li>{@code inlineHql}: the same HQL string passed to {@code createQuery}, served from
+ *     Hibernate's query plan cache after the first call;</li>
+ *     <li>{@code literalHql}: the email inlined as a literal, so every call is parsed by Hibernate
+ *     and planned by PostgreSQL from scratch (the worst case the other two avoid).</li>
+ * </ul>
+ * {@code prepareThreshold} is pgjdbc's: 0 never uses server-prepared statements (Parse and plan on
+ * every execution), 5 is the driver default and 1 is the project setting. Runs against the database
+ * configured in {@code hibernate.cfg.xml}, like {@link UserDaoBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryPreparationBenchmark {
+    private static final int USERS = 1_000;
+    private static final String FIND_BY_EMAIL = "FROM User WHERE email = :email";
+
+    @Param({"0", "5", "1"})
+    public String prepareThreshold;
+
+    private SessionFactory sessionFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .configure()
+                .setProperty("hibernate.connection.prepareThreshold", prepareThreshold)
+                .addAnnotatedClass(User.class)
+                .buildSessionFactory();
+        sessionFactory.inTransaction(session -> {
+            for (int i = 0; i < USERS; i++) {
+                session.persist(new User("Prepare " + i, email(i), 30));
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.inTransaction(session -> session
+                .createMutationQuery("DELETE FROM User WHERE email LIKE '%@prepare.bench.test'")
+                .executeUpdate());
+        sessionFactory.close();
+    }
+
+    private static String email(int index) {
+        return "user" + index + "@prepare.bench.test";
+    }
+
+    private static String randomEmail() {
+        return email(ThreadLocalRandom.current().nextInt(USERS));
+    }
+
+    @Benchmark
+    public User namedQuery() {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createNamedQuery(UserQueries.FIND_BY_EMAIL, User.class)
+                    .setParameter("email", randomEmail())
+                    .uniqueResult();
+        }
+    }
+
+    @Benchmark
+    public User inlineHql() {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createQuery(FIND_BY_EMAIL, User.class)
+                    .setParameter("email", randomEmail())
+                    .uniqueResult();
+        }
+    }
+
+    @Benchmark
+    public User literalHql() {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createQuery("FROM User WHERE email = '" + randomEmail() + "'", User.class)
+                    .uniqueResult();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(QueryPreparationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,97 @@
+package ru.astondevs.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.astondevs.dao.JdbcUserDao;
+import ru.astondevs.dao.UserDao;
+import ru.astondevs.dao.UserDaoImpl;
+import ru.astondevs.entity.User;
+import ru.astondevs.util.HibernateUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the Hibernate and plain-JDBC {@link UserDao} on the hot paths. Runs against the database
+ * configured in {@code hibernate.cfg.xml}:
+ * <pre>
+ * mvn test-compile
+ * java -cp target/test-classes:target/classes:&lt;test classpath&gt; ru.astondevs.bench.UserDaoBenchmark
+ * </pre>
+ * Set the log level of {@code ru.astondevs} to WARN first; per-call INFO logging otherwise dominates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserDaoBenchmark {
+    private static final int USERS = 1_000;
+
+    @Param({"hibernate", "jdbc"})
+    public String implementation;
+
+    private UserDao userDao;
+    private final List<Long> ids = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        userDao = "jdbc".equals(implementation) ? new JdbcUserDao() : new UserDaoImpl();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(new User("Bench " + i, "bench" + i + "." + implementation + "@bench.test", 30));
+        }
+        ids.addAll(userDao.saveAll(users));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        userDao.deleteByIds(ids);
+        HibernateUtil.shutdown();
+    }
+
+    private int randomIndex() {
+        return ThreadLocalRandom.current().nextInt(USERS);
+    }
+
+    @Benchmark
+    public Optional<User> findById() {
+        return userDao.findById(ids.get(randomIndex()));
+    }
+
+    @Benchmark
+    public Optional<User> findByEmail() {
+        return userDao.findByEmail("bench" + randomIndex() + "." + implementation + "@bench.test");
+    }
+
+    @Benchmark
+    public User update() {
+        int index = randomIndex();
+        User user = new User("Bench updated", "bench" + index + "." + implementation + "@bench.test", 31);
+        user.setId(ids.get(index));
+        userDao.update(user);
+        return user;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(UserDaoBenchmark.class.getSimpleName()).build()).run();
+    }
+}
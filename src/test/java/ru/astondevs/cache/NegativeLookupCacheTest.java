@@ -0,0 +1,67 @@
+package ru.astondevs.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NegativeLookupCacheTest {
+
+    @Test
+    void isKnownAbsent_ShouldForgetEntries_AfterTtl() throws Exception {
+        // Given
+        NegativeLookupCache<Long> cache = new NegativeLookupCache<>(Duration.ofMillis(20), 10);
+
+        // When
+        cache.markAbsent(1L);
+
+        // Then
+        assertThat(cache.isKnownAbsent(1L)).isTrue();
+        Thread.sleep(30);
+        assertThat(cache.isKnownAbsent(1L)).isFalse();
+    }
+
+    @Test
+    void load_ShouldRememberMiss_WhenKeyUnchanged() {
+        // Given
+        NegativeLookupCache<Long> cache = new NegativeLookupCache<>(Duration.ofMinutes(1), 10);
+
+        // When
+        cache.load(1L, Optional::empty);
+
+        // Then
+        assertThat(cache.isKnownAbsent(1L)).isTrue();
+    }
+
+    @Test
+    void load_ShouldNotRememberMiss_WhenKeyInvalidatedDuringLookup() {
+        // Given
+        NegativeLookupCache<Long> cache = new NegativeLookupCache<>(Duration.ofMinutes(1), 10);
+
+        // When
+        cache.load(1L, () -> {
+            cache.invalidate(1L);
+            return Optional.empty();
+        });
+
+        // Then
+        assertThat(cache.isKnownAbsent(1L)).isFalse();
+    }
+
+    @Test
+    void load_ShouldNotRememberMiss_WhenClearedDuringLookup() {
+        // Given
+        NegativeLookupCache<Long> cache = new NegativeLookupCache<>(Duration.ofMinutes(1), 10);
+
+        // When
+        cache.load(1L, () -> {
+            cache.clear();
+            return Optional.empty();
+        });
+
+        // Then
+        assertThat(cache.isKnownAbsent(1L)).isFalse();
+    }
+}
@@ -0,0 +1,49 @@
+package ru.astondevs.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScalableBloomFilterTest {
+
+    @Test
+    void mightContain_ShouldNeverMissAddedKeys_WhileGrowing() {
+        // Given
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01);
+
+        // When
+        for (int i = 0; i < 50_000; i++) {
+            filter.add("user" + i + "@example.com");
+        }
+
+        // Then
+        assertThat(filter.sliceCount()).isGreaterThan(1);
+        for (int i = 0; i < 50_000; i++) {
+            assertThat(filter.mightContain("user" + i + "@example.com")).isTrue();
+        }
+        assertThat(filter.expectedFalsePositiveRate()).isLessThan(0.01);
+    }
+
+    @Test
+    void mightContain_ShouldStayUnderTargetRate_ForMillionUsers() {
+        // Given
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000_000, 0.01);
+        for (int i = 0; i < 1_000_000; i++) {
+            filter.add("user" + i + "@example.com");
+        }
+
+        // When
+        int falsePositives = 0;
+        int probes = 1_000_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("absent" + i + "@example.com")) {
+                falsePositives++;
+            }
+        }
+
+        // Then
+        double rate = (double) falsePositives / probes;
+        assertThat(rate).isLessThan(0.01);
+        assertThat(filter.memoryBytes()).isLessThan(1_500_000);
+    }
+}
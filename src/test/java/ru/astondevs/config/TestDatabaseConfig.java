@@ -3,6 +3,7 @@ package ru.astondevs.config;
 import org.hibernate.SessionFactory;
 import org.hibernate.cfg.Configuration;
 import org.testcontainers.containers.PostgreSQLContainer;
+import ru.astondevs.migration.SchemaMigrator;
 
 public class TestDatabaseConfig {
     private static PostgreSQLContainer<?> postgreSQLContainer;
@@ -20,11 +21,13 @@ public class TestDatabaseConfig {
     public static void stopContainer() {
         if (postgreSQLContainer != null) {
             postgreSQLContainer.stop();
+            postgreSQLContainer = null;
         }
     }
 
     public static SessionFactory createTestSessionFactory() {
         startContainer();
+        new SchemaMigrator(getJdbcUrl(), getUsername(), getPassword()).migrate();
 
         Configuration configuration = new Configuration();
         configuration.configure("hibernate-test.cfg.xml");
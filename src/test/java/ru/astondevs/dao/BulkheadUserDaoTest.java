@@ -0,0 +1,190 @@
+package ru.astondevs.dao;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.astondevs.entity.User;
+import ru.astondevs.exception.DaoOverloadedException;
+import ru.astondevs.util.Bulkhead;
+import ru.astondevs.util.TransactionRunner;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BulkheadUserDaoTest {
+
+    @Mock
+    private UserDao userDao;
+
+    @Test
+    void findById_ShouldShedLoad_WhenDatabaseIsSlow() throws Exception {
+        // Given
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        when(userDao.findById(anyLong())).thenAnswer(invocation -> {
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            Thread.sleep(200);
+            concurrent.decrementAndGet();
+            return Optional.of(new User("Slow", "slow@example.com", 30));
+        });
+        Bulkhead reads = Bulkhead.builder()
+                .name("reads").maxConcurrent(2).maxQueueDepth(2).maxWait(Duration.ofMillis(50)).build();
+        BulkheadUserDao dao = new BulkheadUserDao(userDao, reads, Bulkhead.builder().name("writes").maxConcurrent(1).build());
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(20);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            long id = i;
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    dao.findById(id);
+                    return true;
+                } catch (DaoOverloadedException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+        int succeeded = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(5, TimeUnit.SECONDS)) {
+                succeeded++;
+            }
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(maxConcurrent.get()).isLessThanOrEqualTo(2);
+        assertThat(succeeded).isEqualTo(2);
+        assertThat(reads.getRejectedCount()).isEqualTo(18);
+        assertThat(reads.getQueueFullRejectedCount()).isEqualTo(16);
+        assertThat(reads.getTimeoutRejectedCount()).isEqualTo(2);
+        assertThat(reads.getQueueDepth()).isZero();
+        assertThat(reads.getInFlight()).isZero();
+    }
+
+    @Test
+    void save_ShouldNotUseReadPermits() {
+        // Given
+        Bulkhead reads = Bulkhead.builder().name("reads").maxConcurrent(1).build();
+        Bulkhead writes = Bulkhead.builder().name("writes").maxConcurrent(1).build();
+        BulkheadUserDao dao = new BulkheadUserDao(userDao, reads, writes);
+        User user = new User("Writer", "writer@example.com", 30);
+        when(userDao.save(user)).thenReturn(1L);
+
+        // When
+        Long id = dao.save(user);
+
+        // Then
+        assertThat(id).isEqualTo(1L);
+        assertThat(writes.getAcceptedCount()).isEqualTo(1);
+        assertThat(reads.getAcceptedCount()).isZero();
+    }
+
+    @Test
+    void bound_ShouldHoldOneWritePermit_ForWholeUnitOfWork() throws Exception {
+        // Given
+        Bulkhead reads = Bulkhead.builder().name("reads").maxConcurrent(1).build();
+        Bulkhead writes = Bulkhead.builder().name("writes").maxConcurrent(1).build();
+        BulkheadUserDao dao = new BulkheadUserDao(userDao, reads, writes);
+        TransactionRunner transactionRunner = dao.bound(TransactionRunner.direct());
+        User user = new User("Writer", "writer@example.com", 30);
+        when(userDao.findById(1L)).thenReturn(Optional.of(user));
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> transactionRunner.runInTransaction(() -> {
+            dao.findById(1L);
+            dao.update(user);
+            entered.countDown();
+            awaitQuietly(release);
+        }));
+        holder.start();
+        entered.await();
+
+        // When & Then
+        assertThrows(DaoOverloadedException.class, () -> transactionRunner.runInTransaction(() -> { }));
+        assertThrows(DaoOverloadedException.class, () -> dao.save(user));
+        release.countDown();
+        holder.join();
+        assertThat(writes.getAcceptedCount()).isEqualTo(1);
+        assertThat(reads.getAcceptedCount()).isZero();
+        assertThat(writes.getInFlight()).isZero();
+    }
+
+    @Test
+    void execute_ShouldRejectImmediately_WhenQueueDisabled() throws Exception {
+        // Given
+        Bulkhead bulkhead = Bulkhead.builder().name("single").maxConcurrent(1).build();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> bulkhead.run(() -> {
+            entered.countDown();
+            awaitQuietly(release);
+        }));
+        holder.start();
+        entered.await();
+
+        // When & Then
+        assertThrows(DaoOverloadedException.class, () -> bulkhead.execute(() -> 1));
+        release.countDown();
+        holder.join();
+        assertThat(bulkhead.execute(() -> 1)).isEqualTo(1);
+    }
+
+    @Test
+    void execute_ShouldShrinkLimit_WhenLatencyExceedsThreshold() {
+        // Given
+        Bulkhead bulkhead = Bulkhead.builder()
+                .name("adaptive")
+                .maxConcurrent(8)
+                .minLimit(2)
+                .latencyThreshold(Duration.ofMillis(5))
+                .build();
+
+        // When
+        bulkhead.run(() -> sleepQuietly(20));
+
+        // Then
+        assertThat(bulkhead.getLimit()).isEqualTo(6);
+
+        // Fast calls grow the limit back
+        for (int i = 0; i < 100; i++) {
+            bulkhead.run(() -> { });
+        }
+        assertThat(bulkhead.getLimit()).isEqualTo(8);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
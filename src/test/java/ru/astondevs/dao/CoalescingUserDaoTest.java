@@ -0,0 +1,155 @@
+package ru.astondevs.dao;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.astondevs.entity.User;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CoalescingUserDaoTest {
+    private static final int THREADS = 8;
+
+    @Mock
+    private UserDao userDao;
+
+    @Test
+    void findById_ShouldShareOneQuery_BetweenConcurrentCallers() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        when(userDao.findById(1L)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(user(1L, "hot@example.com"));
+        });
+        CoalescingUserDao dao = new CoalescingUserDao(userDao);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            // When
+            List<Future<Optional<User>>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> dao.findById(1L)));
+            }
+            awaitFollowers(dao, THREADS - 1);
+            release.countDown();
+
+            // Then
+            List<User> users = new ArrayList<>();
+            for (Future<Optional<User>> result : results) {
+                users.add(result.get(5, TimeUnit.SECONDS).orElseThrow());
+            }
+            verify(userDao, times(1)).findById(1L);
+            assertThat(users).extracting(User::getEmail).containsOnly("hot@example.com");
+            assertThat(users.get(0)).isNotSameAs(users.get(1));
+            assertThat(dao.getCoalescedCount()).isEqualTo(THREADS - 1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void findByEmail_ShouldPropagateLeaderFailure_AndNotCacheIt() {
+        // Given
+        when(userDao.findByEmail("a@example.com"))
+                .thenThrow(new RuntimeException("Failed to find user by email"))
+                .thenReturn(Optional.empty());
+        CoalescingUserDao dao = new CoalescingUserDao(userDao);
+
+        // When / Then
+        assertThatThrownBy(() -> dao.findByEmail("a@example.com")).hasMessage("Failed to find user by email");
+        assertThat(dao.findByEmail("a@example.com")).isEmpty();
+    }
+
+    @Test
+    void findByEmail_ShouldNotJoinLookupStartedBeforeDelete() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        when(userDao.findByEmail("gone@example.com"))
+                .thenAnswer(invocation -> {
+                    release.await(5, TimeUnit.SECONDS);
+                    return Optional.of(user(1L, "gone@example.com"));
+                })
+                .thenReturn(Optional.empty());
+        CoalescingUserDao dao = new CoalescingUserDao(userDao);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<Optional<User>> before = executor.submit(() -> dao.findByEmail("gone@example.com"));
+            while (dao.getLeaderCount() == 0) {
+                Thread.sleep(5);
+            }
+
+            // When
+            dao.delete(1L);
+            Optional<User> after = dao.findByEmail("gone@example.com");
+            release.countDown();
+
+            // Then
+            assertThat(after).isEmpty();
+            assertThat(before.get(5, TimeUnit.SECONDS)).isPresent();
+            verify(userDao, times(2)).findByEmail("gone@example.com");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void findById_ShouldBatchDistinctKeys_WithinWindow() throws Exception {
+        // Given
+        when(userDao.findAllByIds(any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().filter(id -> id != 3L).map(id -> user(id, id + "@example.com")).toList();
+        });
+        CoalescingUserDao dao = new CoalescingUserDao(userDao, Duration.ofMillis(200));
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+
+        try {
+            // When
+            Future<Optional<User>> first = executor.submit(() -> dao.findById(1L));
+            Future<Optional<User>> second = executor.submit(() -> dao.findById(2L));
+            Future<Optional<User>> missing = executor.submit(() -> dao.findById(3L));
+
+            // Then
+            assertThat(first.get(5, TimeUnit.SECONDS)).map(User::getId).contains(1L);
+            assertThat(second.get(5, TimeUnit.SECONDS)).map(User::getId).contains(2L);
+            assertThat(missing.get(5, TimeUnit.SECONDS)).isEmpty();
+            assertThat(dao.getBatchCount()).isEqualTo(1);
+            verify(userDao, never()).findById(any());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitFollowers(CoalescingUserDao dao, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (dao.getCoalescedCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static User user(Long id, String email) {
+        User user = new User("User" + id, email, 30);
+        user.setId(id);
+        return user;
+    }
+}
@@ -0,0 +1,222 @@
+package ru.astondevs.dao;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.astondevs.entity.User;
+import ru.astondevs.util.HibernateUtil;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EmailFilteringUserDaoTest {
+
+    @Mock
+    private UserDao userDao;
+
+    private EmailFilteringUserDao filteringDao;
+
+    @BeforeEach
+    void setUp() {
+        User existing = new User("Existing", "existing@example.com", 30);
+        existing.setId(1L);
+        when(userDao.findPage(null, 5_000)).thenReturn(List.of(existing));
+        filteringDao = new EmailFilteringUserDao(userDao, 1_000, 0.001, Duration.ofMinutes(1), 100);
+        filteringDao.followFeed(() -> true);
+        filteringDao.rebuild();
+    }
+
+    @Test
+    void findByEmail_ShouldSkipDatabase_WhenEmailDefinitelyAbsent() {
+        // When
+        Optional<User> user = filteringDao.findByEmail("new@example.com");
+
+        // Then
+        assertThat(user).isEmpty();
+        assertThat(filteringDao.getFilterSkipCount()).isEqualTo(1);
+        verify(userDao, never()).findByEmail(anyString());
+    }
+
+    @Test
+    void findByEmail_ShouldQueryDatabase_WhenFeedNotSubscribed() {
+        // Given
+        filteringDao.followFeed(() -> false);
+        when(userDao.findByEmail("new@example.com")).thenReturn(Optional.empty());
+
+        // When
+        Optional<User> user = filteringDao.findByEmail("new@example.com");
+
+        // Then
+        assertThat(user).isEmpty();
+        assertThat(filteringDao.getFilterSkipCount()).isZero();
+        verify(userDao).findByEmail("new@example.com");
+    }
+
+    @Test
+    void findByEmail_ShouldFindUserCreatedByOtherNode() {
+        // Given
+        User created = new User("Other", "other@example.com", 25);
+        when(userDao.findByEmail("other@example.com")).thenReturn(Optional.of(created));
+
+        // When
+        filteringDao.onNotification("+\n7 other@example.com");
+
+        // Then
+        assertThat(filteringDao.findByEmail("other@example.com")).contains(created);
+    }
+
+    @Test
+    void findByEmail_ShouldQueryDatabase_AfterFeedGapUntilRebuilt() {
+        // Given
+        when(userDao.findByEmail("missed@example.com")).thenReturn(Optional.empty());
+
+        // When
+        filteringDao.onGap();
+        filteringDao.findByEmail("missed@example.com");
+        filteringDao.rebuild();
+        filteringDao.findByEmail("missed@example.com");
+
+        // Then
+        verify(userDao, times(1)).findByEmail("missed@example.com");
+        assertThat(filteringDao.getFilterSkipCount()).isEqualTo(1);
+    }
+
+    @Test
+    void rebuild_ShouldKeepEmailsPublishedDuringScan() {
+        // Given
+        User existing = new User("Existing", "existing@example.com", 30);
+        existing.setId(1L);
+        when(userDao.findPage(null, 5_000)).thenAnswer(invocation -> {
+            filteringDao.onNotification("+\n8 late@example.com");
+            return List.of(existing);
+        });
+
+        // When
+        filteringDao.rebuild();
+
+        // Then
+        assertThat(filteringDao.getEmailFilter().mightContain("late@example.com")).isTrue();
+    }
+
+    @Test
+    void findByEmail_ShouldQueryDatabase_WhenEmailMayExist() {
+        // Given
+        User existing = new User("Existing", "existing@example.com", 30);
+        when(userDao.findByEmail("existing@example.com")).thenReturn(Optional.of(existing));
+
+        // When
+        Optional<User> user = filteringDao.findByEmail("existing@example.com");
+
+        // Then
+        assertThat(user).contains(existing);
+    }
+
+    @Test
+    void findByEmail_ShouldPassFilter_WhenEmailDiffersOnlyInCase() {
+        // Given
+        User existing = new User("Existing", "existing@example.com", 30);
+        when(userDao.findByEmail("existing@example.com")).thenReturn(Optional.of(existing));
+
+        // When
+        Optional<User> user = filteringDao.findByEmail("Existing@EXAMPLE.com");
+
+        // Then
+        assertThat(user).contains(existing);
+        assertThat(filteringDao.getFilterSkipCount()).isZero();
+    }
+
+    @Test
+    void save_ShouldMakeEmailVisibleToLookups() {
+        // Given
+        User created = new User("Created", "created@example.com", 20);
+        when(userDao.save(created)).thenReturn(2L);
+        when(userDao.findByEmail("created@example.com")).thenReturn(Optional.of(created));
+
+        // When
+        filteringDao.save(created);
+
+        // Then
+        assertThat(filteringDao.findByEmail("created@example.com")).contains(created);
+    }
+
+    @Test
+    void findById_ShouldCacheMisses() {
+        // Given
+        when(userDao.findById(42L)).thenReturn(Optional.empty());
+
+        // When
+        filteringDao.findById(42L);
+        filteringDao.findById(42L);
+
+        // Then
+        verify(userDao, times(1)).findById(42L);
+        assertThat(filteringDao.getNegativeCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findById_ShouldNotCacheMiss_WhenUserCreatedDuringLookup() {
+        // Given
+        User created = new User("Created", "created@example.com", 20);
+        created.setId(42L);
+        when(userDao.findById(42L)).thenAnswer(invocation -> {
+            filteringDao.onNotification("+\n42 created@example.com");
+            return Optional.empty();
+        }).thenReturn(Optional.of(created));
+
+        // When
+        filteringDao.findById(42L);
+        Optional<User> user = filteringDao.findById(42L);
+
+        // Then
+        assertThat(user).contains(created);
+        assertThat(filteringDao.getNegativeCacheHitCount()).isZero();
+    }
+
+    @Test
+    void findByEmail_ShouldQueryDatabase_InsideTransaction() {
+        // Given
+        User created = new User("Created", "created@example.com", 20);
+        when(userDao.findByEmail("created@example.com")).thenReturn(Optional.of(created));
+
+        // When
+        Optional<User> user;
+        try (MockedStatic<HibernateUtil> hibernate = mockStatic(HibernateUtil.class)) {
+            hibernate.when(HibernateUtil::isTransactionActive).thenReturn(true);
+            user = filteringDao.findByEmail("created@example.com");
+        }
+
+        // Then
+        assertThat(user).contains(created);
+        assertThat(filteringDao.getFilterSkipCount()).isZero();
+    }
+
+    @Test
+    void findById_ShouldNotCacheMiss_InsideTransaction() {
+        // Given
+        when(userDao.findById(42L)).thenReturn(Optional.empty());
+
+        // When
+        try (MockedStatic<HibernateUtil> hibernate = mockStatic(HibernateUtil.class)) {
+            hibernate.when(HibernateUtil::isTransactionActive).thenReturn(true);
+            filteringDao.findById(42L);
+        }
+        filteringDao.findById(42L);
+
+        // Then
+        verify(userDao, times(2)).findById(42L);
+        assertThat(filteringDao.getNegativeCacheHitCount()).isZero();
+    }
+}
@@ -0,0 +1,39 @@
+package ru.astondevs.dao;
+
+import org.junit.jupiter.api.Test;
+import ru.astondevs.entity.User;
+import ru.astondevs.util.HibernateUtil;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every {@link UserDaoImplIntegrationTest} scenario against {@link JdbcUserDao}.
+ */
+class JdbcUserDaoIntegrationTest extends UserDaoImplIntegrationTest {
+
+    @Override
+    protected UserDao createUserDao() {
+        return new JdbcUserDao();
+    }
+
+    @Override
+    @Test
+    void inTransaction_ShouldShareSessionBetweenCalls() {
+        // Given
+        UserDao userDao = createUserDao();
+        Long userId = userDao.save(new User("Shared", "shared@example.com", 33));
+
+        // When
+        boolean sameBackend = HibernateUtil.inTransaction(() -> {
+            userDao.update(userDao.findById(userId).map(user -> {
+                user.setAge(34);
+                return user;
+            }).orElseThrow());
+            // Reads inside the unit of work see its own uncommitted write
+            return userDao.findByEmail("shared@example.com").orElseThrow().getAge() == 34;
+        });
+
+        // Then
+        assertThat(sameBackend).isTrue();
+    }
+}
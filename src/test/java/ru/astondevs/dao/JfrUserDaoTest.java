@@ -0,0 +1,89 @@
+package ru.astondevs.dao;
+
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.astondevs.entity.User;
+import ru.astondevs.jfr.DaoOperationEvent;
+import ru.astondevs.jfr.JfrSummary;
+import ru.astondevs.jfr.TransactionEvent;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JfrUserDaoTest {
+
+    @Mock
+    private UserDao userDao;
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void summary_ShouldTabulateOperationsByMethodAndKeyKind_WhenEventsAreEnabled() throws Exception {
+        // Given
+        when(userDao.findById(1L)).thenReturn(Optional.of(new User("Ann", "ann@example.com", 30)));
+        when(userDao.findById(2L)).thenReturn(Optional.empty());
+        when(userDao.findAllByIds(List.of(1L, 2L, 3L))).thenReturn(List.of(
+                new User("Ann", "ann@example.com", 30), new User("Bob", "bob@example.com", 40)));
+        when(userDao.findByEmail("boom@example.com")).thenThrow(new RuntimeException("boom"));
+        JfrUserDao dao = new JfrUserDao(userDao);
+        Path file = tempDir.resolve("dao.jfr");
+
+        // When
+        try (Recording recording = new Recording()) {
+            recording.enable(DaoOperationEvent.NAME).withThreshold(Duration.ZERO);
+            recording.enable(TransactionEvent.NAME).withThreshold(Duration.ZERO);
+            recording.start();
+            dao.findById(1L);
+            dao.findById(2L);
+            dao.findAllByIds(List.of(1L, 2L, 3L));
+            assertThatThrownBy(() -> dao.findByEmail("boom@example.com")).hasMessage("boom");
+            TransactionEvent.begin("unitOfWork").end(true);
+            TransactionEvent.begin("unitOfWork").end(false);
+            recording.stop();
+            recording.dump(file);
+        }
+        JfrSummary summary = JfrSummary.summarize(file);
+
+        // Then
+        assertThat(summary.getOperations()).containsOnlyKeys(
+                "findById (id)", "findAllByIds (ids)", "findByEmail (email)");
+        assertThat(summary.getOperations().get("findById (id)").getCount()).isEqualTo(2);
+        assertThat(summary.getOperations().get("findById (id)").getUnits()).isEqualTo(1);
+        assertThat(summary.getOperations().get("findAllByIds (ids)").getUnits()).isEqualTo(2);
+        assertThat(summary.getOperations().get("findByEmail (email)").getFailedCount()).isEqualTo(1);
+        assertThat(summary.getTransactions()).containsOnlyKeys("unitOfWork commit", "unitOfWork rollback");
+        assertThat(summary.format()).contains("DAO operations", "findById (id)", "p99 ms", "Transactions");
+    }
+
+    @Test
+    void events_ShouldBeDisabled_ByDefault() throws Exception {
+        // Given
+        when(userDao.findById(1L)).thenReturn(Optional.empty());
+        JfrUserDao dao = new JfrUserDao(userDao);
+        Path file = tempDir.resolve("default.jfr");
+
+        // When
+        try (Recording recording = new Recording()) {
+            recording.start();
+            assertThat(new DaoOperationEvent().isEnabled()).isFalse();
+            dao.findById(1L);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // Then
+        assertThat(JfrSummary.summarize(file).getOperations()).isEmpty();
+    }
+}
@@ -0,0 +1,104 @@
+package ru.astondevs.dao;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.NamedQuery;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.astondevs.config.TestDatabaseConfig;
+import ru.astondevs.entity.User;
+import ru.astondevs.entity.UserQueries;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class NamedQueryCatalogIntegrationTest {
+
+    private SessionFactory sessionFactory;
+
+    @BeforeAll
+    void setUp() {
+        sessionFactory = TestDatabaseConfig.createTestSessionFactory();
+    }
+
+    @AfterAll
+    void tearDown() {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+        TestDatabaseConfig.stopContainer();
+    }
+
+    @Test
+    void sessionFactory_ShouldRegisterEveryUserQuery() {
+        // Given / When
+        try (Session session = sessionFactory.openSession()) {
+            // Then
+            for (String name : UserQueries.USER_QUERIES) {
+                assertThat(session.createNamedQuery(name, User.class)).as(name).isNotNull();
+            }
+            assertThat(session.createNamedQuery(UserQueries.FIND_IDS_CREATED_BETWEEN, Long.class)).isNotNull();
+            assertThat(session.createNamedMutationQuery(UserQueries.DELETE_BY_IDS)).isNotNull();
+        }
+    }
+
+    @Test
+    void sessionFactory_ShouldFailToStart_WhenNamedQueryIsBroken() {
+        // Given
+        Configuration configuration = new Configuration();
+        configuration.configure("hibernate-test.cfg.xml");
+        configuration.setProperty("hibernate.connection.url", TestDatabaseConfig.getJdbcUrl());
+        configuration.setProperty("hibernate.connection.username", TestDatabaseConfig.getUsername());
+        configuration.setProperty("hibernate.connection.password", TestDatabaseConfig.getPassword());
+        configuration.setProperty("hibernate.hbm2ddl.auto", "none");
+        configuration.addAnnotatedClass(User.class);
+        configuration.addAnnotatedClass(BrokenQueryHolder.class);
+
+        // When
+        Exception exception = assertThrows(Exception.class, configuration::buildSessionFactory);
+
+        // Then
+        assertThat(exception).hasStackTraceContaining("BrokenQueryHolder.findByNickname");
+    }
+
+    @Test
+    void findByEmail_ShouldRunAsServerPreparedStatement_FromFirstCall() {
+        // Given
+        try (Session session = sessionFactory.openSession()) {
+            // When
+            session.createNamedQuery(UserQueries.FIND_BY_EMAIL, User.class)
+                    .setParameter("email", "prepared@example.com")
+                    .uniqueResult();
+
+            // Then
+            long prepared = session.doReturningWork(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "SELECT count(*) FROM pg_prepared_statements"
+                                + " WHERE statement LIKE 'select %from users % where %.email=$1'");
+                     ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    return resultSet.getLong(1);
+                }
+            });
+            assertThat(prepared).isEqualTo(1);
+        }
+    }
+
+    @Entity
+    @NamedQuery(name = "BrokenQueryHolder.findByNickname", query = "FROM User WHERE nickname = :nickname")
+    static class BrokenQueryHolder {
+        @Id
+        private Long id;
+    }
+}
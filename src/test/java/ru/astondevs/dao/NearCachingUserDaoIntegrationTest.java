@@ -0,0 +1,230 @@
+package ru.astondevs.dao;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.astondevs.config.TestDatabaseConfig;
+import ru.astondevs.entity.User;
+import ru.astondevs.util.HibernateUtil;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two {@link NearCachingUserDao} "nodes" sharing one database, each with its own listener.
+ */
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class NearCachingUserDaoIntegrationTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private SessionFactory sessionFactory;
+    private NearCachingUserDao nodeA;
+    private NearCachingUserDao nodeB;
+
+    @BeforeAll
+    void setUp() throws Exception {
+        sessionFactory = TestDatabaseConfig.createTestSessionFactory();
+        java.lang.reflect.Field field = HibernateUtil.class.getDeclaredField("sessionFactory");
+        field.setAccessible(true);
+        field.set(null, sessionFactory);
+    }
+
+    @AfterAll
+    void tearDown() {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+        TestDatabaseConfig.stopContainer();
+    }
+
+    @BeforeEach
+    void startNodes() throws Exception {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            session.createMutationQuery("DELETE FROM User").executeUpdate();
+            session.getTransaction().commit();
+        }
+        nodeA = startNode();
+        nodeB = startNode();
+    }
+
+    @AfterEach
+    void stopNodes() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    @Test
+    void findById_ShouldServeRepeatedLookupsFromCache() {
+        // Given
+        Long id = nodeA.save(new User("Cached", "cached@example.com", 30));
+
+        // When
+        nodeA.findById(id);
+        nodeA.findById(id);
+        nodeA.findByEmail("cached@example.com");
+        nodeA.findByEmail("cached@example.com");
+
+        // Then
+        assertThat(nodeA.getHitCount()).isEqualTo(2);
+        assertThat(nodeA.getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    void update_ShouldInvalidateOtherNode() {
+        // Given
+        Long id = nodeA.save(new User("Before", "before@example.com", 30));
+        User cached = nodeA.findById(id).orElseThrow();
+        assertThat(nodeA.findByEmail("before@example.com")).isPresent();
+
+        // When
+        cached.setName("After");
+        cached.setEmail("after@example.com");
+        long started = System.nanoTime();
+        nodeB.update(cached);
+        awaitTrue(() -> nodeA.findById(id).map(User::getName).orElse("").equals("After"));
+        Duration invalidation = Duration.ofNanos(System.nanoTime() - started);
+
+        // Then: one notification round trip, far below the polling timeout
+        assertThat(invalidation).isLessThan(Duration.ofSeconds(2));
+        assertThat(nodeA.findByEmail("before@example.com")).isEmpty();
+        assertThat(nodeA.findByEmail("after@example.com")).map(User::getId).contains(id);
+    }
+
+    @Test
+    void deleteByIds_ShouldInvalidateAllRows_WithOneNotification() {
+        // Given
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            users.add(new User("Bulk" + i, "bulk" + i + "@example.com", 20));
+        }
+        List<Long> ids = nodeB.saveAll(users);
+        ids.forEach(nodeA::findById);
+        long notificationsBefore = nodeA.getListener().getNotificationCount();
+
+        // When
+        nodeB.deleteByIds(ids);
+
+        // Then
+        awaitTrue(() -> nodeA.getInvalidatedRowCount() >= ids.size());
+        assertThat(nodeA.getListener().getNotificationCount() - notificationsBefore).isEqualTo(1);
+        assertThat(ids).allSatisfy(id -> assertThat(nodeA.findById(id)).isEmpty());
+    }
+
+    @Test
+    void reconnect_ShouldFlushCache_AfterMissedNotifications() throws Exception {
+        // Given
+        Long id = nodeA.save(new User("Stale", "stale@example.com", 30));
+        nodeA.findById(id);
+        long flushesBefore = nodeA.getFlushCount();
+        int pid = nodeA.getListener().getBackendPid();
+
+        // When: node A loses its listener connection and misses node B's update
+        try (Connection connection = openConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT pg_terminate_backend(?)")) {
+            statement.setInt(1, pid);
+            statement.execute();
+        }
+        awaitTrue(() -> !nodeA.getListener().isConnected());
+        User user = nodeB.findById(id).orElseThrow();
+        user.setName("Fresh");
+        nodeB.update(user);
+        awaitTrue(() -> nodeA.getListener().isConnected());
+
+        // Then
+        assertThat(nodeA.getListener().getReconnectCount()).isEqualTo(1);
+        assertThat(nodeA.getFlushCount()).isGreaterThan(flushesBefore);
+        assertThat(nodeA.findById(id)).map(User::getName).contains("Fresh");
+    }
+
+    @Test
+    void lookups_ShouldBypassCache_InsideUnitOfWork() {
+        // Given
+        Long id = nodeA.save(new User("Tx", "tx@example.com", 30));
+        nodeA.findById(id);
+
+        // When
+        String name = HibernateUtil.inTransaction(() -> {
+            User user = nodeA.findById(id).orElseThrow();
+            user.setName("TxUpdated");
+            nodeA.update(user);
+            return nodeA.findById(id).orElseThrow().getName();
+        });
+
+        // Then
+        assertThat(name).isEqualTo("TxUpdated");
+        assertThat(nodeA.findById(id)).map(User::getName).contains("TxUpdated");
+    }
+
+    @Test
+    void restoreSnapshot_ShouldPreloadUsers_AndEvictThoseChangedWhileDown() throws Exception {
+        // Given: node A caches three users and saves them on close
+        Path file = Files.createTempDirectory("near-cache").resolve("users.bin");
+        List<Long> ids = nodeA.saveAll(List.of(new User("Kept", "kept@example.com", 30),
+                new User("Changed", "changed@example.com", 31), new User("Deleted", "deleted@example.com", 32)));
+        ids.forEach(nodeA::findById);
+        nodeA.snapshotTo(file, 2).close();
+
+        // When: node B changes and deletes users while A is down, then A restarts
+        User changed = nodeB.findById(ids.get(1)).orElseThrow();
+        changed.setName("ChangedWhileDown");
+        nodeB.update(changed);
+        nodeB.delete(ids.get(2));
+        nodeA = startNode();
+        int preloaded = nodeA.restoreSnapshot(file);
+        int stale = nodeA.getRevalidation().get(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+
+        // Then
+        assertThat(preloaded).isEqualTo(3);
+        assertThat(stale).isEqualTo(2);
+        assertThat(nodeA.findById(ids.get(0))).map(User::getName).contains("Kept");
+        assertThat(nodeA.findByEmail("kept@example.com")).map(User::getId).contains(ids.get(0));
+        assertThat(nodeA.getHitCount()).isEqualTo(2);
+        assertThat(nodeA.findById(ids.get(1))).map(User::getName).contains("ChangedWhileDown");
+        assertThat(nodeA.findById(ids.get(2))).isEmpty();
+    }
+
+    private NearCachingUserDao startNode() throws InterruptedException {
+        NearCachingUserDao node = new NearCachingUserDao(new UserDaoImpl(), Duration.ofMinutes(10), 10_000)
+                .connect(TestDatabaseConfig.getJdbcUrl(), TestDatabaseConfig.getUsername(), TestDatabaseConfig.getPassword());
+        assertThat(node.getListener().awaitConnected(TIMEOUT)).isTrue();
+        return node;
+    }
+
+    private static Connection openConnection() throws Exception {
+        return DriverManager.getConnection(TestDatabaseConfig.getJdbcUrl(), TestDatabaseConfig.getUsername(),
+                TestDatabaseConfig.getPassword());
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not met within " + TIMEOUT);
+            }
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
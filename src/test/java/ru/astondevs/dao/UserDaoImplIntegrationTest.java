@@ -11,12 +11,29 @@ import org.junit.jupiter.api.TestInstance;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import ru.astondevs.config.TestDatabaseConfig;
 import ru.astondevs.entity.User;
+import ru.astondevs.exception.DaoTimeoutException;
+import ru.astondevs.service.purge.PurgeCriteria;
+import ru.astondevs.service.purge.PurgeReport;
+import ru.astondevs.service.purge.UserPurgeJob;
+import ru.astondevs.service.warmup.StartupWarmup;
+import ru.astondevs.service.warmup.WarmupReport;
 import ru.astondevs.util.HibernateUtil;
-
+import ru.astondevs.util.QueryTimeouts;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
 
 @Testcontainers
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -28,11 +45,15 @@ class UserDaoImplIntegrationTest {
     @BeforeAll
     void setUp() {
         sessionFactory = TestDatabaseConfig.createTestSessionFactory();
-        userDao = new UserDaoImpl();
+        userDao = createUserDao();
 
         setTestSessionFactory(sessionFactory);
     }
 
+    protected UserDao createUserDao() {
+        return new UserDaoImpl();
+    }
+
     @AfterAll
     void tearDown() {
         if (sessionFactory != null) {
@@ -117,6 +138,23 @@ class UserDaoImplIntegrationTest {
         assertThat(users).extracting(User::getName).containsExactlyInAnyOrder("User1", "User2", "User3");
     }
 
+    @Test
+    void findPageBefore_ShouldReturnPrecedingPage_InAscendingOrder() {
+        // Given
+        List<Long> ids = userDao.saveAll(List.of(new User("P1", "p1@example.com", 20),
+                new User("P2", "p2@example.com", 21), new User("P3", "p3@example.com", 22),
+                new User("P4", "p4@example.com", 23), new User("P5", "p5@example.com", 24)));
+
+        // When
+        List<User> before = userDao.findPageBefore(ids.get(4), 2);
+        List<User> last = userDao.findPageBefore(null, 3);
+
+        // Then
+        assertThat(before).extracting(User::getId).containsExactly(ids.get(2), ids.get(3));
+        assertThat(last).extracting(User::getId).containsExactly(ids.get(2), ids.get(3), ids.get(4));
+        assertThat(userDao.findPageBefore(ids.get(0), 2)).isEmpty();
+    }
+
     @Test
     void findAll_ShouldReturnEmptyList_WhenNoUsers() {
         // When
@@ -191,6 +229,66 @@ class UserDaoImplIntegrationTest {
         assertThat(foundUser).isEmpty();
     }
 
+    @Test
+    void findByEmail_ShouldIgnoreCaseAndSurroundingWhitespace() {
+        // Given
+        Long id = userDao.save(new User("Mixed Case", "Mixed.Case@Example.com", 28));
+
+        // When
+        Optional<User> foundUser = userDao.findByEmail(" MIXED.case@example.COM ");
+        List<User> foundUsers = userDao.findAllByEmails(List.of("mixed.CASE@example.com", "Other@Example.com"));
+
+        // Then
+        assertThat(foundUser).map(User::getId).contains(id);
+        assertThat(foundUser.get().getEmail()).isEqualTo("mixed.case@example.com");
+        assertThat(foundUsers).extracting(User::getId).containsExactly(id);
+    }
+
+    @Test
+    void saveIfEmailAbsent_ShouldRejectEmailDifferingOnlyInCase() {
+        // Given
+        Optional<Long> first = userDao.saveIfEmailAbsent(new User("First", "Taken@Example.com", 25));
+
+        // When
+        User nearDuplicate = new User("Second", "TAKEN@example.com", 30);
+        Optional<Long> second = userDao.saveIfEmailAbsent(nearDuplicate);
+
+        // Then
+        assertThat(first).isPresent();
+        assertThat(second).isEmpty();
+        assertThat(nearDuplicate.getId()).isNull();
+        assertThat(userDao.findAll()).extracting(User::getName).containsExactly("First");
+    }
+
+    @Test
+    void findByEmail_ShouldUseUniqueEmailIndex_OnLargeTable() {
+        // Given
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            session.createNativeMutationQuery("INSERT INTO users (name, email, age, created_at) "
+                    + "SELECT 'u' || g, 'user' || g || '@example.com', 30, now() FROM generate_series(1, 200000) g")
+                    .executeUpdate();
+            session.createNativeMutationQuery("ANALYZE users").executeUpdate();
+            session.getTransaction().commit();
+        }
+        String email = "User150000@Example.com";
+        userDao.findByEmail(email);
+
+        // When
+        String plan;
+        try (Session session = sessionFactory.openSession()) {
+            plan = String.join("\n", session.createNativeQuery("EXPLAIN SELECT * FROM users WHERE email = ?1",
+                            String.class)
+                    .setParameter(1, User.normalizeEmail(email))
+                    .list());
+        }
+        Optional<User> user = userDao.findByEmail(email);
+
+        // Then
+        assertThat(plan).contains("users_email_key");
+        assertThat(user).map(User::getName).contains("u150000");
+    }
+
     @Test
     void save_ShouldThrowException_WhenDuplicateEmail() {
         // Given
@@ -202,4 +300,235 @@ class UserDaoImplIntegrationTest {
         // When & Then
         Assertions.assertThrows(RuntimeException.class, () -> userDao.save(user2));
     }
+
+    @Test
+    void inTransaction_ShouldRollbackAllCalls_WhenWorkFails() {
+        // When
+        Assertions.assertThrows(IllegalStateException.class, () -> HibernateUtil.inTransaction(() -> {
+            userDao.save(new User("First", "first@example.com", 20));
+            userDao.save(new User("Second", "second@example.com", 21));
+            throw new IllegalStateException("Abort");
+        }));
+
+        // Then
+        assertThat(userDao.findAll()).isEmpty();
+    }
+
+    @Test
+    void inTransaction_ShouldShareSessionBetweenCalls() {
+        // Given
+        Long userId = userDao.save(new User("Shared", "shared@example.com", 33));
+
+        // When
+        boolean sameInstance = HibernateUtil.inTransaction(() ->
+                userDao.findById(userId).get() == userDao.findByEmail("shared@example.com").get());
+
+        // Then
+        assertThat(sameInstance).isTrue();
+    }
+
+    @Test
+    void deleteByIds_ShouldDeleteOnlyListedUsers() {
+        // Given
+        Long first = userDao.save(new User("First", "first@example.com", 20));
+        Long second = userDao.save(new User("Second", "second@example.com", 21));
+        Long kept = userDao.save(new User("Kept", "kept@example.com", 22));
+
+        // When
+        int deleted = userDao.deleteByIds(List.of(first, second, 999L));
+
+        // Then
+        assertThat(deleted).isEqualTo(2);
+        assertThat(userDao.findAll()).extracting(User::getId).containsExactly(kept);
+    }
+
+    @Test
+    void purgeJob_ShouldDeleteUsersCreatedBeforeCutoff() {
+        // Given
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(1);
+        for (int i = 0; i < 500; i++) {
+            User user = new User("Old" + i, "old" + i + "@example.com", 30);
+            user.setCreatedAt(cutoff.minusMinutes(i + 1));
+            userDao.save(user);
+        }
+        userDao.save(new User("Recent", "recent@example.com", 30));
+        UserPurgeJob job = UserPurgeJob.builder()
+                .userDao(userDao)
+                .chunkSize(100)
+                .pause(Duration.ZERO)
+                .build();
+
+        // When
+        PurgeReport report = job.run(PurgeCriteria.createdBefore(cutoff));
+
+        // Then
+        assertThat(report.getDeletedRows()).isEqualTo(500);
+        assertThat(userDao.findAll()).extracting(User::getEmail).containsExactly("recent@example.com");
+    }
+
+    @Test
+    void findCreatedBetween_ShouldPageByCreatedAtAndId() {
+        // Given
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+        for (int i = 0; i < 7; i++) {
+            User user = new User("User" + i, "page" + i + "@example.com", 20);
+            // Pairs of users share a timestamp to exercise the id tie-breaker
+            user.setCreatedAt(base.plusMinutes(i / 2));
+            userDao.save(user);
+        }
+        User outside = new User("Outside", "outside@example.com", 20);
+        outside.setCreatedAt(base.plusDays(1));
+        userDao.save(outside);
+
+        // When
+        List<String> emails = new ArrayList<>();
+        CreatedAtCursor cursor = null;
+        List<User> page;
+        do {
+            page = userDao.findCreatedBetween(base, base.plusHours(1), cursor, 3);
+            page.forEach(user -> emails.add(user.getEmail()));
+            cursor = page.isEmpty() ? cursor : CreatedAtCursor.of(page.get(page.size() - 1));
+        } while (page.size() == 3);
+
+        // Then
+        assertThat(emails).containsExactly("page0@example.com", "page1@example.com", "page2@example.com",
+                "page3@example.com", "page4@example.com", "page5@example.com", "page6@example.com");
+    }
+
+    @Test
+    void findCreatedBetween_ShouldUseCreatedAtIndex_OnLargeTable() throws Exception {
+        // Given
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            session.createNativeMutationQuery("INSERT INTO users (name, email, age, created_at) "
+                    + "SELECT 'u' || g, 'u' || g || '@example.com', 30, "
+                    + "TIMESTAMP '2024-01-01' + g * INTERVAL '1 second' FROM generate_series(1, 200000) g")
+                    .executeUpdate();
+            session.createNativeMutationQuery("ANALYZE users").executeUpdate();
+            session.getTransaction().commit();
+        }
+        LocalDateTime from = LocalDateTime.of(2024, 1, 2, 0, 0);
+        long scansBefore = indexScans("idx_users_created_at_id");
+
+        // When
+        List<User> page = HibernateUtil.inTransaction(() -> {
+            List<User> result = userDao.findCreatedBetween(from, from.plusDays(1),
+                    new CreatedAtCursor(from.plusHours(1), 0L), 100);
+            // Publish this backend's index statistics at commit rather than when it next idles
+            HibernateUtil.getCurrentSession().createNativeQuery("SELECT pg_stat_force_next_flush()", Object.class)
+                    .list();
+            return result;
+        });
+
+        // Then: the statement the DAO sent was answered from the index
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (indexScans("idx_users_created_at_id") == scansBefore && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        assertThat(indexScans("idx_users_created_at_id")).isGreaterThan(scansBefore);
+        assertThat(page).hasSize(100);
+        assertThat(page.get(0).getCreatedAt()).isAfterOrEqualTo(from.plusHours(1));
+    }
+
+    @Test
+    void startupWarmup_ShouldOpenPoolCompileQueriesAndRunWorkload() {
+        // Given
+        userDao.saveAll(List.of(new User("Warm", "warm@example.com", 30), new User("Up", "up@example.com", 31)));
+        StartupWarmup warmup = StartupWarmup.builder()
+                .userDao(userDao)
+                .poolSize(3)
+                .threads(2)
+                .duration(Duration.ofSeconds(30))
+                .iterations(400L)
+                .build();
+
+        // When
+        WarmupReport report = warmup.run();
+
+        // Then
+        assertThat(report.getConnectionsOpened()).isEqualTo(3);
+        assertThat(report.getOperations()).isEqualTo(400);
+        assertThat(report.getLastWindowP50Micros()).isPositive();
+    }
+
+    @Test
+    void update_ShouldTimeOutAndCancelStatement_WhenRowIsLocked() throws Exception {
+        // Given
+        Long userId = userDao.save(new User("Locked", "locked@example.com", 40));
+        User user = userDao.findById(userId).orElseThrow();
+        user.setAge(41);
+        long timeoutsBefore = QueryTimeouts.getTimeoutCount("update");
+
+        try (Connection locker = DriverManager.getConnection(TestDatabaseConfig.getJdbcUrl(),
+                TestDatabaseConfig.getUsername(), TestDatabaseConfig.getPassword())) {
+            locker.setAutoCommit(false);
+            try (PreparedStatement lock = locker.prepareStatement("SELECT id FROM users WHERE id = ? FOR UPDATE")) {
+                lock.setLong(1, userId);
+                lock.executeQuery().close();
+            }
+
+            // When
+            long start = System.nanoTime();
+            Throwable thrown = catchThrowable(() ->
+                    QueryTimeouts.runWithTimeout(Duration.ofMillis(200), () -> userDao.update(user)));
+            long millis = (System.nanoTime() - start) / 1_000_000;
+
+            // Then
+            assertThat(thrown).isInstanceOf(DaoTimeoutException.class);
+            assertThat(((DaoTimeoutException) thrown).getOperation()).isEqualTo("update");
+            assertThat(millis).isLessThan(2_000);
+            assertThat(QueryTimeouts.getTimeoutCount("update")).isEqualTo(timeoutsBefore + 1);
+            try (PreparedStatement waiting = locker.prepareStatement(
+                    "SELECT count(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock' AND datname = current_database()")) {
+                ResultSet resultSet = waiting.executeQuery();
+                resultSet.next();
+                assertThat(resultSet.getInt(1)).isZero();
+            }
+            locker.rollback();
+        }
+        assertThat(userDao.findById(userId)).map(User::getAge).contains(40);
+    }
+
+    @Test
+    void configuredTimeout_ShouldApplyPerOperation() throws Exception {
+        // Given
+        Long userId = userDao.save(new User("Configured", "configured@example.com", 40));
+        QueryTimeouts.configure("deleteByIds", Duration.ofMillis(150));
+        try (Connection locker = DriverManager.getConnection(TestDatabaseConfig.getJdbcUrl(),
+                TestDatabaseConfig.getUsername(), TestDatabaseConfig.getPassword())) {
+            locker.setAutoCommit(false);
+            try (PreparedStatement lock = locker.prepareStatement("SELECT id FROM users WHERE id = ? FOR UPDATE")) {
+                lock.setLong(1, userId);
+                lock.executeQuery().close();
+            }
+
+            // When / Then
+            assertThatThrownBy(() -> userDao.deleteByIds(List.of(userId))).isInstanceOf(DaoTimeoutException.class);
+            assertThat(userDao.findById(userId)).isPresent();
+            locker.rollback();
+        } finally {
+            QueryTimeouts.configure("deleteByIds", null);
+        }
+        assertThat(userDao.deleteByIds(List.of(userId))).isEqualTo(1);
+    }
+
+    @Test
+    void expiredDeadline_ShouldFailFast_WithoutQuery() {
+        // When / Then
+        assertThatThrownBy(() -> QueryTimeouts.withTimeout(Duration.ZERO, () -> userDao.findById(1L)))
+                .isInstanceOf(DaoTimeoutException.class)
+                .hasMessageContaining("findById");
+    }
+
+    private static long indexScans(String indexName) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(TestDatabaseConfig.getJdbcUrl(),
+                TestDatabaseConfig.getUsername(), TestDatabaseConfig.getPassword());
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT idx_scan FROM pg_stat_user_indexes WHERE relid = 'users'::regclass AND indexrelname = ?")) {
+            statement.setString(1, indexName);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getLong(1) : 0;
+            }
+        }
+    }
 }
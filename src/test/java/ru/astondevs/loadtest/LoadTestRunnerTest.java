@@ -0,0 +1,116 @@
+package ru.astondevs.loadtest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import ru.astondevs.dao.UserDao;
+import ru.astondevs.entity.User;
+import ru.astondevs.util.TransactionRunner;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class LoadTestRunnerTest {
+
+    @Mock
+    private UserDao userDao;
+
+    @Test
+    void run_ShouldReportEveryOperationOfTheMix() {
+        // Given
+        AtomicLong ids = new AtomicLong();
+        when(userDao.findByEmail(anyString())).thenReturn(Optional.empty());
+        when(userDao.save(any(User.class))).thenAnswer(invocation -> ids.incrementAndGet());
+        when(userDao.findById(anyLong())).thenReturn(Optional.of(new User("Seed", "seed0@load.test", 20)));
+        LoadTestConfig config = LoadTestConfig.builder()
+                .threads(2)
+                .warmup(Duration.ZERO)
+                .duration(Duration.ofMillis(300))
+                .keySpace(50)
+                .distribution("zipfian")
+                .mix(LoadTestConfig.parseMix("findById=25,findByEmail=25,save=25,update=25"))
+                .build();
+
+        // When
+        LoadTestReport report = new LoadTestRunner(userDao, TransactionRunner.direct(), config).run();
+
+        // Then
+        assertThat(report.getLatencies()).containsOnlyKeys(Operation.values());
+        assertThat(report.getLatencies().values()).allSatisfy(histogram -> assertThat(histogram.getCount()).isPositive());
+        assertThat(report.getTotalErrors()).isZero();
+        assertThat(report.toText()).contains("findByEmail", "p99.9 ms");
+        assertThat(report.toJson()).startsWith("{\"mode\":\"closed-loop\"").contains("\"p99.9\":");
+        verify(userDao, atLeastOnce()).update(any(User.class));
+        verify(userDao, atLeastOnce()).deleteByIds(anyList());
+    }
+
+    @Test
+    void run_ShouldKeepScheduledRate_InOpenLoopMode() {
+        // Given
+        when(userDao.findByEmail(anyString())).thenReturn(Optional.of(new User("Seed", "seed0@load.test", 20)));
+        LoadTestConfig config = LoadTestConfig.builder()
+                .threads(2)
+                .warmup(Duration.ZERO)
+                .duration(Duration.ofSeconds(1))
+                .keySpace(10)
+                .targetRate(200)
+                .mix(Map.of(Operation.FIND_BY_ID, 1))
+                .build();
+
+        // When
+        LoadTestReport report = new LoadTestRunner(userDao, TransactionRunner.direct(), config).run();
+
+        // Then
+        assertThat(report.getTotalOperations()).isBetween(190L, 210L);
+    }
+
+    @Test
+    void histogram_ShouldReportPercentilesWithinPrecision() {
+        // Given
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros * 1000);
+        }
+
+        // Then
+        assertThat(histogram.getCount()).isEqualTo(10_000);
+        assertThat(histogram.getValueAtPercentile(50)).isCloseTo(5_000_000L, org.assertj.core.data.Percentage.withPercentage(2));
+        assertThat(histogram.getValueAtPercentile(99)).isCloseTo(9_900_000L, org.assertj.core.data.Percentage.withPercentage(2));
+        assertThat(histogram.getValueAtPercentile(100)).isEqualTo(10_000_000L);
+    }
+
+    @Test
+    void zipfian_ShouldFavourLowKeys() {
+        // Given
+        KeyGenerator keys = KeyGenerator.zipfian(1000, 0.99);
+        int hot = 0;
+
+        // When
+        for (int i = 0; i < 100_000; i++) {
+            int key = keys.nextKey();
+            assertThat(key).isBetween(0, 999);
+            if (key < 10) {
+                hot++;
+            }
+        }
+
+        // Then
+        assertThat(hot).isGreaterThan(30_000);
+    }
+}
@@ -0,0 +1,217 @@
+package ru.astondevs.migration;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.astondevs.config.TestDatabaseConfig;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs migrations in a schema of their own, so the shared {@code users} table is left alone.
+ */
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SchemaMigratorIntegrationTest {
+    private static final String SCHEMA = "migration_it";
+    private static final List<Migration> TEST_MIGRATIONS = List.of(
+            Migration.transactional(1, "Create items", "db/migration-test/V1__create_items.sql"),
+            Migration.nonTransactional(2, "Unique code", "db/migration-test/V2__unique_code.sql"));
+
+    private String schemaUrl;
+
+    @BeforeAll
+    void setUp() {
+        TestDatabaseConfig.startContainer();
+        String url = TestDatabaseConfig.getJdbcUrl();
+        schemaUrl = url + (url.contains("?") ? "&" : "?") + "currentSchema=" + SCHEMA;
+    }
+
+    @AfterAll
+    void tearDown() throws SQLException {
+        execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+    }
+
+    @BeforeEach
+    void recreateSchema() throws SQLException {
+        execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        execute("CREATE SCHEMA " + SCHEMA);
+    }
+
+    @Test
+    void migrate_ShouldApplyEveryMigrationOnce() throws SQLException {
+        // Given
+        SchemaMigrator migrator = migrator(SchemaMigrator.MIGRATIONS);
+
+        // When
+        int first = migrator.migrate();
+        int second = migrator.migrate();
+
+        // Then
+        assertThat(first).isEqualTo(SchemaMigrator.MIGRATIONS.size());
+        assertThat(second).isZero();
+        assertThat(query("SELECT indexname FROM pg_indexes WHERE schemaname = '" + SCHEMA + "'"))
+                .contains("idx_users_created_at_id")
+                .doesNotContain("idx_users_email_lower", "idx_users_name_lower_prefix");
+        assertThat(query("SELECT conname FROM pg_constraint WHERE convalidated AND conrelid = '" + SCHEMA
+                + ".users'::regclass")).contains("users_email_key", "users_email_normalized");
+        assertThat(query("SELECT tgname FROM pg_trigger WHERE tgrelid = '" + SCHEMA + ".users'::regclass"))
+                .contains("users_notify_insert", "users_notify_update", "users_notify_delete", "users_notify_truncate");
+        assertThat(columnLengths()).containsExactly("email=50", "name=25");
+    }
+
+    @Test
+    void migrate_ShouldAlignLegacyImportSqlTable() throws SQLException {
+        // Given: the table as the former import.sql created it, with a row
+        execute("CREATE TABLE " + SCHEMA + ".users (id BIGSERIAL PRIMARY KEY, name VARCHAR(100) NOT NULL,"
+                + " email VARCHAR(150) UNIQUE NOT NULL, age INTEGER,"
+                + " created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+        execute("INSERT INTO " + SCHEMA + ".users (name, email, age) VALUES ('Legacy', ' Legacy@Example.com', 40)");
+
+        // When
+        migrator(SchemaMigrator.MIGRATIONS).migrate();
+
+        // Then
+        assertThat(columnLengths()).containsExactly("email=50", "name=25");
+        assertThat(query("SELECT name || ' ' || email FROM " + SCHEMA + ".users"))
+                .containsExactly("Legacy legacy@example.com");
+    }
+
+    @Test
+    void migrate_ShouldStopAtEmailNormalization_WhenEmailsDifferOnlyInCase() throws SQLException {
+        // Given: near-duplicate users created before emails were normalized
+        SchemaMigrator migrator = migrator(SchemaMigrator.MIGRATIONS.subList(0, 4));
+        migrator.migrate();
+        execute("INSERT INTO " + SCHEMA + ".users (name, email)"
+                + " VALUES ('A', 'dup@example.com'), ('B', 'Dup@Example.com')");
+
+        // When / Then
+        assertThatThrownBy(migrator(SchemaMigrator.MIGRATIONS)::migrate)
+                .hasStackTraceContaining("users_email_key");
+        assertThat(query("SELECT max(version)::text FROM " + SCHEMA + ".schema_migrations")).containsExactly("4");
+        assertThat(query("SELECT email FROM " + SCHEMA + ".users ORDER BY name"))
+                .containsExactly("dup@example.com", "Dup@Example.com");
+    }
+
+    @Test
+    void migrate_ShouldDropNamePrefixIndex_WhenFormerMigrationFiveApplied() throws SQLException {
+        // Given: a database migrated while version 5 still created the name prefix index
+        migrator(SchemaMigrator.MIGRATIONS.subList(0, 4)).migrate();
+        execute("CREATE INDEX idx_users_name_lower_prefix ON " + SCHEMA + ".users (lower(name) text_pattern_ops)");
+        execute("INSERT INTO " + SCHEMA + ".schema_migrations (version, description, checksum, execution_ms)"
+                + " VALUES (5, 'Index lower(name) prefixes', 0, 0)");
+
+        // When
+        int applied = migrator(SchemaMigrator.MIGRATIONS).migrate();
+
+        // Then
+        assertThat(applied).isEqualTo(SchemaMigrator.MIGRATIONS.size() - 4);
+        assertThat(query("SELECT indexname FROM pg_indexes WHERE schemaname = '" + SCHEMA + "'"))
+                .doesNotContain("idx_users_name_lower_prefix");
+    }
+
+    @Test
+    void migrate_ShouldRebuildIndex_LeftInvalidByFailedConcurrentBuild() throws SQLException {
+        // Given: a concurrent unique index build fails on duplicates
+        SchemaMigrator migrator = migrator(TEST_MIGRATIONS);
+        migrator.migrate();
+        execute("DELETE FROM " + SCHEMA + ".schema_migrations WHERE version = 2");
+        execute("DROP INDEX " + SCHEMA + ".idx_items_code");
+        execute("INSERT INTO " + SCHEMA + ".items (code) VALUES (1), (1)");
+        assertThatThrownBy(migrator::migrate).hasMessageContaining("Failed to migrate schema");
+        assertThat(invalidIndexes()).containsExactly("idx_items_code");
+
+        // When
+        execute("DELETE FROM " + SCHEMA + ".items WHERE id = (SELECT max(id) FROM " + SCHEMA + ".items)");
+        int applied = migrator.migrate();
+
+        // Then
+        assertThat(applied).isEqualTo(1);
+        assertThat(invalidIndexes()).isEmpty();
+        assertThatThrownBy(() -> execute("INSERT INTO " + SCHEMA + ".items (code) VALUES (1)"))
+                .hasMessageContaining("idx_items_code");
+    }
+
+    @Test
+    void migrate_ShouldKeepInvalidIndexes_NotCreatedByPendingMigration() throws SQLException {
+        // Given: an unrelated concurrent index build failed on duplicates
+        migrator(TEST_MIGRATIONS.subList(0, 1)).migrate();
+        execute("INSERT INTO " + SCHEMA + ".items (code) VALUES (1), (1)");
+        assertThatThrownBy(() -> execute("CREATE UNIQUE INDEX CONCURRENTLY idx_items_code_plus ON " + SCHEMA
+                + ".items ((code + 0))")).hasMessageContaining("idx_items_code_plus");
+        execute("DELETE FROM " + SCHEMA + ".items WHERE id = (SELECT max(id) FROM " + SCHEMA + ".items)");
+
+        // When
+        int applied = migrator(TEST_MIGRATIONS).migrate();
+
+        // Then
+        assertThat(applied).isEqualTo(1);
+        assertThat(invalidIndexes()).containsExactly("idx_items_code_plus");
+    }
+
+    @Test
+    void migrate_ShouldFail_WhenAppliedScriptChanged() throws SQLException {
+        // Given
+        SchemaMigrator migrator = migrator(TEST_MIGRATIONS);
+        migrator.migrate();
+        execute("UPDATE " + SCHEMA + ".schema_migrations SET checksum = checksum + 1 WHERE version = 1");
+
+        // When / Then
+        assertThatThrownBy(migrator::migrate)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Migration 1");
+    }
+
+    private SchemaMigrator migrator(List<Migration> migrations) {
+        return new SchemaMigrator(schemaUrl, TestDatabaseConfig.getUsername(), TestDatabaseConfig.getPassword(),
+                migrations);
+    }
+
+    private List<String> columnLengths() throws SQLException {
+        return query("SELECT column_name || '=' || character_maximum_length FROM information_schema.columns"
+                + " WHERE table_schema = '" + SCHEMA + "' AND table_name = 'users'"
+                + " AND character_maximum_length IS NOT NULL ORDER BY column_name");
+    }
+
+    private List<String> invalidIndexes() throws SQLException {
+        return query("SELECT c.relname FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid"
+                + " JOIN pg_namespace n ON n.oid = c.relnamespace WHERE NOT i.indisvalid AND n.nspname = '"
+                + SCHEMA + "'");
+    }
+
+    private List<String> query(String sql) throws SQLException {
+        List<String> values = new ArrayList<>();
+        try (Connection connection = openConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            while (resultSet.next()) {
+                values.add(resultSet.getString(1));
+            }
+        }
+        return values;
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = openConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(TestDatabaseConfig.getJdbcUrl(), TestDatabaseConfig.getUsername(),
+                TestDatabaseConfig.getPassword());
+    }
+}
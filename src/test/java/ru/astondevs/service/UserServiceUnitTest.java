@@ -2,16 +2,24 @@ package ru.astondevs.service;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.astondevs.dao.UserDao;
 import ru.astondevs.entity.User;
+import ru.astondevs.util.TransactionRunner;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -32,15 +40,13 @@ class UserServiceUnitTest {
         Scanner scanner = new Scanner(new ByteArrayInputStream(input.getBytes()));
         UserService userService = new UserService(userDao, scanner);
 
-        when(userDao.findByEmail("john@example.com")).thenReturn(Optional.empty());
-        when(userDao.save(any(User.class))).thenReturn(1L);
+        when(userDao.saveIfEmailAbsent(any(User.class))).thenReturn(Optional.of(1L));
 
         // When
         userService.createUser();
 
         // Then
-        verify(userDao).findByEmail("john@example.com");
-        verify(userDao).save(any(User.class));
+        verify(userDao).saveIfEmailAbsent(any(User.class));
     }
 
     @Test
@@ -50,14 +56,13 @@ class UserServiceUnitTest {
         Scanner scanner = new Scanner(new ByteArrayInputStream(input.getBytes()));
         UserService userService = new UserService(userDao, scanner);
 
-        User existingUser = new User("Existing User", "existing@example.com", 25);
-        when(userDao.findByEmail("existing@example.com")).thenReturn(Optional.of(existingUser));
+        when(userDao.saveIfEmailAbsent(any(User.class))).thenReturn(Optional.empty());
 
         // When
         userService.createUser();
 
         // Then
-        verify(userDao).findByEmail("existing@example.com");
+        verify(userDao).saveIfEmailAbsent(any(User.class));
         verify(userDao, never()).save(any(User.class));
     }
 
@@ -74,6 +79,34 @@ class UserServiceUnitTest {
         // Then
         // При невалидном возрасте метод должен завершиться с ошибкой ДО вызова userDao
         verify(userDao, never()).findByEmail(anyString());
+        verify(userDao, never()).saveIfEmailAbsent(any(User.class));
+    }
+
+    @Test
+    void createUser_ShouldCheckEmailAndSaveInOneStatement_WithNormalizedEmail() {
+        // Given
+        String input = "John Doe\nJohn.Doe@Example.COM\n30\n";
+        Scanner scanner = new Scanner(new ByteArrayInputStream(input.getBytes()));
+        AtomicInteger transactions = new AtomicInteger();
+        TransactionRunner runner = new TransactionRunner() {
+            @Override
+            public <T> T inTransaction(Supplier<T> work) {
+                transactions.incrementAndGet();
+                return work.get();
+            }
+        };
+        UserService userService = new UserService(userDao, scanner, runner);
+
+        ArgumentCaptor<User> saved = ArgumentCaptor.forClass(User.class);
+        when(userDao.saveIfEmailAbsent(saved.capture())).thenReturn(Optional.of(1L));
+
+        // When
+        userService.createUser();
+
+        // Then
+        assertThat(transactions.get()).isZero();
+        assertThat(saved.getValue().getEmail()).isEqualTo("john.doe@example.com");
+        verify(userDao, never()).findByEmail(anyString());
         verify(userDao, never()).save(any(User.class));
     }
 
@@ -153,6 +186,59 @@ class UserServiceUnitTest {
         verify(userDao).findAll();
     }
 
+    @Test
+    void listUsers_ShouldPageWithKeysetQueries_AndRenderTable() {
+        // Given
+        Scanner scanner = new Scanner(new ByteArrayInputStream("n\nn\np\nj 500\nq\n".getBytes()));
+        UserService userService = new UserService(userDao, scanner);
+        when(userDao.findPage(null, 21)).thenReturn(users(1, 21));
+        when(userDao.findPage(20L, 21)).thenReturn(users(21, 5));
+        when(userDao.findPageBefore(21L, 21)).thenReturn(users(1, 20));
+        when(userDao.findPage(499L, 21)).thenReturn(users(500, 3));
+        PrintStream console = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output, true));
+
+        // When
+        try {
+            userService.listUsers();
+        } finally {
+            System.setOut(console);
+        }
+
+        // Then
+        String text = output.toString();
+        verify(userDao, never()).findAll();
+        assertThat(text).contains("IDs 1-20 (20 users)", "IDs 21-25 (5 users), last page",
+                "Already at the last page.", "IDs 500-502 (3 users), last page");
+        assertThat(text).containsPattern("\\n +21  User21 +user21@example\\.com +41  \\d{4}-");
+    }
+
+    @Test
+    void listUsers_ShouldShowLastPage_WhenJumpingPastHighestId() {
+        // Given
+        Scanner scanner = new Scanner(new ByteArrayInputStream("j 9999\np\nq\n".getBytes()));
+        UserService userService = new UserService(userDao, scanner);
+        when(userDao.findPage(null, 21)).thenReturn(users(1, 21));
+        when(userDao.findPage(9998L, 21)).thenReturn(List.of());
+        when(userDao.findPageBefore(null, 21)).thenReturn(users(5, 21));
+        when(userDao.findPageBefore(6L, 21)).thenReturn(users(1, 5));
+        PrintStream console = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output, true));
+
+        // When
+        try {
+            userService.listUsers();
+        } finally {
+            System.setOut(console);
+        }
+
+        // Then
+        assertThat(output.toString()).contains("No users with ID 9999 or greater, showing the last page.",
+                "IDs 6-25 (20 users), last page", "IDs 1-5 (5 users)");
+    }
+
     @Test
     void updateUser_ShouldUpdateUser_WhenValidInput() {
         // Given
@@ -264,4 +350,14 @@ class UserServiceUnitTest {
         verify(userDao).findById(999L);
         verify(userDao, never()).delete(anyLong());
     }
+
+    private static List<User> users(long firstId, int count) {
+        List<User> users = new ArrayList<>();
+        for (long id = firstId; id < firstId + count; id++) {
+            User user = new User("User" + id, "user" + id + "@example.com", (int) (20 + id));
+            user.setId(id);
+            users.add(user);
+        }
+        return users;
+    }
 }
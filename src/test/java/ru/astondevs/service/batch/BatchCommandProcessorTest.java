@@ -0,0 +1,193 @@
+package ru.astondevs.service.batch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.astondevs.dao.UserDao;
+import ru.astondevs.entity.User;
+import ru.astondevs.util.TransactionRunner;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BatchCommandProcessorTest {
+
+    @Mock
+    private UserDao userDao;
+
+    private List<String> run(String input, int chunkSize) throws Exception {
+        BatchCommandProcessor processor = new BatchCommandProcessor(userDao, TransactionRunner.direct(), chunkSize);
+        StringWriter output = new StringWriter();
+        processor.process(new StringReader(input), output);
+        return output.toString().lines().toList();
+    }
+
+    private static User user(long id, String name, String email, int age) {
+        User user = new User(name, email, age);
+        user.setId(id);
+        return user;
+    }
+
+    @Test
+    void process_ShouldSaveConsecutiveCreatesWithOneCall() throws Exception {
+        // Given
+        String input = """
+                create;John;john@example.com;30
+                create;Jane;jane@example.com;25
+                create;Copy;john@example.com;40
+                create;Bad;not-an-email;20
+                """;
+        when(userDao.findAllByEmails(Set.of("john@example.com", "jane@example.com"))).thenReturn(List.of());
+        when(userDao.saveAll(anyList())).thenReturn(List.of(1L, 2L));
+
+        // When
+        List<String> lines = run(input, 100);
+
+        // Then
+        assertThat(lines).containsExactly(
+                "1\tcreate\tOK\t1",
+                "2\tcreate\tOK\t2",
+                "3\tcreate\tDUPLICATE\tEmail repeated in batch",
+                "4\tcreate\tINVALID\tInvalid email format");
+        verify(userDao, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void process_ShouldTreatEmailsDifferingOnlyInCaseAsDuplicates() throws Exception {
+        // Given
+        String input = """
+                create;John;John@Example.com;30
+                create;Copy;john@example.COM;40
+                create;Jane;Jane@Example.com;25
+                update;4;;JANE@example.com;
+                """;
+        User jane = user(3, "Jane", "jane@example.com", 25);
+        User jack = user(4, "Jack", "jack@example.com", 35);
+        when(userDao.findAllByEmails(Set.of("john@example.com", "jane@example.com"))).thenReturn(List.of(jane));
+        when(userDao.saveAll(anyList())).thenReturn(List.of(1L));
+        when(userDao.findAllByIds(Set.of(4L))).thenReturn(List.of(jack));
+        when(userDao.findAllByEmails(Set.of("jane@example.com"))).thenReturn(List.of(jane));
+
+        // When
+        List<String> lines = run(input, 100);
+
+        // Then
+        assertThat(lines).containsExactly(
+                "1\tcreate\tOK\t1",
+                "2\tcreate\tDUPLICATE\tEmail repeated in batch",
+                "3\tcreate\tDUPLICATE\tEmail already exists",
+                "4\tupdate\tDUPLICATE\tAnother user with this email already exists");
+        assertThat(jack.getEmail()).isEqualTo("jack@example.com");
+    }
+
+    @Test
+    void process_ShouldSplitIntoChunksAndKeepInputOrder() throws Exception {
+        // Given
+        String input = """
+                get;1
+                get;2
+                get;3
+                # comment
+                delete;2
+                get;x
+                """;
+        when(userDao.findAllByIds(anyCollection())).thenAnswer(invocation -> {
+            java.util.Collection<?> ids = invocation.getArgument(0);
+            return ids.contains(1L) ? List.of(user(1, "John", "john@example.com", 30))
+                    : ids.contains(2L) ? List.of(user(2, "Jane", "jane@example.com", 25)) : List.of();
+        });
+
+        // When
+        List<String> lines = run(input, 2);
+
+        // Then
+        assertThat(lines).hasSize(5);
+        assertThat(lines.get(0)).startsWith("1\tget\tOK\t1\tJohn\tjohn@example.com\t30\t");
+        assertThat(lines.get(1)).isEqualTo("2\tget\tNOT_FOUND\tUser not found with ID: 2");
+        assertThat(lines.get(2)).isEqualTo("3\tget\tNOT_FOUND\tUser not found with ID: 3");
+        assertThat(lines.get(3)).isEqualTo("5\tdelete\tOK\t2");
+        assertThat(lines.get(4)).isEqualTo("6\tget\tINVALID\tID must be a valid number");
+        verify(userDao).deleteByIds(Set.of(2L));
+    }
+
+    @Test
+    void process_ShouldRejectEmailTakenByAnotherUser_OnUpdate() throws Exception {
+        // Given
+        String input = """
+                update;1;New Name;;31
+                update;2;;john@example.com;
+                """;
+        User john = user(1, "John", "john@example.com", 30);
+        User jane = user(2, "Jane", "jane@example.com", 25);
+        when(userDao.findAllByIds(Set.of(1L, 2L))).thenReturn(List.of(john, jane));
+        when(userDao.findAllByEmails(Set.of("john@example.com"))).thenReturn(List.of(john));
+
+        // When
+        List<String> lines = run(input, 10);
+
+        // Then
+        assertThat(lines).containsExactly(
+                "1\tupdate\tOK\t1",
+                "2\tupdate\tDUPLICATE\tAnother user with this email already exists");
+        assertThat(john.getName()).isEqualTo("New Name");
+        assertThat(john.getAge()).isEqualTo(31);
+        verify(userDao).updateAll(List.of(john));
+    }
+
+    @Test
+    void process_ShouldRetryCommandsOneByOne_WhenChunkFails() throws Exception {
+        // Given
+        String input = """
+                delete;1
+                delete;2
+                """;
+        when(userDao.findAllByIds(Set.of(1L, 2L))).thenThrow(new RuntimeException("Deadlock"));
+        when(userDao.findAllByIds(Set.of(1L))).thenReturn(List.of(user(1, "John", "john@example.com", 30)));
+        when(userDao.findAllByIds(Set.of(2L))).thenThrow(new RuntimeException("Failed", new IllegalStateException("Row locked")));
+
+        // When
+        List<String> lines = run(input, 10);
+
+        // Then
+        assertThat(lines).containsExactly("1\tdelete\tOK\t1", "2\tdelete\tERROR\tRow locked");
+    }
+
+    @Test
+    void process_ShouldKeepOneResultLinePerCommand_WhenValuesContainTabsOrLineBreaks() throws Exception {
+        // Given
+        String input = "get;1\ncreate;Tab\tName;tab@example.com;20\nupdate;1;Tab\tName;;\n";
+        when(userDao.findAllByIds(Set.of(1L))).thenReturn(List.of(user(1, "Line\nBreak\tName", "john@example.com", 30)));
+
+        // When
+        List<String> lines = run(input, 10);
+
+        // Then
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(0)).startsWith("1\tget\tOK\t1\tLine Break Name\tjohn@example.com\t30\t");
+        assertThat(lines.subList(1, 3)).containsExactly(
+                "2\tcreate\tINVALID\tName cannot contain tabs or line breaks",
+                "3\tupdate\tINVALID\tName cannot contain tabs or line breaks");
+    }
+
+    @Test
+    void process_ShouldReportUnknownCommands() throws Exception {
+        // When
+        List<String> lines = run("drop;1\nget\n", 10);
+
+        // Then
+        assertThat(lines).containsExactly(
+                "1\t?\tINVALID\tUnknown command 'drop'",
+                "2\t?\tINVALID\tget expects 1 field(s), got 0");
+    }
+}
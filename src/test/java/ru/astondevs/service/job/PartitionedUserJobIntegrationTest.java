@@ -0,0 +1,189 @@
+package ru.astondevs.service.job;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.astondevs.config.TestDatabaseConfig;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PartitionedUserJobIntegrationTest {
+    private static final int ROWS = 5_000;
+
+    private SessionFactory sessionFactory;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeAll
+    void setUp() {
+        sessionFactory = TestDatabaseConfig.createTestSessionFactory();
+    }
+
+    @AfterAll
+    void tearDown() {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+        TestDatabaseConfig.stopContainer();
+    }
+
+    @BeforeEach
+    void seedUsers() throws Exception {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            session.createMutationQuery("DELETE FROM User").executeUpdate();
+            session.getTransaction().commit();
+        }
+        execute("INSERT INTO users (name, email, age, created_at) SELECT ' User' || g || ' ',"
+                + " 'user' || g || '@example.com', 30, now() FROM generate_series(1, " + ROWS + ") g");
+    }
+
+    @Test
+    void run_ShouldProcessEveryRow_AcrossParallelPartitions() throws Exception {
+        // Given
+        PartitionedUserJob job = PartitionedUserJob.builder()
+                .name("trim-names")
+                .task(UserBatchTask.trimNames())
+                .sessionFactory(sessionFactory)
+                .partitions(8)
+                .parallelism(4)
+                .chunkSize(200)
+                .checkpointFile(tempDir.resolve("job.checkpoint"))
+                .build();
+
+        // When
+        BatchJobReport report = job.run();
+
+        // Then
+        assertThat(report.getPartitions()).hasSize(8).allMatch(PartitionReport::isDone);
+        assertThat(report.getProcessedRows()).isEqualTo(ROWS);
+        assertThat(report.getUpdatedRows()).isEqualTo(ROWS);
+        assertThat(count("name <> btrim(name)")).isZero();
+        assertThat(tempDir.resolve("job.checkpoint")).doesNotExist();
+    }
+
+    @Test
+    void run_ShouldNotOverwriteConcurrentUpdate_OfRowInChunk() throws Exception {
+        // Given: while the job holds a chunk, another transaction updates the age of one of its users
+        long targetId = queryLong("SELECT min(id) FROM users");
+        AtomicReference<Future<?>> concurrentUpdate = new AtomicReference<>();
+        ExecutorService updater = Executors.newSingleThreadExecutor();
+        UserBatchTask trimNames = UserBatchTask.trimNames();
+        UserBatchTask trimNamesBlockingTarget = user -> {
+            if (user.getId() == targetId) {
+                concurrentUpdate.set(updater.submit(() -> {
+                    execute("UPDATE users SET age = 99 WHERE id = " + targetId);
+                    return null;
+                }));
+                try {
+                    concurrentUpdate.get().get(300, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    // Expected: the row is locked until the chunk commits
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return trimNames.process(user);
+        };
+        PartitionedUserJob job = PartitionedUserJob.builder()
+                .name("trim-names-locked")
+                .task(trimNamesBlockingTarget)
+                .sessionFactory(sessionFactory)
+                .partitions(1)
+                .parallelism(1)
+                .chunkSize(100)
+                .build();
+
+        // When
+        job.run();
+        concurrentUpdate.get().get(10, TimeUnit.SECONDS);
+        updater.shutdown();
+
+        // Then: both the job's and the concurrent change survive
+        assertThat(count("id = " + targetId + " AND age = 99 AND name = btrim(name)")).isEqualTo(1);
+    }
+
+    @Test
+    void run_ShouldResumeFromCheckpoint_WithoutReprocessingRows() throws Exception {
+        // Given
+        long failingId = queryLong("SELECT min(id) + " + ROWS / 2 + " FROM users");
+        AtomicBoolean failed = new AtomicBoolean();
+        UserBatchTask appendMarker = user -> {
+            if (user.getId() == failingId && failed.compareAndSet(false, true)) {
+                throw new IllegalStateException("Simulated failure at " + failingId);
+            }
+            user.setName(user.getName() + "!");
+            return true;
+        };
+        Path checkpoint = tempDir.resolve("resume.checkpoint");
+        PartitionedUserJob.PartitionedUserJobBuilder builder = PartitionedUserJob.builder()
+                .name("append-marker")
+                .task(appendMarker)
+                .sessionFactory(sessionFactory)
+                .partitions(4)
+                .parallelism(2)
+                .chunkSize(100)
+                .checkpointFile(checkpoint);
+        assertThrows(RuntimeException.class, () -> builder.build().run());
+        assertThat(checkpoint).exists();
+        assertThat(count("name LIKE '%!'")).isBetween(1L, ROWS - 1L);
+
+        // When
+        BatchJobReport report = builder.build().run();
+
+        // Then
+        assertThat(report.isResumed()).isTrue();
+        assertThat(report.getProcessedRows()).isEqualTo(ROWS);
+        assertThat(count("name NOT LIKE '%!'")).isZero();
+        assertThat(count("name LIKE '%!!'")).isZero();
+        assertThat(Files.exists(checkpoint)).isFalse();
+    }
+
+    private long count(String condition) throws Exception {
+        return queryLong("SELECT count(*) FROM users WHERE " + condition);
+    }
+
+    private static long queryLong(String sql) throws Exception {
+        try (Connection connection = connect();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static void execute(String sql) throws Exception {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static Connection connect() throws Exception {
+        return DriverManager.getConnection(TestDatabaseConfig.getJdbcUrl(), TestDatabaseConfig.getUsername(),
+                TestDatabaseConfig.getPassword());
+    }
+}
@@ -0,0 +1,106 @@
+package ru.astondevs.service.purge;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.astondevs.dao.UserDao;
+import ru.astondevs.util.TransactionRunner;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserPurgeJobTest {
+
+    @Mock
+    private UserDao userDao;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void run_ShouldDeleteIdListInChunks() {
+        // Given
+        List<Long> ids = LongStream.rangeClosed(1, 25).boxed().toList();
+        when(userDao.deleteByIds(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+        List<Long> progress = new ArrayList<>();
+        UserPurgeJob job = UserPurgeJob.builder()
+                .userDao(userDao)
+                .transactionRunner(TransactionRunner.direct())
+                .chunkSize(10)
+                .pause(Duration.ZERO)
+                .progressListener(report -> progress.add(report.getLastProcessedId()))
+                .build();
+
+        // When
+        PurgeReport report = job.run(PurgeCriteria.ids(ids));
+
+        // Then
+        assertThat(report.getDeletedRows()).isEqualTo(25);
+        assertThat(report.getChunks()).isEqualTo(3);
+        assertThat(progress).containsExactly(10L, 20L, 25L);
+        verify(userDao, times(3)).deleteByIds(anyList());
+    }
+
+    @Test
+    void run_ShouldResumeFromCheckpoint_AfterFailure() {
+        // Given
+        Path checkpoint = tempDir.resolve("purge.checkpoint");
+        LocalDateTime cutoff = LocalDateTime.of(2024, 1, 1, 0, 0);
+        PurgeCriteria criteria = PurgeCriteria.createdBefore(cutoff);
+        when(userDao.findIdsCreatedBetween(eq(criteria.getCreatedFrom()), eq(cutoff), eq(Long.MIN_VALUE), eq(2)))
+                .thenReturn(List.of(1L, 2L));
+        when(userDao.findIdsCreatedBetween(eq(criteria.getCreatedFrom()), eq(cutoff), eq(2L), eq(2)))
+                .thenThrow(new RuntimeException("Connection lost"))
+                .thenReturn(List.of(3L));
+        when(userDao.deleteByIds(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+        UserPurgeJob job = UserPurgeJob.builder()
+                .userDao(userDao)
+                .transactionRunner(TransactionRunner.direct())
+                .chunkSize(2)
+                .pause(Duration.ZERO)
+                .checkpointFile(checkpoint)
+                .build();
+
+        // When
+        assertThrows(RuntimeException.class, () -> job.run(criteria));
+        assertThat(checkpoint).exists();
+        PurgeReport report = job.run(criteria);
+
+        // Then
+        assertThat(report.isResumed()).isTrue();
+        assertThat(report.getDeletedRows()).isEqualTo(3);
+        assertThat(report.getLastProcessedId()).isEqualTo(3L);
+        assertThat(Files.exists(checkpoint)).isFalse();
+    }
+
+    @Test
+    void run_ShouldRejectCheckpointOfDifferentCriteria() throws Exception {
+        // Given
+        Path checkpoint = tempDir.resolve("purge.checkpoint");
+        Files.writeString(checkpoint, "criteria=ids:1:1\nlastId=1\n");
+        UserPurgeJob job = UserPurgeJob.builder()
+                .userDao(userDao)
+                .checkpointFile(checkpoint)
+                .build();
+
+        // When & Then
+        assertThrows(IllegalStateException.class,
+                () -> job.run(PurgeCriteria.createdBefore(LocalDateTime.of(2024, 1, 1, 0, 0))));
+    }
+}
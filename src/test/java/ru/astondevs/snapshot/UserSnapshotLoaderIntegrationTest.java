@@ -0,0 +1,119 @@
+package ru.astondevs.snapshot;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.astondevs.config.TestDatabaseConfig;
+import ru.astondevs.dao.JdbcUserDao;
+import ru.astondevs.dao.UserDao;
+import ru.astondevs.entity.User;
+import ru.astondevs.util.HibernateUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserSnapshotLoaderIntegrationTest {
+
+    private SessionFactory sessionFactory;
+    private final UserDao userDao = new JdbcUserDao();
+    private final UserSnapshotLoader loader = new UserSnapshotLoader(1_000, false);
+
+    @BeforeAll
+    void setUp() throws Exception {
+        sessionFactory = TestDatabaseConfig.createTestSessionFactory();
+        java.lang.reflect.Field field = HibernateUtil.class.getDeclaredField("sessionFactory");
+        field.setAccessible(true);
+        field.set(null, sessionFactory);
+    }
+
+    @AfterAll
+    void tearDown() {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+        TestDatabaseConfig.stopContainer();
+    }
+
+    @BeforeEach
+    void clearDatabase() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            session.createMutationQuery("DELETE FROM User").executeUpdate();
+            session.getTransaction().commit();
+        }
+    }
+
+    @Test
+    void load_ShouldReadEveryRowInIdOrder() {
+        // Given
+        List<Long> ids = userDao.saveAll(users(0, 5_000));
+
+        // When
+        UserSnapshot snapshot = loader.load();
+
+        // Then
+        assertThat(snapshot.size()).isEqualTo(5_000);
+        assertThat(snapshot.id(0)).isEqualTo(ids.get(0));
+        assertThat(snapshot.id(4_999)).isEqualTo(ids.get(4_999));
+        assertThat(snapshot.email(10)).isEqualTo("snap10@example.com");
+        assertThat(snapshot.count(snapshot.ageBetween(20, 29))).isEqualTo(2_500);
+    }
+
+    @Test
+    void refresh_ShouldApplyInsertsUpdatesAndDeletes() {
+        // Given
+        List<Long> ids = userDao.saveAll(users(0, 1_000));
+        UserSnapshot before = loader.load();
+
+        User updated = userDao.findById(ids.get(500)).orElseThrow();
+        updated.setName("Renamed");
+        updated.setAge(99);
+        userDao.update(updated);
+        userDao.deleteByIds(List.of(ids.get(0), ids.get(999)));
+        userDao.saveAll(users(1_000, 1_010));
+
+        // When
+        UserSnapshot after = loader.refresh(before);
+
+        // Then
+        UserSnapshot reloaded = loader.load();
+        assertThat(after.size()).isEqualTo(reloaded.size()).isEqualTo(1_008);
+        for (int row = 0; row < after.size(); row++) {
+            assertThat(after.toUser(row)).usingRecursiveComparison().isEqualTo(reloaded.toUser(row));
+        }
+        assertThat(after.toUser(after.indexOf(ids.get(500))).getName()).isEqualTo("Renamed");
+        assertThat(after.indexOf(ids.get(0))).isNegative();
+        assertThat(before.size()).isEqualTo(1_000);
+    }
+
+    @Test
+    void refresh_ShouldKeepSnapshot_WhenNothingChanged() {
+        // Given
+        userDao.saveAll(users(0, 100));
+        UserSnapshot first = loader.load();
+
+        // When
+        UserSnapshot refreshed = loader.refresh(loader.refresh(first));
+
+        // Then
+        assertThat(refreshed.size()).isEqualTo(100);
+        assertThat(refreshed.email(99)).isEqualTo(first.email(99));
+    }
+
+    private static List<User> users(int from, int to) {
+        List<User> users = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            users.add(new User("Snap" + (i % 10), "snap" + i + "@example.com", 20 + i % 20));
+        }
+        return users;
+    }
+}
@@ -0,0 +1,73 @@
+package ru.astondevs.snapshot;
+
+import org.junit.jupiter.api.Test;
+import ru.astondevs.entity.User;
+
+import java.time.LocalDateTime;
+import java.util.IntSummaryStatistics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserSnapshotTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final String[] NAMES = {"Anna", "Boris", "Vera", "Gleb", "Daria"};
+
+    @Test
+    void accessors_ShouldReturnStoredRow() {
+        // Given
+        UserSnapshot snapshot = new UserSnapshot.Builder(2, false)
+                .add(5, "Анна", "анна@example.com", 30, BASE)
+                .add(9, "Boris", "boris@example.com", null, BASE.plusDays(1))
+                .build(0);
+
+        // When
+        User user = snapshot.toUser(snapshot.indexOf(5));
+
+        // Then
+        assertThat(user.getId()).isEqualTo(5L);
+        assertThat(user.getName()).isEqualTo("Анна");
+        assertThat(user.getEmail()).isEqualTo("анна@example.com");
+        assertThat(user.getAge()).isEqualTo(30);
+        assertThat(user.getCreatedAt()).isEqualTo(BASE);
+        assertThat(snapshot.toUser(1).getAge()).isNull();
+        assertThat(snapshot.indexOf(7)).isNegative();
+    }
+
+    @Test
+    void builder_ShouldRejectUnorderedIds() {
+        // Given
+        UserSnapshot.Builder builder = new UserSnapshot.Builder(2, false).add(2, "A", "a@example.com", 1, BASE);
+
+        // When / Then
+        assertThatThrownBy(() -> builder.add(1, "B", "b@example.com", 1, BASE))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void scans_ShouldMatchSequentialAggregation_OnMillionRows() {
+        // Given
+        int rows = 1_000_000;
+        UserSnapshot.Builder builder = new UserSnapshot.Builder(rows, true);
+        for (int i = 0; i < rows; i++) {
+            builder.add(i + 1, NAMES[i % NAMES.length], "user" + i + (i % 2 == 0 ? "@example.com" : "@test.org"),
+                    i % 100 == 0 ? null : 18 + i % 60, BASE.plusSeconds(i));
+        }
+        UserSnapshot snapshot = builder.build(0);
+
+        // When
+        IntSummaryStatistics parallel = snapshot.ageStatistics(snapshot.emailEndsWith("@example.com"));
+        IntSummaryStatistics sequential = snapshot.aggregate(
+                row -> snapshot.age(row) != UserSnapshot.NO_AGE && snapshot.email(row).endsWith("@example.com"),
+                IntSummaryStatistics::new, (stats, row) -> stats.accept(snapshot.age(row)));
+
+        // Then
+        assertThat(parallel.getCount()).isEqualTo(sequential.getCount());
+        assertThat(parallel.getSum()).isEqualTo(sequential.getSum());
+        assertThat(snapshot.distinctNameCount()).isEqualTo(NAMES.length);
+        assertThat(snapshot.count(snapshot.nameEquals("Vera"))).isEqualTo(rows / NAMES.length);
+        assertThat(snapshot.count(snapshot.createdBetween(BASE, BASE.plusSeconds(1_000)))).isEqualTo(1_000);
+        assertThat(snapshot.filter(snapshot.ageBetween(18, 18))).hasSize(13_333)
+                .isSorted();
+    }
+}
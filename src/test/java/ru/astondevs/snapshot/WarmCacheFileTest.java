@@ -0,0 +1,86 @@
+package ru.astondevs.snapshot;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.astondevs.entity.User;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WarmCacheFileTest {
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void read_ShouldReturnWrittenUsers_SortedById() throws Exception {
+        // Given
+        Path file = tempDir.resolve("users.bin");
+        User unicode = user(42L, "Ёлка Ünïcødé", "elka@example.com", null,
+                LocalDateTime.of(1969, 12, 31, 23, 59, 59, 123_456_000));
+        User plain = user(7L, "Plain", "plain@example.com", 30, LocalDateTime.of(2024, 5, 1, 10, 0));
+        User unsaved = new User("Unsaved", "unsaved@example.com", 20);
+
+        // When
+        WarmCacheFile.write(file, List.of(unicode, plain, unsaved));
+        WarmCacheFile.Contents contents = WarmCacheFile.read(file);
+
+        // Then
+        assertThat(contents.users()).extracting(User::getId).containsExactly(7L, 42L);
+        assertThat(contents.users().get(1))
+                .usingRecursiveComparison().isEqualTo(unicode);
+        assertThat(contents.users().get(0))
+                .usingRecursiveComparison().isEqualTo(plain);
+        assertThat(contents.writtenAt()).isNotNull();
+    }
+
+    @Test
+    void read_ShouldRejectCorruptFile() throws Exception {
+        // Given
+        Path file = tempDir.resolve("corrupt.bin");
+        WarmCacheFile.write(file, List.of(user(1L, "Name", "name@example.com", 20, LocalDateTime.now())));
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x55;
+        Files.write(file, bytes);
+
+        // When / Then
+        assertThatThrownBy(() -> WarmCacheFile.read(file))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("checksum");
+    }
+
+    @Test
+    void write_ShouldEncodeCompactly_AndReadBack() throws Exception {
+        // Given
+        int count = 200_000;
+        List<User> users = new ArrayList<>(count);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 1; i <= count; i++) {
+            users.add(user((long) i, "User" + i, "user" + i + "@example.com", 18 + i % 60, base.plusSeconds(i)));
+        }
+        Path file = tempDir.resolve("large.bin");
+
+        // When
+        long bytes = WarmCacheFile.write(file, users);
+        List<User> read = WarmCacheFile.read(file).users();
+
+        // Then
+        assertThat(read).hasSize(count);
+        assertThat(read.get(count - 1).getEmail()).isEqualTo("user" + count + "@example.com");
+        assertThat(bytes).isLessThan(count * 48L);
+    }
+
+    private static User user(Long id, String name, String email, Integer age, LocalDateTime createdAt) {
+        User user = new User(name, email, age);
+        user.setId(id);
+        user.setCreatedAt(createdAt);
+        return user;
+    }
+}
@@ -0,0 +1,4 @@
+CREATE TABLE IF NOT EXISTS items (
+    id BIGSERIAL PRIMARY KEY,
+    code INTEGER NOT NULL
+);